@@ -1,84 +1,249 @@
 package com.evgenykochergin.calendar;
 
+import com.evgenykochergin.calendar.admission.AdmissionAccessManager;
 import com.evgenykochergin.calendar.auth.BasicAuthAccessManager;
 import com.evgenykochergin.calendar.auth.Principal;
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+import com.evgenykochergin.calendar.database.BoundedConnectionProvider;
 import com.evgenykochergin.calendar.database.DataSourceProvider;
 import com.evgenykochergin.calendar.database.DatabaseMigrator;
+import com.evgenykochergin.calendar.database.Shards;
 import com.evgenykochergin.calendar.error.ApplicationException;
+import com.evgenykochergin.calendar.error.ForbiddenException;
 import com.evgenykochergin.calendar.error.IncorrectDateRangeException;
+import com.evgenykochergin.calendar.error.OverloadedException;
+import com.evgenykochergin.calendar.error.TooManyRequestsException;
+import com.evgenykochergin.calendar.json.EventSerializer;
+import com.evgenykochergin.calendar.json.Json.JsonWriter;
 import com.evgenykochergin.calendar.model.Event;
 import com.evgenykochergin.calendar.model.type.EventDetailsVisibility;
+import com.evgenykochergin.calendar.model.type.EventStatus;
 import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.notification.CalendarNotifier;
+import com.evgenykochergin.calendar.notification.Notification;
+import com.evgenykochergin.calendar.notification.NotificationHub;
+import com.evgenykochergin.calendar.notification.NotificationSink;
+import com.evgenykochergin.calendar.notification.OutboxNotificationSink;
+import com.evgenykochergin.calendar.outbox.FileOutboxSink;
+import com.evgenykochergin.calendar.outbox.OutboxDispatcher;
+import com.evgenykochergin.calendar.outbox.OutboxSink;
+import com.evgenykochergin.calendar.server.VirtualThreadPool;
+import com.evgenykochergin.calendar.service.ConflictCheck;
+import com.evgenykochergin.calendar.service.EventCursor;
+import com.evgenykochergin.calendar.service.EventFields;
+import com.evgenykochergin.calendar.service.EventReadModel;
 import com.evgenykochergin.calendar.service.EventService;
+import com.evgenykochergin.calendar.service.EventService.CreateEventParams;
+import com.evgenykochergin.calendar.service.EventService.RsvpParams;
+import com.evgenykochergin.calendar.service.RsvpGroupCommitter;
 import com.evgenykochergin.calendar.service.UserService;
 import com.evgenykochergin.calendar.service.UserService.CreateUserParams;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.javalin.Javalin;
 import io.javalin.apibuilder.EndpointGroup;
+import io.javalin.http.Context;
+import io.javalin.http.sse.SseClient;
+import io.javalin.http.sse.SseHandler;
 import io.javalin.json.JavalinJackson;
 import io.javalin.validation.ValidationException;
+import org.eclipse.jetty.server.Server;
 import org.jooq.DSLContext;
 import org.jooq.impl.DataSourceConnectionProvider;
 import org.jooq.impl.DefaultConfiguration;
 import org.jooq.impl.DefaultDSLContext;
 import org.jooq.impl.ThreadLocalTransactionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.evgenykochergin.calendar.ApplicationSettings.fromSystemProperties;
+import static com.evgenykochergin.calendar.ApplicationSettings.settings;
+import static com.evgenykochergin.calendar.admission.AdmissionAccessManager.admissionAccessManager;
 import static com.evgenykochergin.calendar.auth.BasicAuthAccessManager.principal;
 import static com.evgenykochergin.calendar.auth.Role.LOGGED_IN;
-import static com.evgenykochergin.calendar.json.EventSerializer.eventJson;
-import static com.evgenykochergin.calendar.json.EventSerializer.eventWithDetailsJson;
+import static com.evgenykochergin.calendar.database.DataSourceProvider.CONNECTION_TIMEOUT_MILLIS;
+import static com.evgenykochergin.calendar.database.DataSourceProvider.MAXIMUM_POOL_SIZE;
+import static com.evgenykochergin.calendar.database.DataSourceProvider.shardJdbcUrl;
+import static com.evgenykochergin.calendar.json.BatchResultSerializer.batchResultsJson;
+import static com.evgenykochergin.calendar.json.ConflictSerializer.conflictsJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.eventViewJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.writeEventViewJson;
 import static com.evgenykochergin.calendar.json.Json.OBJECT_MAPPER;
+import static com.evgenykochergin.calendar.json.Json.arrayNode;
+import static com.evgenykochergin.calendar.json.Json.objectNode;
+import static com.evgenykochergin.calendar.json.Json.writeJson;
+import static com.evgenykochergin.calendar.json.MetricsSerializer.executorJson;
+import static com.evgenykochergin.calendar.json.MetricsSerializer.outboxJson;
+import static com.evgenykochergin.calendar.json.ResponseFormat.negotiate;
+import static com.evgenykochergin.calendar.json.TimeSlotSerializer.bestTimeSlotsJson;
+import static com.evgenykochergin.calendar.json.TimeSlotSerializer.busyTimeSlotsJson;
+import static com.evgenykochergin.calendar.json.TimeSlotSerializer.heatmapJson;
 import static com.evgenykochergin.calendar.json.TimeSlotSerializer.timeSlotJson;
 import static com.evgenykochergin.calendar.json.UserSerializer.userJson;
-import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PRIVATE;
+import static com.evgenykochergin.calendar.service.AvailabilityHeatmap.MAX_BUCKETS;
+import static com.evgenykochergin.calendar.service.AvailabilityHeatmap.bucketCountOf;
+import static com.evgenykochergin.calendar.service.AvailabilityHeatmap.heatmapOf;
+import static com.evgenykochergin.calendar.service.BestTimeSlotFinder.bestTimeSlotsOf;
+import static com.evgenykochergin.calendar.service.EventFields.ALL;
 import static com.evgenykochergin.calendar.service.EventService.CreateEventParams.createEventParams;
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.busyTimeSlots;
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.freeTimeSlotOf;
 import static io.javalin.Javalin.create;
 import static io.javalin.apibuilder.ApiBuilder.get;
 import static io.javalin.apibuilder.ApiBuilder.post;
+import static io.javalin.http.Header.ACCEPT;
+import static io.javalin.http.Header.VARY;
 import static io.javalin.http.HttpStatus.*;
+import static java.lang.String.format;
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
+import static java.time.Duration.between;
 import static java.time.Duration.ofDays;
+import static java.time.Duration.ofMillis;
 import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
 import static java.util.UUID.fromString;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jooq.SQLDialect.H2;
 
 public class Application {
-    private final DatabaseMigrator databaseMigrator;
+    private static final Logger LOGGER = LoggerFactory.getLogger(Application.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int EXECUTOR_QUEUE_CAPACITY = 1_000;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final int NOTIFICATION_BUFFER_SIZE = 64;
+    private static final int OUTBOX_BATCH_SIZE = 500;
+    private static final Duration OUTBOX_LEASE = ofSeconds(30);
+    private static final Duration OUTBOX_POLL_INTERVAL = ofMillis(50);
+    private static final int RSVP_BATCH_SIZE = 500;
+    private static final Duration RSVP_FLUSH_INTERVAL = ofMillis(5);
+
+    private final List<DatabaseMigrator> databaseMigrators = new ArrayList<>();
     private final Javalin javalin;
+    private final List<BoundedConnectionProvider> connectionProviders;
+    private final AdmissionAccessManager admissionAccessManager;
+    private final Optional<EventReadModel> readModel;
+    private final long consistencyCheckIntervalSeconds;
+    private final long snapshotIntervalSeconds;
+    /**
+     * Blocking JDBC work, sized to the connection pools of all shards so that it never queues inside Hikari.
+     */
+    private final BoundedExecutor ioExecutor;
+    /**
+     * Recurrence expansion and time slot search, sized to the number of cores.
+     */
+    private final BoundedExecutor cpuExecutor = new BoundedExecutor("cpu", Runtime.getRuntime().availableProcessors(), EXECUTOR_QUEUE_CAPACITY);
+    /**
+     * Writes buffered notifications to SSE clients, idle connections do not hold any of its threads.
+     */
+    private final BoundedExecutor notificationExecutor = new BoundedExecutor("notification", 4, EXECUTOR_QUEUE_CAPACITY);
+    public final NotificationHub notificationHub = new NotificationHub(notificationExecutor, NOTIFICATION_BUFFER_SIZE);
     public final UserService userService;
     public final EventService eventService;
+    public final OutboxDispatcher outboxDispatcher;
+    private final Optional<RsvpGroupCommitter> rsvpGroupCommitter;
+    private final AtomicBoolean firstRequestServed = new AtomicBoolean();
+    private final Optional<WarmUp> warmUp;
+    /**
+     * Turns true once the application is started and, when enabled, warmed up.
+     */
+    private volatile boolean ready;
 
     public final DSLContext db;
+    public final Shards shards;
 
     public static void main(String[] args) {
-        new Application().start(7070);
+        new Application(fromSystemProperties()).start(7070);
     }
 
     public Application() {
-        final var dataSourceProvider = new DataSourceProvider();
-        final var connectionProvider = new DataSourceConnectionProvider(dataSourceProvider.getDataSource());
-        final var configuration = new DefaultConfiguration()
-                .set(connectionProvider)
-                .set(H2)
-                .set(new ThreadLocalTransactionProvider(connectionProvider, true));
-        this.db = new DefaultDSLContext(configuration);
+        this(settings().build());
+    }
+
+    public Application(ApplicationSettings settings) {
+        this(settings, settings.warmUp ? Optional.of(new WarmUp(ofSeconds(settings.maxWarmUpSeconds))) : Optional.empty());
+    }
+
+    /**
+     * @param warmUp run in the background after start, the application reports ready once it is done
+     */
+    Application(ApplicationSettings settings, Optional<WarmUp> warmUp) {
+        final var connectionProviders = new ArrayList<BoundedConnectionProvider>();
+        final var shardContexts = new ArrayList<DSLContext>();
+        for (int shard = 0; shard < settings.shards; shard++) {
+            final var dataSourceProvider = new DataSourceProvider(shardJdbcUrl(settings.jdbcUrl, shard));
+            final var shardConnectionProvider = new BoundedConnectionProvider(
+                    new DataSourceConnectionProvider(dataSourceProvider.getDataSource()),
+                    MAXIMUM_POOL_SIZE,
+                    CONNECTION_TIMEOUT_MILLIS
+            );
+            final var configuration = new DefaultConfiguration()
+                    .set(shardConnectionProvider)
+                    .set(H2)
+                    .set(new ThreadLocalTransactionProvider(shardConnectionProvider, true));
+            connectionProviders.add(shardConnectionProvider);
+            shardContexts.add(new DefaultDSLContext(configuration));
+            databaseMigrators.add(new DatabaseMigrator(dataSourceProvider.getDataSource(), settings.shards > 1, settings.leanMigrationCheck));
+        }
+        this.connectionProviders = List.copyOf(connectionProviders);
+        this.shards = new Shards(shardContexts);
+        this.db = shards.primary();
+        this.ioExecutor = new BoundedExecutor("io", MAXIMUM_POOL_SIZE * settings.shards, EXECUTOR_QUEUE_CAPACITY);
         this.userService = new UserService(db);
-        this.eventService = new EventService(db, userService);
-        this.databaseMigrator = new DatabaseMigrator(dataSourceProvider.getDataSource());
+        this.readModel = settings.readModel ? Optional.of(new EventReadModel(settings.journalDirectory)) : Optional.empty();
+        this.consistencyCheckIntervalSeconds = settings.consistencyCheckIntervalSeconds;
+        this.snapshotIntervalSeconds = settings.snapshotIntervalSeconds;
+        this.eventService = new EventService(shards, userService, readModel);
+        this.eventService.addListener(new CalendarNotifier(notificationHub));
+        this.warmUp = warmUp;
+        this.rsvpGroupCommitter = settings.rsvpGroupCommit
+                ? Optional.of(new RsvpGroupCommitter(eventService, RSVP_BATCH_SIZE, RSVP_FLUSH_INTERVAL))
+                : Optional.empty();
+        final OutboxSink outboxSink = new OutboxNotificationSink(notificationHub);
+        this.outboxDispatcher = new OutboxDispatcher(
+                shards,
+                settings.outboxFile.map(file -> outboxSink.andThen(new FileOutboxSink(file))).orElse(outboxSink),
+                OUTBOX_BATCH_SIZE,
+                OUTBOX_LEASE
+        );
+        this.admissionAccessManager = admissionAccessManager()
+                .delegate(new BasicAuthAccessManager(userService))
+                .connectionProviders(this.connectionProviders)
+                .cpuExecutor(cpuExecutor)
+                .routeCost("POST /events/free-time-slot", Application::freeTimeSlotCost)
+                .routeCost("POST /events/best-time-slots", Application::freeTimeSlotCost)
+                .routeCost("POST /availability", Application::freeTimeSlotCost)
+                .build();
         this.javalin = create(config -> {
-            config.accessManager(new BasicAuthAccessManager(userService));
+            config.accessManager(admissionAccessManager);
             config.jsonMapper(new JavalinJackson(OBJECT_MAPPER));
+            if (settings.gzip) {
+                config.compression.gzipOnly();
+            } else {
+                config.compression.none();
+            }
+            if (settings.virtualThreads) {
+                config.jetty.server(() -> new Server(new VirtualThreadPool()));
+            }
         }).routes(routes());
         this.javalin.exception(ValidationException.class, (e, ctx) -> {
             ctx.result(e.getErrors().toString());
@@ -88,21 +253,121 @@ public class Application {
             ctx.result(e.getMessage());
             ctx.status(CONFLICT);
         });
+        this.javalin.exception(OverloadedException.class, (e, ctx) -> {
+            ctx.result(e.getMessage());
+            ctx.status(SERVICE_UNAVAILABLE);
+        });
+        this.javalin.exception(ForbiddenException.class, (e, ctx) -> {
+            ctx.result(e.getMessage());
+            ctx.status(FORBIDDEN);
+        });
+        this.javalin.exception(TooManyRequestsException.class, (e, ctx) -> {
+            ctx.result(e.getMessage());
+            ctx.status(TOO_MANY_REQUESTS);
+        });
+        this.javalin.after(ctx -> {
+            if (!firstRequestServed.get() && firstRequestServed.compareAndSet(false, true)) {
+                LOGGER.info("First request served {} ms after JVM start", getRuntimeMXBean().getUptime());
+            }
+        });
     }
 
     public void start(int port) {
-        this.databaseMigrator.migrate();
+        databaseMigrators.forEach(DatabaseMigrator::migrate);
+        readModel.ifPresent(this::startReadModel);
+        outboxDispatcher.start(OUTBOX_POLL_INTERVAL);
         this.javalin.start(port);
+        LOGGER.info("Started {} ms after JVM start", getRuntimeMXBean().getUptime());
+        if (warmUp.isEmpty()) {
+            ready = true;
+            return;
+        }
+        final var warmUpThread = new Thread(() -> {
+            try {
+                warmUp.get().run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Warm-up failed, serving without it", e);
+            }
+            ready = true;
+            LOGGER.info("Ready {} ms after JVM start", getRuntimeMXBean().getUptime());
+        }, "warm-up");
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void stop() {
+        javalin.stop();
+        outboxDispatcher.shutdown();
+        rsvpGroupCommitter.ifPresent(RsvpGroupCommitter::shutdown);
+        ioExecutor.shutdown();
+        cpuExecutor.shutdown();
+        notificationExecutor.shutdown();
+        eventService.close();
+    }
+
+    private void startReadModel(EventReadModel readModel) {
+        final var loadStart = System.nanoTime();
+        readModel.load(shards);
+        LOGGER.info("Read model of {} users loaded in {} ms", readModel.userCount(), NANOSECONDS.toMillis(System.nanoTime() - loadStart));
+        final var scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            final var thread = new Thread(task, "read-model-consistency-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                final var repairedUserIds = readModel.verify(shards);
+                if (!repairedUserIds.isEmpty()) {
+                    LOGGER.warn("Read model differed from the database for users {}, reloaded", repairedUserIds);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Read model consistency check failed", e);
+            }
+        }, consistencyCheckIntervalSeconds, consistencyCheckIntervalSeconds, SECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                readModel.snapshot();
+            } catch (RuntimeException e) {
+                LOGGER.error("Read model snapshot failed", e);
+            }
+        }, snapshotIntervalSeconds, snapshotIntervalSeconds, SECONDS);
     }
 
     private EndpointGroup routes() {
         return () -> {
+            get("/metrics", ctx -> {
+                render(ctx, objectNode()
+                        .put("shards", shards.count())
+                        .put("dbConnectionWaiting", connectionProviders.stream().mapToInt(BoundedConnectionProvider::waitingCount).sum())
+                        .put("dbConnectionAverageWaitMillis", connectionProviders.stream().mapToDouble(BoundedConnectionProvider::averageWaitMillis).max().orElse(0))
+                        .put("throttledRequests", admissionAccessManager.throttledCount())
+                        .put("shedRequests", admissionAccessManager.shedCount())
+                        .put("streamSubscribers", notificationHub.subscriberCount())
+                        .put("slowStreamConsumers", notificationHub.slowConsumerCount())
+                        .put("readModelRepairedUsers", readModel.map(EventReadModel::repairedUserCount).orElse(0L))
+                        .put("rsvpFlushes", rsvpGroupCommitter.map(RsvpGroupCommitter::flushCount).orElse(0L))
+                        .put("collapsedRsvps", rsvpGroupCommitter.map(RsvpGroupCommitter::collapsedCount).orElse(0L))
+                        .<ObjectNode>set("outbox", outboxJson(outboxDispatcher))
+                        .<ObjectNode>set("ioExecutor", executorJson(ioExecutor))
+                        .set("cpuExecutor", executorJson(cpuExecutor)));
+                ctx.status(OK);
+            });
+
+            get("/ready", ctx -> {
+                ctx.result(ready ? "ready" : "warming up");
+                ctx.status(ready ? OK : SERVICE_UNAVAILABLE);
+            });
+
             post("/users", ctx -> {
                 final var request = ctx.bodyValidator(CreateUserRequest.class)
                         .getOrThrow(ValidationException::new);
                 final var params = new CreateUserParams(request.username, request.password);
                 final var user = userService.createUser(params);
-                ctx.json(userJson(user));
+                render(ctx, userJson(user));
                 ctx.status(CREATED);
             });
 
@@ -115,16 +380,132 @@ public class Application {
                 if (!fromDate.isBefore(toDate)) {
                     throw new IncorrectDateRangeException(fromDate, toDate);
                 }
-                final var events = eventService.getUserEvents(userId, fromDate, toDate);
-                ctx.json(events.stream().map(event -> eventJsonFor(event, principal)).toList());
+                final var limit = ofNullable(ctx.queryParamAsClass("limit", Integer.class).allowNullable().get());
+                final var cursor = ofNullable(ctx.queryParam("cursor")).map(EventCursor::decode);
+                final List<Event> events;
+                if (limit.isPresent()) {
+                    final var page = eventService.getUserEvents(userId, fromDate, toDate, cursor, limit.get());
+                    page.nextCursor().ifPresent(nextCursor -> ctx.header(NEXT_CURSOR_HEADER, nextCursor.encode()));
+                    events = page.events();
+                } else {
+                    events = eventService.getUserEvents(userId, fromDate, toDate);
+                }
+                final var fields = EventFields.parse(ctx.queryParam("fields"));
+                final var eventViews = eventService.getEventViews(events, principal.userId(), fields);
                 ctx.status(OK);
+                renderStream(ctx, generator -> {
+                    generator.writeStartArray();
+                    for (final var eventView : eventViews) {
+                        writeEventViewJson(generator, eventView, fields);
+                    }
+                    generator.writeEndArray();
+                });
+            }, LOGGED_IN);
+
+            // Checked before the stream is opened, the SSE handler commits the 200 response right away
+            get("/users/{userId}/stream", ctx -> {
+                final var userId = fromString(ctx.pathParam("userId"));
+                if (!userId.equals(principal(ctx).userId())) {
+                    throw new ForbiddenException("Only own stream can be subscribed to");
+                }
+                new SseHandler(client -> {
+                    final var subscription = notificationHub.subscribe(userId, sseSink(client));
+                    client.onClose(subscription::cancel);
+                    client.keepAlive();
+                }).handle(ctx);
+            }, LOGGED_IN);
+
+            post("/agendas", ctx -> {
+                final var principal = principal(ctx);
+                final var request = ctx.bodyValidator(UsersPeriodRequest.class)
+                        .getOrThrow(ValidationException::new);
+                final var eventsByUserId = eventService.getUsersEvents(request.userIds, request.fromDate, request.toDate);
+                final var fields = EventFields.parse(ctx.queryParam("fields"));
+                final var eventViews = eventService.getEventViews(
+                        eventsByUserId.values().stream().flatMap(List::stream).toList(),
+                        principal.userId(),
+                        fields
+                ).iterator();
+                ctx.status(OK);
+                renderStream(ctx, generator -> {
+                    generator.writeStartArray();
+                    for (final var entry : eventsByUserId.entrySet()) {
+                        generator.writeStartObject();
+                        generator.writeStringField("userId", entry.getKey().toString());
+                        generator.writeArrayFieldStart("events");
+                        for (int index = 0; index < entry.getValue().size(); index++) {
+                            writeEventViewJson(generator, eventViews.next(), fields);
+                        }
+                        generator.writeEndArray();
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                });
+            }, LOGGED_IN);
+
+            get("/users/{userId}/freebusy", ctx -> {
+                final var userId = fromString(ctx.pathParam("userId"));
+                final var now = LocalDateTime.now();
+                final var fromDate = ofNullable(ctx.queryParam("fromDate")).map(LocalDateTime::parse).orElse(now.minus(ofDays(7)));
+                final var toDate = ofNullable(ctx.queryParam("toDate")).map(LocalDateTime::parse).orElse(now.plus(ofDays(7)));
+                if (!fromDate.isBefore(toDate)) {
+                    throw new IncorrectDateRangeException(fromDate, toDate);
+                }
+                final var userIds = List.of(userId);
+                ctx.future(() -> ioExecutor.supply(() -> {
+                            eventService.validateUsers(userIds);
+                            return eventService.getEventTimings(userIds, fromDate, toDate);
+                        })
+                        .thenCompose(eventTimings -> cpuExecutor.supply(() -> busyTimeSlots(userIds, eventTimings, fromDate, toDate)))
+                        .thenAccept(busyTimeSlots -> {
+                            render(ctx, busyTimeSlotsJson(userId, busyTimeSlots.get(userId)));
+                            ctx.status(OK);
+                        }));
+            }, LOGGED_IN);
+
+            post("/freebusy", ctx -> {
+                final var request = ctx.bodyValidator(UsersPeriodRequest.class)
+                        .getOrThrow(ValidationException::new);
+                ctx.future(() -> ioExecutor.supply(() -> {
+                            eventService.validateUsers(request.userIds);
+                            return eventService.getEventTimings(request.userIds, request.fromDate, request.toDate);
+                        })
+                        .thenCompose(eventTimings -> cpuExecutor.supply(() -> busyTimeSlots(request.userIds, eventTimings, request.fromDate, request.toDate)))
+                        .thenAccept(busyTimeSlots -> {
+                            render(ctx, arrayNode().addAll(busyTimeSlots.entrySet()
+                                    .stream()
+                                    .map(entry -> busyTimeSlotsJson(entry.getKey(), entry.getValue()))
+                                    .toList()));
+                            ctx.status(OK);
+                        }));
+            }, LOGGED_IN);
+
+            post("/availability", ctx -> {
+                final var request = ctx.bodyValidator(AvailabilityRequest.class)
+                        .getOrThrow(ValidationException::new);
+                ctx.future(() -> ioExecutor.supply(() -> {
+                            eventService.validateUsers(request.userIds);
+                            return eventService.getEventTimings(request.userIds, request.fromDate, request.toDate);
+                        })
+                        .thenCompose(eventTimings -> heatmapOf(
+                                request.userIds,
+                                eventTimings,
+                                request.fromDate,
+                                request.toDate,
+                                ofMinutes(request.bucketMinutes),
+                                cpuExecutor
+                        ))
+                        .thenAccept(heatmap -> {
+                            render(ctx, heatmapJson(heatmap));
+                            ctx.status(OK);
+                        }));
             }, LOGGED_IN);
 
             get("/events/{eventId}", ctx -> {
                 final var principal = principal(ctx);
                 final var eventId = fromString(ctx.pathParam("eventId"));
                 final var event = eventService.getEventById(eventId);
-                ctx.json(eventJsonFor(event, principal));
+                render(ctx, eventJsonFor(event, principal, EventFields.parse(ctx.queryParam("fields"))));
                 ctx.status(OK);
             }, LOGGED_IN);
 
@@ -132,65 +513,217 @@ public class Application {
                 final var principal = principal(ctx);
                 final var request = ctx.bodyValidator(CreateEventRequest.class)
                         .getOrThrow(ValidationException::new);
-                final var params = createEventParams()
-                        .organizerId(principal.userId())
-                        .name(request.name)
-                        .startDate(request.startDate)
-                        .duration(ofMinutes(request.duration))
-                        .attendeeIds(request.attendeeIds)
-                        .visibility(request.visibility)
-                        .description(request.description)
-                        .recurrence(request.recurrence)
-                        .build();
-                final var event = eventService.createEvent(params);
-                ctx.json(eventJsonFor(event, principal));
+                final var params = createEventParamsOf(request, principal);
+                final var createdEvent = eventService.createEventWithConflictCheck(params);
+                final var eventJson = eventJsonFor(createdEvent.event(), principal, ALL);
+                if (params.conflictCheck != ConflictCheck.NONE) {
+                    eventJson.set("conflicts", conflictsJson(createdEvent.conflicts()));
+                }
+                render(ctx, eventJson);
                 ctx.status(CREATED);
             }, LOGGED_IN);
 
+            post("/events/batch", ctx -> {
+                final var principal = principal(ctx);
+                final var request = ctx.bodyValidator(CreateEventsRequest.class)
+                        .getOrThrow(ValidationException::new);
+                final var results = eventService.createEvents(request.events
+                        .stream()
+                        .map(eventRequest -> createEventParamsOf(eventRequest, principal))
+                        .toList());
+                render(ctx, batchResultsJson(results, EventSerializer::eventJson));
+                ctx.status(OK);
+            }, LOGGED_IN);
+
+            post("/events/rsvp/batch", ctx -> {
+                final var request = ctx.bodyValidator(RsvpsRequest.class)
+                        .getOrThrow(ValidationException::new);
+                final var results = eventService.applyRsvps(request.rsvps
+                        .stream()
+                        .map(rsvpRequest -> new RsvpParams(rsvpRequest.eventId, rsvpRequest.status))
+                        .toList());
+                render(ctx, batchResultsJson(results, event -> objectNode()
+                        .put("eventId", event.id.toString())
+                        .put("status", event.status.name())));
+                ctx.status(OK);
+            }, LOGGED_IN);
+
             post("/events/{eventId}/accept", ctx -> {
                 final var eventId = fromString(ctx.pathParam("eventId"));
+                if (rsvpGroupCommitter.isPresent()) {
+                    ctx.future(() -> rsvpGroupCommitter.get().submit(eventId, EventStatus.ACCEPTED)
+                            .thenAccept(event -> ctx.status(ACCEPTED)));
+                    return;
+                }
                 eventService.acceptEvent(eventId);
                 ctx.status(ACCEPTED);
             }, LOGGED_IN);
 
             post("/events/{eventId}/decline", ctx -> {
                 final var eventId = fromString(ctx.pathParam("eventId"));
+                if (rsvpGroupCommitter.isPresent()) {
+                    ctx.future(() -> rsvpGroupCommitter.get().submit(eventId, EventStatus.DECLINED)
+                            .thenAccept(event -> ctx.status(ACCEPTED)));
+                    return;
+                }
                 eventService.declineEvent(eventId);
                 ctx.status(ACCEPTED);
             }, LOGGED_IN);
 
-            post("/events/free-time-slot", ctx -> {
-                final var request = ctx.bodyValidator(FreeTimeSlotRequest.class)
+            post("/events/{eventId}/occurrences/{originalStartDate}/cancel", ctx -> {
+                eventService.cancelOccurrence(
+                        fromString(ctx.pathParam("eventId")),
+                        LocalDateTime.parse(ctx.pathParam("originalStartDate")),
+                        principal(ctx).userId()
+                );
+                ctx.status(ACCEPTED);
+            }, LOGGED_IN);
+
+            post("/events/{eventId}/occurrences/{originalStartDate}/move", ctx -> {
+                final var principal = principal(ctx);
+                final var request = ctx.bodyValidator(MoveOccurrenceRequest.class)
                         .getOrThrow(ValidationException::new);
-                final var freeTimeSlot = eventService.findFreeTimeSlot(
-                        request.userIds,
+                final var occurrence = eventService.moveOccurrence(
+                        fromString(ctx.pathParam("eventId")),
+                        LocalDateTime.parse(ctx.pathParam("originalStartDate")),
+                        request.startDate,
                         ofMinutes(request.duration),
-                        request.fromDate,
-                        request.toDate
-                );
-                freeTimeSlot.ifPresentOrElse(
-                        timeSlot -> {
-                            ctx.json(timeSlotJson(timeSlot));
-                            ctx.status(OK);
-                        },
-                        () -> ctx.status(NO_CONTENT)
+                        principal.userId()
                 );
+                render(ctx, eventJsonFor(occurrence, principal, ALL));
+                ctx.status(OK);
+            }, LOGGED_IN);
+
+            post("/events/{eventId}/occurrences/{originalStartDate}/accept", ctx -> {
+                eventService.acceptOccurrence(fromString(ctx.pathParam("eventId")), LocalDateTime.parse(ctx.pathParam("originalStartDate")));
+                ctx.status(ACCEPTED);
+            }, LOGGED_IN);
+
+            post("/events/{eventId}/occurrences/{originalStartDate}/decline", ctx -> {
+                eventService.declineOccurrence(fromString(ctx.pathParam("eventId")), LocalDateTime.parse(ctx.pathParam("originalStartDate")));
+                ctx.status(ACCEPTED);
+            }, LOGGED_IN);
+
+            post("/events/free-time-slot", ctx -> {
+                final var request = ctx.bodyValidator(FreeTimeSlotRequest.class)
+                        .getOrThrow(ValidationException::new);
+                ctx.future(() -> ioExecutor.supply(() -> {
+                            eventService.validateUsers(request.userIds);
+                            return eventService.getEventTimings(request.userIds, request.fromDate, request.toDate);
+                        })
+                        .thenCompose(eventTimings -> cpuExecutor.supply(() -> freeTimeSlotOf(
+                                eventTimings,
+                                ofMinutes(request.duration),
+                                request.fromDate,
+                                request.toDate
+                        )))
+                        .thenAccept(freeTimeSlot -> {
+                            if (freeTimeSlot.isPresent()) {
+                                render(ctx, timeSlotJson(freeTimeSlot.get()));
+                                ctx.status(OK);
+                            } else {
+                                ctx.status(NO_CONTENT);
+                            }
+                        }));
+            }, LOGGED_IN);
+
+            post("/events/best-time-slots", ctx -> {
+                final var request = ctx.bodyValidator(BestTimeSlotsRequest.class)
+                        .getOrThrow(ValidationException::new);
+                final var userIds = new ArrayList<>(request.requiredUserIds);
+                userIds.addAll(request.optionalUserIds);
+                ctx.future(() -> ioExecutor.supply(() -> {
+                            eventService.validateUsers(userIds);
+                            return eventService.getEventTimings(userIds, request.fromDate, request.toDate);
+                        })
+                        .thenCompose(eventTimings -> cpuExecutor.supply(() -> bestTimeSlotsOf(
+                                request.requiredUserIds,
+                                request.optionalUserIds,
+                                eventTimings,
+                                ofMinutes(request.duration),
+                                request.fromDate,
+                                request.toDate
+                        )))
+                        .thenAccept(bestTimeSlots -> {
+                            if (bestTimeSlots.isPresent()) {
+                                render(ctx, bestTimeSlotsJson(bestTimeSlots.get()));
+                                ctx.status(OK);
+                            } else {
+                                ctx.status(NO_CONTENT);
+                            }
+                        }));
             }, LOGGED_IN);
         };
     }
 
-    private JsonNode eventJsonFor(Event event, Principal principal) {
-        final var userId = principal.userId();
-        final var eventDetails = eventService.getEventDetailsById(event.eventDetailsId);
-        final var userEventStatuses = eventService.getUserEventStatusesByEventDetailsId(eventDetails.id)
-                .stream()
-                .collect(toMap(userEventStatus -> userEventStatus.userId, identity()));
-        if (eventDetails.is(PRIVATE)) {
-            if (!eventDetails.organizedBy(userId) && !userEventStatuses.containsKey(userId)) {
-                return eventJson(event);
+    private static CreateEventParams createEventParamsOf(CreateEventRequest request, Principal principal) {
+        return createEventParams()
+                .organizerId(principal.userId())
+                .name(request.name)
+                .startDate(request.startDate)
+                .duration(ofMinutes(request.duration))
+                .attendeeIds(request.attendeeIds)
+                .visibility(request.visibility)
+                .description(request.description)
+                .recurrence(request.recurrence)
+                .conflictCheck(request.conflictCheck.orElse(ConflictCheck.NONE))
+                .timeZone(request.timeZone)
+                .build();
+    }
+
+    /**
+     * Estimated work of a free or best time slot search or a heatmap: number of users times number of days in the window.
+     * A malformed body costs one unit, the route itself rejects it right after.
+     */
+    private static long freeTimeSlotCost(Context ctx) {
+        try {
+            final var request = OBJECT_MAPPER.readTree(ctx.body());
+            final var fromDate = LocalDateTime.parse(request.path("fromDate").asText());
+            final var toDate = LocalDateTime.parse(request.path("toDate").asText());
+            final var days = (between(fromDate, toDate).toMinutes() + MINUTES_PER_DAY - 1) / MINUTES_PER_DAY;
+            final var users = request.path("userIds").size()
+                    + request.path("requiredUserIds").size()
+                    + request.path("optionalUserIds").size();
+            return users * days;
+        } catch (IOException | DateTimeParseException e) {
+            return 1;
+        }
+    }
+
+    private static NotificationSink sseSink(SseClient client) {
+        return new NotificationSink() {
+            @Override
+            public void send(Notification notification) {
+                client.sendEvent(notification.type(), notification.data());
+            }
+
+            @Override
+            public void close() {
+                client.close();
             }
+        };
+    }
+
+    private static void render(Context ctx, JsonNode json) {
+        final var format = negotiate(ctx.header(ACCEPT));
+        ctx.header(VARY, ACCEPT);
+        ctx.contentType(format.contentType);
+        try {
+            ctx.result(format.objectMapper.writeValueAsBytes(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
-        return eventWithDetailsJson(event, eventDetails, userEventStatuses.values());
+    }
+
+    private static void renderStream(Context ctx, JsonWriter writer) throws IOException {
+        final var format = negotiate(ctx.header(ACCEPT));
+        ctx.header(VARY, ACCEPT);
+        ctx.contentType(format.contentType);
+        writeJson(format.objectMapper, ctx.outputStream(), writer);
+    }
+
+    private ObjectNode eventJsonFor(Event event, Principal principal, EventFields fields) {
+        return eventViewJson(eventService.getEventViews(List.of(event), principal.userId(), fields).get(0), fields);
     }
 
     private static class CreateUserRequest {
@@ -215,6 +748,8 @@ public class Application {
         public final EventDetailsVisibility visibility;
         public final Optional<String> description;
         public final Optional<Recurrence> recurrence;
+        public final Optional<ConflictCheck> conflictCheck;
+        public final Optional<ZoneId> timeZone;
 
         @JsonCreator
         public CreateEventRequest(@JsonProperty("name") String name,
@@ -223,7 +758,9 @@ public class Application {
                                   @JsonProperty("attendeeIds") SortedSet<UUID> attendeeIds,
                                   @JsonProperty("visibility") EventDetailsVisibility visibility,
                                   @JsonProperty("description") Optional<String> description,
-                                  @JsonProperty("recurrence") Optional<Recurrence> recurrence) {
+                                  @JsonProperty("recurrence") Optional<Recurrence> recurrence,
+                                  @JsonProperty("conflictCheck") Optional<ConflictCheck> conflictCheck,
+                                  @JsonProperty("timeZone") Optional<ZoneId> timeZone) {
             this.name = requireNonNull(name, "name is required");
             this.startDate = requireNonNull(startDate, "startDate is required");
             this.duration = requireNonNull(duration, "duration is required");
@@ -231,6 +768,81 @@ public class Application {
             this.visibility = requireNonNull(visibility, "visibility is required");
             this.description = requireNonNull(description, "description is required");
             this.recurrence = requireNonNull(recurrence, "recurrence is required");
+            this.conflictCheck = requireNonNull(conflictCheck, "conflictCheck is required");
+            this.timeZone = requireNonNull(timeZone, "timeZone is required");
+        }
+    }
+
+    private static class CreateEventsRequest {
+        public final List<CreateEventRequest> events;
+
+        @JsonCreator
+        public CreateEventsRequest(@JsonProperty("events") List<CreateEventRequest> events) {
+            this.events = requireNonNull(events, "events are required");
+        }
+    }
+
+    private static class RsvpRequest {
+        public final UUID eventId;
+        public final EventStatus status;
+
+        @JsonCreator
+        public RsvpRequest(@JsonProperty("eventId") UUID eventId,
+                           @JsonProperty("status") EventStatus status) {
+            this.eventId = requireNonNull(eventId, "eventId is required");
+            this.status = requireNonNull(status, "status is required");
+
+            if (status == EventStatus.PENDING) {
+                throw new IllegalArgumentException("status should be ACCEPTED or DECLINED");
+            }
+        }
+    }
+
+    private static class MoveOccurrenceRequest {
+        public final LocalDateTime startDate;
+        public final Integer duration;
+
+        @JsonCreator
+        public MoveOccurrenceRequest(@JsonProperty("startDate") LocalDateTime startDate,
+                                     @JsonProperty("duration") Integer duration) {
+            this.startDate = requireNonNull(startDate, "startDate is required");
+            this.duration = requireNonNull(duration, "duration is required");
+        }
+    }
+
+    private static class RsvpsRequest {
+        public final List<RsvpRequest> rsvps;
+
+        @JsonCreator
+        public RsvpsRequest(@JsonProperty("rsvps") List<RsvpRequest> rsvps) {
+            this.rsvps = requireNonNull(rsvps, "rsvps are required");
+
+            if (rsvps.stream().map(rsvp -> rsvp.eventId).distinct().count() < rsvps.size()) {
+                throw new IllegalArgumentException("rsvps should answer every event at most once");
+            }
+        }
+    }
+
+    private static class UsersPeriodRequest {
+
+        public final List<UUID> userIds;
+        public final LocalDateTime fromDate;
+        public final LocalDateTime toDate;
+
+        @JsonCreator
+        public UsersPeriodRequest(@JsonProperty("userIds") List<UUID> userIds,
+                                  @JsonProperty("fromDate") LocalDateTime fromDate,
+                                  @JsonProperty("toDate") LocalDateTime toDate) {
+            this.userIds = requireNonNull(userIds, "userIds are required");
+            this.fromDate = requireNonNull(fromDate, "fromDate is required");
+            this.toDate = requireNonNull(toDate, "toDate is required");
+
+            if (userIds.isEmpty()) {
+                throw new IllegalArgumentException("userIds can't be empty");
+            }
+            if (!fromDate.isBefore(toDate)) {
+                throw new IncorrectDateRangeException(fromDate, toDate);
+            }
         }
     }
 
@@ -262,4 +874,70 @@ public class Application {
             }
         }
     }
+
+    private static class AvailabilityRequest {
+
+        private static final int DEFAULT_BUCKET_MINUTES = 30;
+
+        public final List<UUID> userIds;
+        public final LocalDateTime fromDate;
+        public final LocalDateTime toDate;
+        public final Integer bucketMinutes;
+
+        @JsonCreator
+        public AvailabilityRequest(@JsonProperty("userIds") List<UUID> userIds,
+                                   @JsonProperty("fromDate") LocalDateTime fromDate,
+                                   @JsonProperty("toDate") LocalDateTime toDate,
+                                   @JsonProperty("bucketMinutes") Integer bucketMinutes) {
+            this.userIds = requireNonNull(userIds, "userIds are required");
+            this.fromDate = requireNonNull(fromDate, "fromDate is required");
+            this.toDate = requireNonNull(toDate, "toDate is required");
+            this.bucketMinutes = bucketMinutes == null ? DEFAULT_BUCKET_MINUTES : bucketMinutes;
+
+            if (userIds.isEmpty()) {
+                throw new IllegalArgumentException("userIds can't be empty");
+            }
+            if (this.bucketMinutes < 1) {
+                throw new IllegalArgumentException("bucketMinutes should be greater than 0");
+            }
+            if (!fromDate.isBefore(toDate)) {
+                throw new IncorrectDateRangeException(fromDate, toDate);
+            }
+            if (bucketCountOf(fromDate, toDate, ofMinutes(this.bucketMinutes)) > MAX_BUCKETS) {
+                throw new IllegalArgumentException(format("Period should not be split into more than %s buckets", MAX_BUCKETS));
+            }
+        }
+    }
+
+    private static class BestTimeSlotsRequest {
+
+        public final List<UUID> requiredUserIds;
+        public final List<UUID> optionalUserIds;
+        public final Integer duration;
+        public final LocalDateTime fromDate;
+        public final LocalDateTime toDate;
+
+        @JsonCreator
+        public BestTimeSlotsRequest(@JsonProperty("requiredUserIds") List<UUID> requiredUserIds,
+                                    @JsonProperty("optionalUserIds") List<UUID> optionalUserIds,
+                                    @JsonProperty("duration") Integer duration,
+                                    @JsonProperty("fromDate") LocalDateTime fromDate,
+                                    @JsonProperty("toDate") LocalDateTime toDate) {
+            this.requiredUserIds = requireNonNull(requiredUserIds, "requiredUserIds are required");
+            this.optionalUserIds = requireNonNull(optionalUserIds, "optionalUserIds are required");
+            this.duration = requireNonNull(duration, "duration is required");
+            this.fromDate = requireNonNull(fromDate, "fromDate is required");
+            this.toDate = requireNonNull(toDate, "toDate is required");
+
+            if (requiredUserIds.isEmpty() && optionalUserIds.isEmpty()) {
+                throw new IllegalArgumentException("requiredUserIds and optionalUserIds can't both be empty");
+            }
+            if (duration < 1) {
+                throw new IllegalArgumentException("duration should be greater than 0");
+            }
+            if (!fromDate.isBefore(toDate)) {
+                throw new IncorrectDateRangeException(fromDate, toDate);
+            }
+        }
+    }
 }
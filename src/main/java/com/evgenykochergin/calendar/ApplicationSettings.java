@@ -0,0 +1,154 @@
+package com.evgenykochergin.calendar;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static com.evgenykochergin.calendar.database.DataSourceProvider.DEFAULT_JDBC_URL;
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Integer.getInteger;
+import static java.lang.Long.getLong;
+
+public class ApplicationSettings {
+    public final boolean virtualThreads;
+    public final boolean gzip;
+    public final boolean readModel;
+    public final long consistencyCheckIntervalSeconds;
+    public final Optional<Path> journalDirectory;
+    public final long snapshotIntervalSeconds;
+    public final String jdbcUrl;
+    public final int shards;
+    public final Optional<Path> outboxFile;
+    public final boolean rsvpGroupCommit;
+    public final boolean leanMigrationCheck;
+    public final boolean warmUp;
+    public final long maxWarmUpSeconds;
+
+    public static Builder settings() {
+        return new Builder();
+    }
+
+    public static ApplicationSettings fromSystemProperties() {
+        return settings()
+                .virtualThreads(getBoolean("calendar.virtualThreads"))
+                .gzip(!getBoolean("calendar.gzipDisabled"))
+                .readModel(getBoolean("calendar.readModel"))
+                .consistencyCheckIntervalSeconds(getLong("calendar.consistencyCheckIntervalSeconds", 300))
+                .journalDirectory(Optional.ofNullable(System.getProperty("calendar.journalDirectory")).map(Path::of))
+                .snapshotIntervalSeconds(getLong("calendar.snapshotIntervalSeconds", 600))
+                .jdbcUrl(System.getProperty("calendar.jdbcUrl", DEFAULT_JDBC_URL))
+                .shards(getInteger("calendar.shards", 1))
+                .outboxFile(Optional.ofNullable(System.getProperty("calendar.outboxFile")).map(Path::of))
+                .rsvpGroupCommit(getBoolean("calendar.rsvpGroupCommit"))
+                .leanMigrationCheck(getBoolean("calendar.leanMigrationCheck"))
+                .warmUp(getBoolean("calendar.warmUp"))
+                .maxWarmUpSeconds(getLong("calendar.maxWarmUpSeconds", 120))
+                .build();
+    }
+
+    private ApplicationSettings(Builder builder) {
+        this.virtualThreads = builder.virtualThreads;
+        this.gzip = builder.gzip;
+        this.readModel = builder.readModel;
+        this.consistencyCheckIntervalSeconds = builder.consistencyCheckIntervalSeconds;
+        this.journalDirectory = builder.journalDirectory;
+        this.snapshotIntervalSeconds = builder.snapshotIntervalSeconds;
+        this.jdbcUrl = builder.jdbcUrl;
+        this.shards = builder.shards;
+        this.outboxFile = builder.outboxFile;
+        this.rsvpGroupCommit = builder.rsvpGroupCommit;
+        this.leanMigrationCheck = builder.leanMigrationCheck;
+        this.warmUp = builder.warmUp;
+        this.maxWarmUpSeconds = builder.maxWarmUpSeconds;
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards should be positive");
+        }
+    }
+
+    public static class Builder {
+        private boolean virtualThreads = false;
+        private boolean gzip = true;
+        private boolean readModel = false;
+        private long consistencyCheckIntervalSeconds = 300;
+        private Optional<Path> journalDirectory = Optional.empty();
+        private long snapshotIntervalSeconds = 600;
+        private String jdbcUrl = DEFAULT_JDBC_URL;
+        private int shards = 1;
+        private Optional<Path> outboxFile = Optional.empty();
+        private boolean rsvpGroupCommit = false;
+        private boolean leanMigrationCheck = false;
+        private boolean warmUp = false;
+        private long maxWarmUpSeconds = 120;
+
+        private Builder() {
+        }
+
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public Builder gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        public Builder readModel(boolean readModel) {
+            this.readModel = readModel;
+            return this;
+        }
+
+        public Builder consistencyCheckIntervalSeconds(long consistencyCheckIntervalSeconds) {
+            this.consistencyCheckIntervalSeconds = consistencyCheckIntervalSeconds;
+            return this;
+        }
+
+        public Builder journalDirectory(Optional<Path> journalDirectory) {
+            this.journalDirectory = journalDirectory;
+            return this;
+        }
+
+        public Builder snapshotIntervalSeconds(long snapshotIntervalSeconds) {
+            this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+            return this;
+        }
+
+        public Builder jdbcUrl(String jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+            return this;
+        }
+
+        public Builder shards(int shards) {
+            this.shards = shards;
+            return this;
+        }
+
+        public Builder outboxFile(Optional<Path> outboxFile) {
+            this.outboxFile = outboxFile;
+            return this;
+        }
+
+        public Builder rsvpGroupCommit(boolean rsvpGroupCommit) {
+            this.rsvpGroupCommit = rsvpGroupCommit;
+            return this;
+        }
+
+        public Builder leanMigrationCheck(boolean leanMigrationCheck) {
+            this.leanMigrationCheck = leanMigrationCheck;
+            return this;
+        }
+
+        public Builder warmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+            return this;
+        }
+
+        public Builder maxWarmUpSeconds(long maxWarmUpSeconds) {
+            this.maxWarmUpSeconds = maxWarmUpSeconds;
+            return this;
+        }
+
+        public ApplicationSettings build() {
+            return new ApplicationSettings(this);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.evgenykochergin.calendar;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Base64;
+
+import static com.evgenykochergin.calendar.ApplicationSettings.fromSystemProperties;
+import static com.evgenykochergin.calendar.json.Json.OBJECT_MAPPER;
+import static java.lang.Integer.parseInt;
+import static java.lang.management.ManagementFactory.getRuntimeMXBean;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Starts the application, sends a few requests touching the main code paths and exits. Used by the {@code appcds}
+ * build profile to record the loaded classes into a class data sharing archive and to report the time from JVM start
+ * to the first served request.
+ */
+public class TrainingRun {
+
+    public static void main(String[] args) throws Exception {
+        final var port = args.length > 0 ? parseInt(args[0]) : 7071;
+        final var baseUri = "http://localhost:" + port;
+        final var app = new Application(fromSystemProperties());
+        app.start(port);
+        final var client = HttpClient.newHttpClient();
+        // The database may be shared with an earlier run, user names have to be unique
+        final var run = System.currentTimeMillis();
+        final var organizerName = "training-organizer-" + run;
+        final var attendeeName = "training-attendee-" + run;
+        send(client, HttpRequest.newBuilder(URI.create(baseUri + "/metrics")).build());
+        System.out.printf("Startup to first request: %d ms%n", getRuntimeMXBean().getUptime());
+
+        final var organizer = OBJECT_MAPPER.readTree(send(client, HttpRequest.newBuilder(URI.create(baseUri + "/users"))
+                .POST(BodyPublishers.ofString("{\"username\":\"%s\",\"password\":\"training\"}".formatted(organizerName)))
+                .build()));
+        final var attendee = OBJECT_MAPPER.readTree(send(client, HttpRequest.newBuilder(URI.create(baseUri + "/users"))
+                .POST(BodyPublishers.ofString("{\"username\":\"%s\",\"password\":\"training\"}".formatted(attendeeName)))
+                .build()));
+        final var authorization = "Basic " + Base64.getEncoder().encodeToString((organizerName + ":training").getBytes(UTF_8));
+        final var organizerId = organizer.get("id").asText();
+        final var attendeeId = attendee.get("id").asText();
+        send(client, HttpRequest.newBuilder(URI.create(baseUri + "/events"))
+                .header("Authorization", authorization)
+                .POST(BodyPublishers.ofString("""
+                        {"name":"training","startDate":"2022-10-18T05:00","duration":60,"attendeeIds":["%s"],"visibility":"PUBLIC"}
+                        """.formatted(attendeeId)))
+                .build());
+        send(client, HttpRequest.newBuilder(URI.create(baseUri + "/users/" + organizerId + "/events?fromDate=2022-10-18T00:00&toDate=2022-10-19T00:00"))
+                .header("Authorization", authorization)
+                .build());
+        send(client, HttpRequest.newBuilder(URI.create(baseUri + "/events/free-time-slot"))
+                .header("Authorization", authorization)
+                .POST(BodyPublishers.ofString("""
+                        {"userIds":["%s","%s"],"duration":30,"fromDate":"2022-10-18T00:00","toDate":"2022-10-19T00:00"}
+                        """.formatted(organizerId, attendeeId)))
+                .build());
+        app.stop();
+        System.exit(0);
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        final var response = client.send(request, BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Training request " + request.uri() + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,188 @@
+package com.evgenykochergin.calendar;
+
+import com.evgenykochergin.calendar.database.DataSourceProvider;
+import com.evgenykochergin.calendar.database.DatabaseMigrator;
+import com.evgenykochergin.calendar.model.User;
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.service.EventFields;
+import com.evgenykochergin.calendar.service.EventService;
+import com.evgenykochergin.calendar.service.EventService.RsvpParams;
+import com.evgenykochergin.calendar.service.UserService;
+import com.evgenykochergin.calendar.service.UserService.CreateUserParams;
+import org.jooq.impl.DSL;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static com.evgenykochergin.calendar.json.EventSerializer.eventViewJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.writeEventJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.writeEventViewJson;
+import static com.evgenykochergin.calendar.json.Json.writeJson;
+import static com.evgenykochergin.calendar.json.TimeSlotSerializer.busyTimeSlotsJson;
+import static com.evgenykochergin.calendar.json.TimeSlotSerializer.timeSlotJson;
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PRIVATE;
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
+import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.model.type.EventStatus.DECLINED;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
+import static com.evgenykochergin.calendar.service.EventService.CreateEventParams.createEventParams;
+import static java.lang.management.ManagementFactory.getCompilationMXBean;
+import static java.time.Duration.ofMinutes;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.jooq.SQLDialect.H2;
+
+/**
+ * Runs a synthetic workload against a scratch in-memory database until the JIT compiler settles, so that recurrence
+ * expansion, free time slot search, serialization and jOOQ rendering are compiled before real traffic arrives.
+ * The compiler is considered settled after a few consecutive rounds that added almost no compilation time. Without
+ * compilation time monitoring a fixed number of rounds is run.
+ */
+public class WarmUp {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final String SCRATCH_JDBC_URL = "jdbc:h2:mem:calendar_warm_up";
+    private static final int USERS = 20;
+    private static final int SETTLED_ROUNDS = 3;
+    private static final long SETTLED_COMPILATION_MILLIS_PER_ROUND = 10;
+    private static final int UNMONITORED_ROUNDS = 50;
+    private static final LocalDateTime FROM_DATE = LocalDateTime.parse("2022-10-01T00:00");
+    private static final LocalDateTime TO_DATE = LocalDateTime.parse("2022-11-01T00:00");
+
+    private final Duration maxDuration;
+
+    public WarmUp(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * @return number of workload rounds that were run
+     */
+    public int run() {
+        final var start = System.nanoTime();
+        final var dataSourceProvider = new DataSourceProvider(SCRATCH_JDBC_URL);
+        final var db = DSL.using(dataSourceProvider.getDataSource(), H2);
+        final var userService = new UserService(db);
+        final var eventService = new EventService(db, userService);
+        try {
+            new DatabaseMigrator(dataSourceProvider.getDataSource()).migrate();
+            final var users = IntStream.range(0, USERS)
+                    .mapToObj(index -> userService.createUser(new CreateUserParams("warm-up-" + index, "warm-up")))
+                    .toList();
+            users.forEach(user -> createEvents(eventService, user, users));
+            final var compilation = getCompilationMXBean();
+            final var monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+            var rounds = 0;
+            var settledRounds = 0;
+            while (NANOSECONDS.toMillis(System.nanoTime() - start) < maxDuration.toMillis()) {
+                final var compilationMillis = monitored ? compilation.getTotalCompilationTime() : 0;
+                runRound(eventService, users, rounds);
+                rounds++;
+                if (!monitored) {
+                    if (rounds >= UNMONITORED_ROUNDS) {
+                        break;
+                    }
+                    continue;
+                }
+                settledRounds = compilation.getTotalCompilationTime() - compilationMillis <= SETTLED_COMPILATION_MILLIS_PER_ROUND ? settledRounds + 1 : 0;
+                if (settledRounds >= SETTLED_ROUNDS) {
+                    break;
+                }
+            }
+            LOGGER.info("Warm-up finished after {} rounds in {} ms", rounds, NANOSECONDS.toMillis(System.nanoTime() - start));
+            return rounds;
+        } finally {
+            eventService.close();
+            dataSourceProvider.close();
+        }
+    }
+
+    private static void createEvents(EventService eventService, User organizer, List<User> users) {
+        final var attendeeIds = new TreeSet<>(users.stream()
+                .map(user -> user.id)
+                .filter(userId -> !userId.equals(organizer.id))
+                .limit(3)
+                .toList());
+        for (int day = 0; day < 10; day++) {
+            eventService.createEvent(createEventParams()
+                    .organizerId(organizer.id)
+                    .name("warm-up")
+                    .startDate(FROM_DATE.plusDays(day).plusHours(day % 8 + 8))
+                    .duration(ofMinutes(30 + day * 15))
+                    .attendeeIds(attendeeIds)
+                    .visibility(day % 2 == 0 ? PUBLIC : PRIVATE)
+                    .build());
+        }
+        eventService.createEvent(createEventParams()
+                .organizerId(organizer.id)
+                .name("warm-up daily")
+                .startDate(FROM_DATE.plusHours(9))
+                .duration(ofMinutes(15))
+                .attendeeIds(new TreeSet<>())
+                .visibility(PUBLIC)
+                .recurrence(new Recurrence(DAILY, TO_DATE))
+                .build());
+        eventService.createEvent(createEventParams()
+                .organizerId(organizer.id)
+                .name("warm-up weekly")
+                .startDate(FROM_DATE.plusHours(14))
+                .duration(ofMinutes(60))
+                .attendeeIds(attendeeIds)
+                .visibility(PRIVATE)
+                .recurrence(new Recurrence(WEEKLY, TO_DATE))
+                .build());
+    }
+
+    private static void runRound(EventService eventService, List<User> users, int round) {
+        final var userIds = users.stream().map(user -> user.id).toList();
+        final var output = new ByteArrayOutputStream();
+        try {
+            for (final var user : users) {
+                final var events = eventService.getUserEvents(user.id, FROM_DATE, TO_DATE);
+                final var eventViews = eventService.getEventViews(events, user.id, EventFields.ALL);
+                eventViews.forEach(eventView -> eventViewJson(eventView).toString());
+                writeJson(output, generator -> {
+                    generator.writeStartArray();
+                    for (final var eventView : eventViews) {
+                        writeEventViewJson(generator, eventView);
+                    }
+                    for (final var event : events) {
+                        writeEventJson(generator, event);
+                    }
+                    generator.writeEndArray();
+                });
+                output.reset();
+                eventService.getUserEvents(user.id, FROM_DATE, TO_DATE, Optional.empty(), 50);
+            }
+            eventService.getUsersEvents(userIds, FROM_DATE, TO_DATE);
+            eventService.getBusyTimeSlots(userIds, FROM_DATE, TO_DATE)
+                    .forEach((userId, timeSlots) -> busyTimeSlotsJson(userId, timeSlots).toString());
+            eventService.findFreeTimeSlot(userIds.subList(0, 5), ofMinutes(45), FROM_DATE, TO_DATE)
+                    .ifPresent(timeSlot -> timeSlotJson(timeSlot).toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final var organizer = users.get(round % users.size());
+        final var attendee = users.get((round + 1) % users.size());
+        final var event = eventService.createEvent(createEventParams()
+                .organizerId(organizer.id)
+                .name("warm-up round " + round)
+                .startDate(FROM_DATE.plusMinutes(round * 30L))
+                .duration(ofMinutes(30))
+                .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                .visibility(PUBLIC)
+                .build());
+        final var attendeeEvent = eventService.getEventForUser(event.eventDetailsId, attendee.id);
+        eventService.acceptEvent(attendeeEvent.id);
+        eventService.applyRsvps(List.of(new RsvpParams(attendeeEvent.id, round % 2 == 0 ? ACCEPTED : DECLINED)));
+    }
+}
@@ -0,0 +1,219 @@
+package com.evgenykochergin.calendar.admission;
+
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+import com.evgenykochergin.calendar.database.BoundedConnectionProvider;
+import com.evgenykochergin.calendar.error.OverloadedException;
+import com.evgenykochergin.calendar.error.TooManyRequestsException;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.security.AccessManager;
+import io.javalin.security.RouteRole;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import static com.evgenykochergin.calendar.auth.BasicAuthAccessManager.principal;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Admission layer in front of the authenticated routes. The wrapped access manager authenticates the caller first,
+ * then the request is shed when the node is overloaded and throttled by per-principal and per-route token buckets.
+ * Routes registered with a cost function additionally spend their estimated cost from a per-principal work budget.
+ * Per-principal buckets that have refilled completely are dropped every {@value #EVICTION_INTERVAL_SECONDS} seconds,
+ * a full bucket is indistinguishable from a new one, so only principals with recent requests are kept.
+ */
+public class AdmissionAccessManager implements AccessManager {
+
+    private static final long EVICTION_INTERVAL_SECONDS = 10;
+
+    private final AccessManager delegate;
+    private final List<BoundedConnectionProvider> connectionProviders;
+    private final BoundedExecutor cpuExecutor;
+    private final Map<String, ToLongFunction<Context>> routeCosts;
+    private final Limit principalLimit;
+    private final Limit routeLimit;
+    private final Limit workLimit;
+    private final double maxDbWaitMillis;
+    private final int maxCpuQueueDepth;
+
+    private final Map<UUID, TokenBucket> principalBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> routeBuckets = new ConcurrentHashMap<>();
+    private final Map<UUID, TokenBucket> workBuckets = new ConcurrentHashMap<>();
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder shedCount = new LongAdder();
+    private final AtomicLong nextEvictionNanos = new AtomicLong(System.nanoTime() + SECONDS.toNanos(EVICTION_INTERVAL_SECONDS));
+
+    public static Builder admissionAccessManager() {
+        return new Builder();
+    }
+
+    private AdmissionAccessManager(Builder builder) {
+        this.delegate = requireNonNull(builder.delegate, "delegate is required");
+        this.connectionProviders = List.copyOf(requireNonNull(builder.connectionProviders, "connectionProviders is required"));
+        this.cpuExecutor = requireNonNull(builder.cpuExecutor, "cpuExecutor is required");
+        this.routeCosts = Map.copyOf(builder.routeCosts);
+        this.principalLimit = builder.principalLimit;
+        this.routeLimit = builder.routeLimit;
+        this.workLimit = builder.workLimit;
+        this.maxDbWaitMillis = builder.maxDbWaitMillis;
+        this.maxCpuQueueDepth = builder.maxCpuQueueDepth;
+    }
+
+    @Override
+    public void manage(@NotNull Handler handler, @NotNull Context context, @NotNull Set<? extends RouteRole> set) throws Exception {
+        if (set.isEmpty()) {
+            delegate.manage(handler, context, set);
+            return;
+        }
+        delegate.manage(ctx -> {
+            admit(ctx);
+            handler.handle(ctx);
+        }, context, set);
+    }
+
+    public long throttledCount() {
+        return throttledCount.sum();
+    }
+
+    public long shedCount() {
+        return shedCount.sum();
+    }
+
+    private void admit(Context ctx) {
+        if (isOverloaded()) {
+            shedCount.increment();
+            throw new OverloadedException("Server is overloaded, try again later");
+        }
+        evictIdleBuckets();
+        final var userId = principal(ctx).userId();
+        final var route = ctx.method().name() + " " + ctx.endpointHandlerPath();
+        if (!principalBuckets.computeIfAbsent(userId, key -> principalLimit.bucket()).tryAcquire(1)) {
+            throttle("Too many requests");
+        }
+        if (!routeBuckets.computeIfAbsent(route, key -> routeLimit.bucket()).tryAcquire(1)) {
+            throttle("Too many requests to " + route);
+        }
+        final var routeCost = routeCosts.get(route);
+        if (routeCost != null) {
+            final var cost = Math.max(1, routeCost.applyAsLong(ctx));
+            if (cost > workLimit.capacity || !workBuckets.computeIfAbsent(userId, key -> workLimit.bucket()).tryAcquire(cost)) {
+                throttle("Request is too expensive, narrow it down or try again later");
+            }
+        }
+    }
+
+    /**
+     * Runs on the request path of whoever comes first after the interval. A request racing with the eviction of its
+     * bucket spends from the dropped one, which lets at most that request through for free.
+     */
+    private void evictIdleBuckets() {
+        final var now = System.nanoTime();
+        final var nextEviction = nextEvictionNanos.get();
+        if (now - nextEviction < 0 || !nextEvictionNanos.compareAndSet(nextEviction, now + SECONDS.toNanos(EVICTION_INTERVAL_SECONDS))) {
+            return;
+        }
+        principalBuckets.values().removeIf(TokenBucket::isFull);
+        workBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    /**
+     * Waiting callers alone are normal under load, a pool is considered saturated only when they also wait long.
+     * One saturated shard is enough, requests spread over every shard by user id.
+     */
+    private boolean isOverloaded() {
+        return connectionProviders.stream().anyMatch(connectionProvider ->
+                connectionProvider.waitingCount() > 0 && connectionProvider.averageWaitMillis() > maxDbWaitMillis)
+                || cpuExecutor.queueDepth() > maxCpuQueueDepth;
+    }
+
+    private void throttle(String message) {
+        throttledCount.increment();
+        throw new TooManyRequestsException(message);
+    }
+
+    private record Limit(long capacity, long tokensPerSecond) {
+
+        TokenBucket bucket() {
+            return new TokenBucket(capacity, tokensPerSecond);
+        }
+    }
+
+    public static class Builder {
+        private AccessManager delegate;
+        private List<BoundedConnectionProvider> connectionProviders;
+        private BoundedExecutor cpuExecutor;
+        private final Map<String, ToLongFunction<Context>> routeCosts = new HashMap<>();
+        private Limit principalLimit = new Limit(100, 50);
+        private Limit routeLimit = new Limit(2_000, 1_000);
+        private Limit workLimit = new Limit(36_500, 1_000);
+        private double maxDbWaitMillis = 1_000;
+        private int maxCpuQueueDepth = 750;
+
+        private Builder() {
+        }
+
+        public Builder delegate(AccessManager delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * @param connectionProviders connection providers of every shard
+         */
+        public Builder connectionProviders(List<BoundedConnectionProvider> connectionProviders) {
+            this.connectionProviders = connectionProviders;
+            return this;
+        }
+
+        public Builder cpuExecutor(BoundedExecutor cpuExecutor) {
+            this.cpuExecutor = cpuExecutor;
+            return this;
+        }
+
+        public Builder principalLimit(long capacity, long requestsPerSecond) {
+            this.principalLimit = new Limit(capacity, requestsPerSecond);
+            return this;
+        }
+
+        public Builder routeLimit(long capacity, long requestsPerSecond) {
+            this.routeLimit = new Limit(capacity, requestsPerSecond);
+            return this;
+        }
+
+        public Builder workLimit(long capacity, long unitsPerSecond) {
+            this.workLimit = new Limit(capacity, unitsPerSecond);
+            return this;
+        }
+
+        /**
+         * @param route HTTP method and path as registered, e.g. {@code POST /events/free-time-slot}
+         */
+        public Builder routeCost(String route, ToLongFunction<Context> cost) {
+            this.routeCosts.put(route, cost);
+            return this;
+        }
+
+        public Builder maxDbWaitMillis(double maxDbWaitMillis) {
+            this.maxDbWaitMillis = maxDbWaitMillis;
+            return this;
+        }
+
+        public Builder maxCpuQueueDepth(int maxCpuQueueDepth) {
+            this.maxCpuQueueDepth = maxCpuQueueDepth;
+            return this;
+        }
+
+        public AdmissionAccessManager build() {
+            return new AdmissionAccessManager(this);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.evgenykochergin.calendar.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Lock-free token bucket. Instead of a token counter and a refill timestamp it keeps a single
+ * theoretical arrival time: taking tokens pushes it forward, elapsed time catches up with it.
+ * The whole state fits into one {@link AtomicLong}, so concurrent callers only ever retry a CAS.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrivalTime;
+
+    public TokenBucket(long capacity, long tokensPerSecond) {
+        this(capacity, tokensPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(long capacity, long tokensPerSecond, LongSupplier nanoClock) {
+        if (capacity < 1 || tokensPerSecond < 1) {
+            throw new IllegalArgumentException("capacity and tokensPerSecond should be greater than 0");
+        }
+        this.nanosPerToken = SECONDS.toNanos(1) / tokensPerSecond;
+        this.burstNanos = capacity * nanosPerToken;
+        this.nanoClock = nanoClock;
+        this.theoreticalArrivalTime = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Whether the bucket has refilled completely, it then behaves exactly like a new one and can be dropped.
+     */
+    public boolean isFull() {
+        return theoreticalArrivalTime.get() - nanoClock.getAsLong() <= 0;
+    }
+
+    public boolean tryAcquire(long tokens) {
+        final var cost = tokens * nanosPerToken;
+        while (true) {
+            final var now = nanoClock.getAsLong();
+            final var current = theoreticalArrivalTime.get();
+            final var next = Math.max(current, now) + cost;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
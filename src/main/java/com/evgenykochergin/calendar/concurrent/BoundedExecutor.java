@@ -0,0 +1,99 @@
+package com.evgenykochergin.calendar.concurrent;
+
+import com.evgenykochergin.calendar.error.OverloadedException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Fixed size pool with a bounded queue. When the queue is full the task is rejected instead of waiting,
+ * so callers fail fast with {@link OverloadedException} rather than piling up behind a slow stage.
+ */
+public class BoundedExecutor implements Executor {
+
+    public final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public BoundedExecutor(String name, int threads, int queueCapacity) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory(name)
+        );
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new OverloadedException(format("Server is overloaded, %s queue is full", name));
+        }
+    }
+
+    /**
+     * Runs the supplier on this executor, a rejected task results in a future failed with {@link OverloadedException}.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        try {
+            return supplyAsync(supplier, this);
+        } catch (OverloadedException e) {
+            return failedFuture(e);
+        }
+    }
+
+    public int threads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int queueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    public long rejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long completedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        final var counter = new AtomicInteger();
+        return task -> {
+            final var thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
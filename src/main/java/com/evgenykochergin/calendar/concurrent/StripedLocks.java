@@ -0,0 +1,68 @@
+package com.evgenykochergin.calendar.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared by hash of the key. Keys that land on different stripes never contend, and several keys
+ * are always locked in ascending stripe order, so two callers locking overlapping sets cannot deadlock.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    public StripedLocks(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes should be greater than 0");
+        }
+        final var powerOfTwo = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new ReentrantLock[powerOfTwo];
+        for (int index = 0; index < locks.length; index++) {
+            locks[index] = new ReentrantLock();
+        }
+    }
+
+    public Held lock(Collection<?> keys) {
+        final var stripes = keys.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+        var locked = 0;
+        try {
+            for (final var stripe : stripes) {
+                locks[stripe].lock();
+                locked++;
+            }
+        } catch (RuntimeException | Error e) {
+            unlock(stripes, locked);
+            throw e;
+        }
+        return () -> unlock(stripes, stripes.length);
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    int stripe(Object key) {
+        final var hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+
+    private void unlock(int[] stripes, int count) {
+        for (int index = count - 1; index >= 0; index--) {
+            locks[stripes[index]].unlock();
+        }
+    }
+
+    /**
+     * Locks taken by {@link #lock(Collection)}, released on close.
+     */
+    @FunctionalInterface
+    public interface Held extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,82 @@
+package com.evgenykochergin.calendar.database;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+import java.sql.Connection;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Limits the number of callers that may hold or wait for a pooled connection at the same time.
+ * With virtual threads thousands of requests can reach the database layer at once, the semaphore keeps
+ * them parked cheaply in front of the pool instead of piling up inside Hikari.
+ */
+public class BoundedConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    /**
+     * Exponentially weighted average of the time spent waiting for a permit, kept as raw double bits.
+     */
+    private final AtomicLong averageWaitMillisBits = new AtomicLong(doubleToLongBits(0));
+
+    public BoundedConnectionProvider(ConnectionProvider delegate, int maxConnections, long timeoutMillis) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public @Nullable Connection acquire() throws DataAccessException {
+        final var waitStart = System.nanoTime();
+        try {
+            final var acquired = permits.tryAcquire(timeoutMillis, MILLISECONDS);
+            recordWait(NANOSECONDS.toMillis(System.nanoTime() - waitStart));
+            if (!acquired) {
+                throw new DataAccessException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            return delegate.acquire();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void release(@NotNull Connection connection) throws DataAccessException {
+        try {
+            delegate.release(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int waitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public double averageWaitMillis() {
+        return longBitsToDouble(averageWaitMillisBits.get());
+    }
+
+    private void recordWait(long waitMillis) {
+        averageWaitMillisBits.accumulateAndGet(
+                doubleToLongBits(waitMillis),
+                (average, sample) -> doubleToLongBits(0.9 * longBitsToDouble(average) + 0.1 * longBitsToDouble(sample))
+        );
+    }
+}
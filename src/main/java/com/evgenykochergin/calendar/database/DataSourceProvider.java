@@ -7,17 +7,46 @@ import javax.sql.DataSource;
 
 public class DataSourceProvider {
 
-    private final DataSource dataSource;
+    public static final String DEFAULT_JDBC_URL = "jdbc:h2:mem:calendar";
+    public static final int MAXIMUM_POOL_SIZE = 10;
+    public static final long CONNECTION_TIMEOUT_MILLIS = 30_000;
+
+    private final HikariDataSource dataSource;
 
     public DataSourceProvider() {
+        this(DEFAULT_JDBC_URL);
+    }
+
+    public DataSourceProvider(String jdbcUrl) {
         final var config = new HikariConfig();
-        config.setJdbcUrl("jdbc:h2:mem:calendar");
+        config.setJdbcUrl(jdbcUrl);
         config.setUsername("sa");
+        config.setMaximumPoolSize(MAXIMUM_POOL_SIZE);
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
         dataSource = new HikariDataSource(config);
     }
 
+    /**
+     * URL of the database standing for the given shard, the first shard uses the URL as is.
+     * E.g. {@code jdbc:h2:mem:calendar} becomes {@code jdbc:h2:mem:calendar_shard_1} for the second shard.
+     */
+    public static String shardJdbcUrl(String jdbcUrl, int shard) {
+        if (shard == 0) {
+            return jdbcUrl;
+        }
+        final var settingsStart = jdbcUrl.indexOf(';');
+        final var suffix = "_shard_" + shard;
+        return settingsStart < 0
+                ? jdbcUrl + suffix
+                : jdbcUrl.substring(0, settingsStart) + suffix + jdbcUrl.substring(settingsStart);
+    }
+
     public DataSource getDataSource() {
         return dataSource;
     }
 
+    public void close() {
+        dataSource.close();
+    }
+
 }
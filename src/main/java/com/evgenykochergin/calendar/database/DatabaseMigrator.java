@@ -1,18 +1,108 @@
 package com.evgenykochergin.calendar.database;
 
 import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.Properties;
 
 public class DatabaseMigrator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseMigrator.class);
+
+    private static final String SCHEMA_LOCATION = "classpath:db/migration";
+    private static final String SHARDING_LOCATION = "classpath:com/evgenykochergin/calendar/database/sharding";
+    /**
+     * Written by the build from the checksums of all migration scripts.
+     */
+    private static final String FINGERPRINT_RESOURCE = "/db/schema-fingerprint.properties";
+    private static final String FINGERPRINT_TABLE = "SCHEMA_FINGERPRINT";
 
     private final DataSource dataSource;
+    private final boolean sharded;
+    private final boolean leanCheck;
 
     public DatabaseMigrator(DataSource dataSource) {
+        this(dataSource, false, false);
+    }
+
+    /**
+     * @param sharded   whether the database is one of several shards, foreign keys between users, event details and
+     *                  events are dropped then
+     * @param leanCheck whether to skip Flyway when the database already carries the schema fingerprint of this build
+     */
+    public DatabaseMigrator(DataSource dataSource, boolean sharded, boolean leanCheck) {
         this.dataSource = dataSource;
+        this.sharded = sharded;
+        this.leanCheck = leanCheck;
     }
 
     public void migrate() {
-        Flyway.configure().dataSource(dataSource).load().migrate();
+        final var fingerprint = leanCheck ? buildFingerprint() : Optional.<String>empty();
+        if (fingerprint.isPresent() && fingerprint.equals(appliedFingerprint())) {
+            LOGGER.info("Schema fingerprint {} matches, migrations skipped", fingerprint.get());
+            return;
+        }
+        final var locations = sharded ? new String[]{SCHEMA_LOCATION, SHARDING_LOCATION} : new String[]{SCHEMA_LOCATION};
+        Flyway.configure().dataSource(dataSource).locations(locations).load().migrate();
+        fingerprint.ifPresent(this::storeFingerprint);
+    }
+
+    private Optional<String> buildFingerprint() {
+        try (final var resource = DatabaseMigrator.class.getResourceAsStream(FINGERPRINT_RESOURCE)) {
+            if (resource == null) {
+                return Optional.empty();
+            }
+            final var properties = new Properties();
+            properties.load(resource);
+            return Optional.ofNullable(properties.getProperty("fingerprint"))
+                    .map(fingerprint -> sharded ? fingerprint + "+sharded" : fingerprint);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Only reads, creating the table here would leave a fresh database non-empty and without Flyway history, which
+     * Flyway refuses to migrate. A missing table means no fingerprint.
+     */
+    private Optional<String> appliedFingerprint() {
+        try (final var connection = dataSource.getConnection()) {
+            try (final var tables = connection.getMetaData().getTables(null, connection.getSchema(), FINGERPRINT_TABLE, null)) {
+                if (!tables.next()) {
+                    return Optional.empty();
+                }
+            }
+            try (final var statement = connection.createStatement();
+                 final var resultSet = statement.executeQuery("SELECT fingerprint FROM schema_fingerprint WHERE id = 1")) {
+                return resultSet.next() ? Optional.of(resultSet.getString(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read schema fingerprint", e);
+        }
+    }
+
+    private void storeFingerprint(String fingerprint) {
+        try (final var connection = dataSource.getConnection()) {
+            createFingerprintTable(connection);
+            try (final var statement = connection.prepareStatement(
+                    "MERGE INTO schema_fingerprint (id, fingerprint, applied_at) KEY (id) VALUES (1, ?, CURRENT_TIMESTAMP)")) {
+                statement.setString(1, fingerprint);
+                statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not store schema fingerprint", e);
+        }
+    }
+
+    private static void createFingerprintTable(Connection connection) throws SQLException {
+        try (final var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_fingerprint (id INT PRIMARY KEY, fingerprint VARCHAR(100) NOT NULL, applied_at TIMESTAMP NOT NULL)");
+        }
     }
 }
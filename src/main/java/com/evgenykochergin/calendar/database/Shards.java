@@ -0,0 +1,111 @@
+package com.evgenykochergin.calendar.database;
+
+import org.jooq.DSLContext;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toCollection;
+
+/**
+ * Places the calendar of every user in one of several databases by a hash of the user id. The first shard is the
+ * primary one, it additionally keeps the user table. Queries that span several users are sent to the shards owning
+ * them in parallel and their results are concatenated.
+ */
+public class Shards {
+
+    private final List<DSLContext> shards;
+    private final ExecutorService scatterExecutor;
+
+    public Shards(List<DSLContext> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public static Shards single(DSLContext db) {
+        return new Shards(List.of(db));
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    public DSLContext primary() {
+        return shards.get(0);
+    }
+
+    public DSLContext shard(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<DSLContext> all() {
+        return shards;
+    }
+
+    /**
+     * Stops the threads running scattered queries, queries sent to several shards fail afterwards.
+     */
+    public void close() {
+        scatterExecutor.shutdown();
+    }
+
+    public int shardOf(UUID userId) {
+        return Math.floorMod(userId.hashCode(), shards.size());
+    }
+
+    public DSLContext forUser(UUID userId) {
+        return shards.get(shardOf(userId));
+    }
+
+    /**
+     * Groups the items by the shard of the user they belong to, keeping the order of the items within every shard.
+     */
+    public <T> Map<Integer, List<T>> byShard(Collection<T> items, Function<T, UUID> userIdOf) {
+        return items.stream()
+                .collect(groupingBy(item -> shardOf(userIdOf.apply(item)), TreeMap::new, toCollection(ArrayList::new)));
+    }
+
+    /**
+     * Runs the query on every shard.
+     */
+    public <T> List<T> scatter(Function<DSLContext, List<T>> query) {
+        return gather(IntStream.range(0, shards.size()).boxed().toList(), shard -> query.apply(shards.get(shard)));
+    }
+
+    /**
+     * Runs the query only on the shards owning the given users, every shard receives its own users.
+     */
+    public <T> List<T> scatter(Collection<UUID> userIds, BiFunction<DSLContext, List<UUID>, List<T>> query) {
+        final var userIdsByShard = byShard(new LinkedHashSet<>(userIds), Function.identity());
+        return gather(List.copyOf(userIdsByShard.keySet()), shard -> query.apply(shards.get(shard), userIdsByShard.get(shard)));
+    }
+
+    private <T> List<T> gather(List<Integer> shardIndexes, Function<Integer, List<T>> query) {
+        if (shardIndexes.size() == 1) {
+            return query.apply(shardIndexes.get(0));
+        }
+        final var futures = shardIndexes.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatterExecutor))
+                .toList();
+        final var result = new ArrayList<T>();
+        try {
+            futures.forEach(future -> result.addAll(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+package com.evgenykochergin.calendar.database.sharding;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.util.ArrayList;
+
+import static java.lang.String.format;
+
+/**
+ * Users, event details and events of one calendar entry may live in different shards, so the references between
+ * these tables can not be enforced by a single database. Applied only when the application runs with several shards.
+ */
+public class R__Drop_cross_shard_foreign_keys extends BaseJavaMigration {
+
+    private static final String CROSS_SHARD_FOREIGN_KEYS = """
+            SELECT DISTINCT FKTABLE_NAME, FK_NAME
+            FROM INFORMATION_SCHEMA.CROSS_REFERENCES
+            WHERE FKTABLE_NAME IN ('EVENT', 'EVENT_DETAILS') AND PKTABLE_NAME IN ('USER', 'EVENT_DETAILS')
+            """;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        final var foreignKeys = new ArrayList<String[]>();
+        try (final var statement = context.getConnection().createStatement();
+             final var resultSet = statement.executeQuery(CROSS_SHARD_FOREIGN_KEYS)) {
+            while (resultSet.next()) {
+                foreignKeys.add(new String[]{resultSet.getString(1), resultSet.getString(2)});
+            }
+        }
+        for (final var foreignKey : foreignKeys) {
+            try (final var statement = context.getConnection().createStatement()) {
+                statement.execute(format("ALTER TABLE \"%s\" DROP CONSTRAINT \"%s\"", foreignKey[0], foreignKey[1]));
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.evgenykochergin.calendar.error;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import static java.lang.String.format;
+
+public class EventConflictException extends ApplicationException {
+
+    public EventConflictException(Collection<UUID> userIds) {
+        super(format("Event conflicts with existing events of users %s", userIds));
+    }
+}
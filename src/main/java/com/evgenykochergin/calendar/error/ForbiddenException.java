@@ -0,0 +1,8 @@
+package com.evgenykochergin.calendar.error;
+
+public class ForbiddenException extends RuntimeException {
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
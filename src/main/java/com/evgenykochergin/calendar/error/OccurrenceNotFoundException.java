@@ -0,0 +1,13 @@
+package com.evgenykochergin.calendar.error;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static java.lang.String.format;
+
+public class OccurrenceNotFoundException extends ApplicationException {
+
+    public OccurrenceNotFoundException(UUID eventId, LocalDateTime originalStartDate) {
+        super(format("Event %s has no occurrence starting at %s", eventId, originalStartDate));
+    }
+}
@@ -0,0 +1,8 @@
+package com.evgenykochergin.calendar.error;
+
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.evgenykochergin.calendar.error;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
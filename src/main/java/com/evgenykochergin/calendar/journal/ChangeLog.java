@@ -0,0 +1,227 @@
+package com.evgenykochergin.calendar.journal;
+
+import com.evgenykochergin.calendar.model.Event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.evgenykochergin.calendar.journal.EventCodec.EVENT_BYTES;
+import static com.evgenykochergin.calendar.journal.EventCodec.readEvent;
+import static com.evgenykochergin.calendar.journal.EventCodec.writeEvent;
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only log of event upserts split into segments. A segment starts with {@code magic, version} followed by
+ * records of fixed size {@code sequence, event, crc32}, and a record always carries the full event state, so replaying
+ * a record twice is harmless. Replay stops at the first torn or corrupted record but fails on a segment of another
+ * format, which would otherwise be read as garbage or silently skipped.
+ * Not thread-safe, callers serialize appends.
+ */
+public class ChangeLog implements Closeable {
+
+    static final int RECORD_BYTES = Long.BYTES + EVENT_BYTES + Integer.BYTES;
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final int MAGIC = 0x43414c4c;
+    /**
+     * To be increased together with the snapshot version whenever {@link EventCodec} changes.
+     */
+    static final int VERSION = 1;
+    private static final String SEGMENT_PREFIX = "changes-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private FileChannel segment;
+    private long lastSequence;
+
+    /**
+     * Opens a new segment, existing segments are kept until {@link #rotate()} drops them.
+     */
+    public ChangeLog(Path directory, long lastSequence) {
+        this.directory = directory;
+        this.lastSequence = lastSequence;
+        this.segment = openSegment(lastSequence + 1);
+    }
+
+    public long append(Event event) {
+        final var sequence = lastSequence + 1;
+        record.clear();
+        record.putLong(sequence);
+        writeEvent(record, event);
+        crc.reset();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                segment.write(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Starts a new segment, records up to {@link #lastSequence()} stay in the older ones.
+     */
+    public void rotate() {
+        close();
+        this.segment = openSegment(lastSequence + 1);
+    }
+
+    /**
+     * Deletes segments that hold no record above the given sequence, to be called once a snapshot covers it.
+     * Segments are only ever cut by {@link #rotate()}, so one that starts at or before the covered sequence also
+     * ends there.
+     */
+    public void truncate(long sequence) {
+        try (final var segments = segments(directory)) {
+            for (final var path : segments.toList()) {
+                if (firstSequence(path) <= sequence) {
+                    Files.delete(path);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            segment.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Feeds every intact record with a sequence above {@code afterSequence} to the consumer.
+     *
+     * @return sequence of the last record found, or {@code afterSequence} when there is none
+     */
+    public static long replay(Path directory, long afterSequence, Consumer<Event> consumer) {
+        var lastSequence = afterSequence;
+        final List<Path> paths;
+        try (final var segments = segments(directory)) {
+            paths = segments.sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final var header = ByteBuffer.allocate(HEADER_BYTES);
+        final var buffer = ByteBuffer.allocate(RECORD_BYTES);
+        final var crc = new CRC32();
+        for (final var path : paths) {
+            try (final var channel = FileChannel.open(path, READ)) {
+                if (!readFully(channel, header)) {
+                    continue;
+                }
+                checkHeader(path, header);
+                while (readFully(channel, buffer)) {
+                    crc.reset();
+                    crc.update(buffer.array(), 0, RECORD_BYTES - Integer.BYTES);
+                    if (buffer.getInt(RECORD_BYTES - Integer.BYTES) != (int) crc.getValue()) {
+                        break;
+                    }
+                    buffer.flip();
+                    final var sequence = buffer.getLong();
+                    if (sequence > lastSequence) {
+                        consumer.accept(readEvent(buffer));
+                        lastSequence = sequence;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * A segment torn before its header was written holds no record and is skipped.
+     */
+    private static void checkHeader(Path path, ByteBuffer header) {
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IllegalStateException(format("%s is not a change log segment", path));
+        }
+        final var version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException(format(
+                    "Change log segment %s has version %s instead of %s, remove the journal directory to rebuild it from the database",
+                    path, version, VERSION));
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A leftover segment with the same first sequence can only hold an unreadable record, it is overwritten.
+     */
+    private FileChannel openSegment(long firstSequence) {
+        try {
+            Files.createDirectories(directory);
+            final var channel = FileChannel.open(segmentPath(firstSequence), CREATE, WRITE, TRUNCATE_EXISTING);
+            final var header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+            try {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            return channel;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        final var name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static Stream<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        return Files.list(directory)
+                .filter(path -> {
+                    final var name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                });
+    }
+}
@@ -0,0 +1,161 @@
+package com.evgenykochergin.calendar.journal;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.type.EventStatus;
+import com.evgenykochergin.calendar.model.type.EventType;
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.model.type.RecurrenceRule;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.model.Event.event;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.time.Duration.ofSeconds;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Fixed-size binary form of an {@link Event}, shared by the change log and snapshots.
+ * Enums are stored by ordinal, so reordering their constants requires a new format version.
+ * The time zone id is stored as a length-prefixed, zero-padded ASCII field. A recurrence rule is stored as its
+ * frequency, interval, a week day mask, a month day mask (bits 0-30 for days 1..31, 32-62 for -1..-31) and its count,
+ * zero when it has none.
+ */
+public class EventCodec {
+
+    private static final int MAX_ZONE_ID_BYTES = 48;
+    private static final int RULE_BYTES = 1 + 4 + 1 + 8 + 4;
+    public static final int EVENT_BYTES = 3 * 16 + 1 + 1 + 2 * 12 + 8 + RULE_BYTES + 1 + MAX_ZONE_ID_BYTES;
+    private static final byte NO_RECURRENCE = -1;
+
+    private EventCodec() {
+    }
+
+    public static void writeEvent(ByteBuffer buffer, Event event) {
+        writeUuid(buffer, event.id);
+        writeUuid(buffer, event.userId);
+        writeUuid(buffer, event.eventDetailsId);
+        buffer.put((byte) event.status.ordinal());
+        buffer.put((byte) event.type.ordinal());
+        writeDateTime(buffer, event.startDate);
+        writeDateTime(buffer, event.endDate);
+        buffer.putLong(event.duration.toSeconds());
+        writeRule(buffer, event.recurrence.map(recurrence -> recurrence.rule));
+        writeZone(buffer, event.timeZone);
+    }
+
+    public static Event readEvent(ByteBuffer buffer) {
+        final var id = readUuid(buffer);
+        final var userId = readUuid(buffer);
+        final var eventDetailsId = readUuid(buffer);
+        final var status = EventStatus.values()[buffer.get()];
+        final var type = EventType.values()[buffer.get()];
+        final var startDate = readDateTime(buffer);
+        final var endDate = readDateTime(buffer);
+        final var duration = ofSeconds(buffer.getLong());
+        final var rule = readRule(buffer);
+        final var timeZone = readZone(buffer);
+        return event()
+                .id(id)
+                .userId(userId)
+                .eventDetailsId(eventDetailsId)
+                .status(status)
+                .type(type)
+                .startDate(startDate)
+                .endDate(endDate)
+                .duration(duration)
+                .recurrence(rule.map(value -> new Recurrence(value, endDate, timeZone)))
+                .timeZone(timeZone)
+                .build();
+    }
+
+    private static void writeRule(ByteBuffer buffer, Optional<RecurrenceRule> rule) {
+        if (rule.isEmpty()) {
+            buffer.put(NO_RECURRENCE);
+            buffer.position(buffer.position() + RULE_BYTES - 1);
+            return;
+        }
+        final var value = rule.get();
+        buffer.put((byte) value.frequency().ordinal());
+        buffer.putInt(value.interval());
+        buffer.put((byte) value.byDay().stream().mapToInt(day -> 1 << day.ordinal()).sum());
+        buffer.putLong(value.byMonthDay().stream().mapToLong(day -> 1L << (day > 0 ? day - 1 : 32 - day - 1)).sum());
+        buffer.putInt(value.count().orElse(0));
+    }
+
+    private static Optional<RecurrenceRule> readRule(ByteBuffer buffer) {
+        final var frequency = buffer.get();
+        if (frequency == NO_RECURRENCE) {
+            buffer.position(buffer.position() + RULE_BYTES - 1);
+            return Optional.empty();
+        }
+        final var interval = buffer.getInt();
+        final var dayMask = buffer.get();
+        final var monthDayMask = buffer.getLong();
+        final var count = buffer.getInt();
+        final var byDay = EnumSet.noneOf(DayOfWeek.class);
+        for (final var day : DayOfWeek.values()) {
+            if ((dayMask & (1 << day.ordinal())) != 0) {
+                byDay.add(day);
+            }
+        }
+        final var byMonthDay = new ArrayList<Integer>();
+        for (int day = 1; day <= 31; day++) {
+            if ((monthDayMask & (1L << (day - 1))) != 0) {
+                byMonthDay.add(day);
+            }
+            if ((monthDayMask & (1L << (32 + day - 1))) != 0) {
+                byMonthDay.add(-day);
+            }
+        }
+        return Optional.of(new RecurrenceRule(
+                RecurrenceRule.Frequency.values()[frequency],
+                interval,
+                byDay,
+                byMonthDay,
+                count == 0 ? Optional.empty() : Optional.of(count)
+        ));
+    }
+
+    private static void writeZone(ByteBuffer buffer, Optional<ZoneId> zone) {
+        final var bytes = zone.map(value -> value.getId().getBytes(US_ASCII)).orElse(new byte[0]);
+        if (bytes.length > MAX_ZONE_ID_BYTES) {
+            throw new IllegalArgumentException(format("Time zone id %s is too long", zone.get()));
+        }
+        buffer.put((byte) bytes.length);
+        buffer.put(bytes);
+        buffer.position(buffer.position() + MAX_ZONE_ID_BYTES - bytes.length);
+    }
+
+    private static Optional<ZoneId> readZone(ByteBuffer buffer) {
+        final var bytes = new byte[buffer.get()];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + MAX_ZONE_ID_BYTES - bytes.length);
+        return bytes.length == 0 ? Optional.empty() : Optional.of(ZoneId.of(new String(bytes, US_ASCII)));
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeDateTime(ByteBuffer buffer, LocalDateTime dateTime) {
+        buffer.putLong(dateTime.toEpochSecond(UTC));
+        buffer.putInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), UTC);
+    }
+}
@@ -0,0 +1,155 @@
+package com.evgenykochergin.calendar.journal;
+
+import com.evgenykochergin.calendar.model.Event;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static com.evgenykochergin.calendar.journal.EventCodec.EVENT_BYTES;
+import static com.evgenykochergin.calendar.journal.EventCodec.readEvent;
+import static com.evgenykochergin.calendar.journal.EventCodec.writeEvent;
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Snapshots of the full event state as of a change log sequence. A snapshot file is
+ * {@code magic, version, sequence, count, events..., crc32}; it is written to a temporary file and moved into place,
+ * and loaded through a memory-mapped buffer. Only the newest intact snapshot is kept.
+ */
+public class SnapshotStore {
+
+    public record Snapshot(long sequence, List<Event> events) {
+    }
+
+    private static final int MAGIC = 0x43414c53;
+    /**
+     * To be increased together with the change log version whenever {@link EventCodec} changes.
+     */
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_EVENTS = 1024;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public void write(long sequence, Collection<Event> events) {
+        final var path = directory.resolve(format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        final var temporaryPath = directory.resolve(path.getFileName() + ".tmp");
+        final var buffer = ByteBuffer.allocate(WRITE_BUFFER_EVENTS * EVENT_BYTES);
+        final var crc = new CRC32();
+        try {
+            Files.createDirectories(directory);
+            try (final var channel = FileChannel.open(temporaryPath, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(sequence).putInt(events.size());
+                for (final var event : events) {
+                    if (buffer.remaining() < EVENT_BYTES) {
+                        flush(channel, buffer, crc);
+                    }
+                    writeEvent(buffer, event);
+                }
+                flush(channel, buffer, crc);
+                buffer.putInt((int) crc.getValue());
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporaryPath, path, ATOMIC_MOVE);
+            try (final var snapshots = snapshots()) {
+                for (final var older : snapshots.filter(snapshot -> !snapshot.equals(path)).toList()) {
+                    Files.delete(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Newest snapshot that passes the checksum, older files are only tried when a newer one is damaged.
+     */
+    public Optional<Snapshot> loadNewest() {
+        final List<Path> paths;
+        try (final var snapshots = snapshots()) {
+            paths = snapshots.sorted(Comparator.reverseOrder()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (final var path : paths) {
+            final var snapshot = load(path);
+            if (snapshot.isPresent()) {
+                return snapshot;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Snapshot> load(Path path) {
+        try (final var channel = FileChannel.open(path, READ)) {
+            final var size = channel.size();
+            if (size < HEADER_BYTES + Integer.BYTES) {
+                return Optional.empty();
+            }
+            final var buffer = channel.map(READ_ONLY, 0, size);
+            final var crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - Integer.BYTES));
+            if (buffer.getInt((int) size - Integer.BYTES) != (int) crc.getValue()) {
+                return Optional.empty();
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return Optional.empty();
+            }
+            final var sequence = buffer.getLong();
+            final var count = buffer.getInt();
+            final var events = new ArrayList<Event>(count);
+            for (int index = 0; index < count; index++) {
+                events.add(readEvent(buffer));
+            }
+            return Optional.of(new Snapshot(sequence, events));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private Stream<Path> snapshots() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        return Files.list(directory)
+                .filter(path -> {
+                    final var name = path.getFileName().toString();
+                    return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                });
+    }
+}
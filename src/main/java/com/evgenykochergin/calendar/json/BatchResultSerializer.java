@@ -0,0 +1,32 @@
+package com.evgenykochergin.calendar.json;
+
+import com.evgenykochergin.calendar.service.BatchResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static com.evgenykochergin.calendar.json.Json.arrayNode;
+import static com.evgenykochergin.calendar.json.Json.objectNode;
+
+public class BatchResultSerializer {
+
+    private BatchResultSerializer() {
+    }
+
+    public static <T> JsonNode batchResultsJson(List<BatchResult<T>> results, Function<T, JsonNode> valueJson) {
+        return arrayNode().addAll(results.stream().map(result -> batchResultJson(result, valueJson)).toList());
+    }
+
+    private static <T> ObjectNode batchResultJson(BatchResult<T> result, Function<T, JsonNode> valueJson) {
+        if (result.isSuccess()) {
+            return objectNode()
+                    .put("success", true)
+                    .set("result", valueJson.apply(result.value().orElseThrow()));
+        }
+        return objectNode()
+                .put("success", false)
+                .put("error", result.error().orElseThrow());
+    }
+}
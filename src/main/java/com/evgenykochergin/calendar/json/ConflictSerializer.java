@@ -0,0 +1,28 @@
+package com.evgenykochergin.calendar.json;
+
+import com.evgenykochergin.calendar.service.ConflictSummary;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+import static com.evgenykochergin.calendar.json.Json.arrayNode;
+import static com.evgenykochergin.calendar.json.Json.objectNode;
+
+public class ConflictSerializer {
+
+    private ConflictSerializer() {
+    }
+
+    public static JsonNode conflictJson(ConflictSummary conflict) {
+        final var eventIds = arrayNode();
+        conflict.eventIds().forEach(eventId -> eventIds.add(eventId.toString()));
+        return objectNode()
+                .put("userId", conflict.userId().toString())
+                .put("count", conflict.eventIds().size())
+                .set("eventIds", eventIds);
+    }
+
+    public static JsonNode conflictsJson(List<ConflictSummary> conflicts) {
+        return arrayNode().addAll(conflicts.stream().map(ConflictSerializer::conflictJson).toList());
+    }
+}
@@ -5,54 +5,154 @@ import com.evgenykochergin.calendar.model.Event;
 import com.evgenykochergin.calendar.model.EventDetails;
 import com.evgenykochergin.calendar.model.type.Recurrence;
 import com.evgenykochergin.calendar.model.type.UserEventStatus;
+import com.evgenykochergin.calendar.service.EventFields;
+import com.evgenykochergin.calendar.service.EventView;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import java.io.IOException;
 import java.util.Collection;
 
-import static com.evgenykochergin.calendar.json.Json.arrayNode;
 import static com.evgenykochergin.calendar.json.Json.objectNode;
+import static com.evgenykochergin.calendar.service.EventFields.ALL;
 
+/**
+ * Events are written through a {@link JsonGenerator}, the tree forms are built from the same writers so both always
+ * carry the same fields.
+ */
 public class EventSerializer {
 
     private EventSerializer() {
     }
 
     public static ObjectNode eventJson(Event event) {
-        final var objectNode = objectNode()
-                .put("id", event.id.toString())
-                .put("startDate", event.startDate.toString())
-                .put("endDate", event.startDate.plus(event.duration).toString())
-                .put("duration", event.duration.toMinutes())
-                .put("type", event.type.name());
-        event.recurrence.map(EventSerializer::recurrenceJson).ifPresent(jsonNode -> objectNode.set("recurrence", jsonNode));
-        return objectNode;
+        return objectNode(generator -> writeEventJson(generator, event));
     }
 
     public static ObjectNode eventWithDetailsJson(Event event,
                                                   EventDetails eventDetails,
                                                   Collection<UserEventStatus> userEventStatuses) {
-        return eventJson(event).set("details", eventDetailsJson(eventDetails, userEventStatuses));
+        return objectNode(generator -> writeEventWithDetailsJson(generator, event, eventDetails, userEventStatuses));
     }
 
-    private static ObjectNode eventDetailsJson(EventDetails eventDetails,
-                                               Collection<UserEventStatus> userEventStatuses) {
-        final var objectNode = objectNode()
-                .put("name", eventDetails.name)
-                .put("organizerId", eventDetails.organizerId.toString())
-                .put("visibility", eventDetails.visibility.name());
-        eventDetails.description.ifPresent(description -> objectNode.put("description", description));
-        return objectNode.set("attendees", arrayNode().addAll(userEventStatuses.stream().map(EventSerializer::userJson).toList()));
+    public static ObjectNode eventViewJson(EventView eventView) {
+        return eventViewJson(eventView, ALL);
     }
 
-    private static ObjectNode userJson(UserEventStatus userEventStatus) {
-        return objectNode()
-                .put("userId", userEventStatus.userId.toString())
-                .put("status", userEventStatus.status.name());
+    /**
+     * Writes only the requested fields, details are written when they are both requested and visible.
+     */
+    public static ObjectNode eventViewJson(EventView eventView, EventFields fields) {
+        return objectNode(generator -> writeEventViewJson(generator, eventView, fields));
     }
 
-    private static ObjectNode recurrenceJson(Recurrence recurrence) {
-        return objectNode()
-                .put("frequency", recurrence.frequency.name())
-                .put("endDate", recurrence.endDate.toString());
+    /**
+     * Streaming form of {@link #eventJson(Event)}, writes the JSON without building a tree.
+     */
+    public static void writeEventJson(JsonGenerator generator, Event event) throws IOException {
+        generator.writeStartObject();
+        writeEventFields(generator, event, ALL);
+        generator.writeEndObject();
     }
-}
\ No newline at end of file
+
+    /**
+     * Streaming form of {@link #eventWithDetailsJson(Event, EventDetails, Collection)}.
+     */
+    public static void writeEventWithDetailsJson(JsonGenerator generator,
+                                                 Event event,
+                                                 EventDetails eventDetails,
+                                                 Collection<UserEventStatus> userEventStatuses) throws IOException {
+        generator.writeStartObject();
+        writeEventFields(generator, event, ALL);
+        generator.writeFieldName("details");
+        writeEventDetailsJson(generator, eventDetails, userEventStatuses, ALL);
+        generator.writeEndObject();
+    }
+
+    public static void writeEventViewJson(JsonGenerator generator, EventView eventView) throws IOException {
+        writeEventViewJson(generator, eventView, ALL);
+    }
+
+    /**
+     * Streaming form of {@link #eventViewJson(EventView, EventFields)}.
+     */
+    public static void writeEventViewJson(JsonGenerator generator, EventView eventView, EventFields fields) throws IOException {
+        generator.writeStartObject();
+        writeEventFields(generator, eventView.event(), fields);
+        if (fields.includesDetails() && eventView.details().isPresent()) {
+            generator.writeFieldName("details");
+            writeEventDetailsJson(generator, eventView.details().get(), eventView.attendees(), fields);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeEventFields(JsonGenerator generator, Event event, EventFields fields) throws IOException {
+        if (fields.includes("id")) {
+            generator.writeStringField("id", event.id.toString());
+        }
+        if (fields.includes("startDate")) {
+            generator.writeStringField("startDate", event.startDate.toString());
+        }
+        if (fields.includes("endDate")) {
+            generator.writeStringField("endDate", event.startDate.plus(event.duration).toString());
+        }
+        if (fields.includes("duration")) {
+            generator.writeNumberField("duration", event.duration.toMinutes());
+        }
+        if (fields.includes("type")) {
+            generator.writeStringField("type", event.type.name());
+        }
+        if (fields.includes("recurrence") && event.recurrence.isPresent()) {
+            generator.writeFieldName("recurrence");
+            writeRecurrenceJson(generator, event.recurrence.get());
+        }
+        if (fields.includes("originalStartDate") && event.originalStartDate.isPresent()) {
+            generator.writeStringField("originalStartDate", event.originalStartDate.get().toString());
+        }
+        if (fields.includes("timeZone") && event.timeZone.isPresent()) {
+            generator.writeStringField("timeZone", event.timeZone.get().getId());
+        }
+    }
+
+    private static void writeEventDetailsJson(JsonGenerator generator,
+                                              EventDetails eventDetails,
+                                              Collection<UserEventStatus> userEventStatuses,
+                                              EventFields fields) throws IOException {
+        generator.writeStartObject();
+        if (fields.includes("details.name")) {
+            generator.writeStringField("name", eventDetails.name);
+        }
+        if (fields.includes("details.organizerId")) {
+            generator.writeStringField("organizerId", eventDetails.organizerId.toString());
+        }
+        if (fields.includes("details.visibility")) {
+            generator.writeStringField("visibility", eventDetails.visibility.name());
+        }
+        if (fields.includes("details.description") && eventDetails.description.isPresent()) {
+            generator.writeStringField("description", eventDetails.description.get());
+        }
+        if (fields.includesAttendees()) {
+            generator.writeArrayFieldStart("attendees");
+            for (final var userEventStatus : userEventStatuses) {
+                generator.writeStartObject();
+                generator.writeStringField("userId", userEventStatus.userId.toString());
+                generator.writeStringField("status", userEventStatus.status.name());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeRecurrenceJson(JsonGenerator generator, Recurrence recurrence) throws IOException {
+        generator.writeStartObject();
+        final var frequency = recurrence.rule.simpleFrequency();
+        if (frequency.isPresent()) {
+            generator.writeStringField("frequency", frequency.get().name());
+        } else {
+            generator.writeStringField("rule", recurrence.rule.toString());
+        }
+        generator.writeStringField("endDate", recurrence.endDate.toString());
+        generator.writeEndObject();
+    }
+}
@@ -2,21 +2,40 @@ package com.evgenykochergin.calendar.json;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.*;
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
 
 public class Json {
 
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    public static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+    public static final ObjectMapper CBOR_MAPPER = new ObjectMapper(new CBORFactory());
 
     static {
-        OBJECT_MAPPER.findAndRegisterModules();
-        OBJECT_MAPPER.registerModule(new Jdk8Module());
+        for (final var objectMapper : List.of(OBJECT_MAPPER, SMILE_MAPPER, CBOR_MAPPER)) {
+            objectMapper.findAndRegisterModules();
+            objectMapper.registerModule(new Jdk8Module());
+        }
+    }
+
+    @FunctionalInterface
+    public interface JsonWriter {
+        void write(JsonGenerator generator) throws IOException;
     }
 
     public static ObjectNode objectNode() {
@@ -26,4 +45,32 @@ public class Json {
     public static ArrayNode arrayNode() {
         return OBJECT_MAPPER.createArrayNode();
     }
+
+    /**
+     * Tree of the object the writer writes, for callers that add to it before rendering.
+     */
+    public static ObjectNode objectNode(JsonWriter writer) {
+        try (final var buffer = new TokenBuffer(OBJECT_MAPPER, false)) {
+            writer.write(buffer);
+            return OBJECT_MAPPER.readTree(buffer.asParser());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes JSON straight to the stream, the stream itself is left open for the caller.
+     */
+    public static void writeJson(OutputStream outputStream, JsonWriter writer) throws IOException {
+        writeJson(OBJECT_MAPPER, outputStream, writer);
+    }
+
+    /**
+     * Same as {@link #writeJson(OutputStream, JsonWriter)} but encodes with the given mapper, e.g. Smile or CBOR.
+     */
+    public static void writeJson(ObjectMapper objectMapper, OutputStream outputStream, JsonWriter writer) throws IOException {
+        try (final var generator = objectMapper.getFactory().createGenerator(outputStream).disable(AUTO_CLOSE_TARGET)) {
+            writer.write(generator);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.evgenykochergin.calendar.json;
+
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+import com.evgenykochergin.calendar.outbox.OutboxDispatcher;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import static com.evgenykochergin.calendar.json.Json.objectNode;
+
+public class MetricsSerializer {
+
+    private MetricsSerializer() {
+    }
+
+    public static JsonNode executorJson(BoundedExecutor executor) {
+        return objectNode()
+                .put("threads", executor.threads())
+                .put("active", executor.activeCount())
+                .put("queueDepth", executor.queueDepth())
+                .put("queueCapacity", executor.queueCapacity())
+                .put("rejected", executor.rejectedCount())
+                .put("completed", executor.completedCount());
+    }
+
+    public static JsonNode outboxJson(OutboxDispatcher dispatcher) {
+        return objectNode()
+                .put("pending", dispatcher.pendingCount())
+                .put("dispatched", dispatcher.dispatchedCount())
+                .put("deliveries", dispatcher.deliveryCount())
+                .put("failedDeliveries", dispatcher.failedDeliveryCount())
+                .put("averageLagMillis", dispatcher.averageLagMillis());
+    }
+}
@@ -0,0 +1,30 @@
+package com.evgenykochergin.calendar.json;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.EventDetails;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import static com.evgenykochergin.calendar.json.Json.objectNode;
+
+public class NotificationSerializer {
+
+    private NotificationSerializer() {
+    }
+
+    public static JsonNode invitationJson(EventDetails eventDetails, Event event) {
+        return objectNode()
+                .put("eventId", event.id.toString())
+                .put("eventDetailsId", eventDetails.id.toString())
+                .put("organizerId", eventDetails.organizerId.toString())
+                .put("startDate", event.startDate.toString())
+                .put("endDate", event.startDate.plus(event.duration).toString());
+    }
+
+    public static JsonNode statusChangeJson(EventDetails eventDetails, Event event) {
+        return objectNode()
+                .put("eventId", event.id.toString())
+                .put("eventDetailsId", eventDetails.id.toString())
+                .put("userId", event.userId.toString())
+                .put("status", event.status.name());
+    }
+}
@@ -0,0 +1,27 @@
+package com.evgenykochergin.calendar.json;
+
+import com.evgenykochergin.calendar.outbox.OutboxMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.json.Json.arrayNode;
+import static com.evgenykochergin.calendar.json.Json.objectNode;
+
+public class OutboxSerializer {
+
+    private OutboxSerializer() {
+    }
+
+    public static JsonNode deliveryJson(UUID recipientId, List<OutboxMessage> messages) {
+        final var messagesJson = arrayNode();
+        messages.forEach(message -> messagesJson.add(objectNode()
+                .put("type", message.type())
+                .put("payload", message.payload())
+                .put("createdAt", message.createdAt().toString())));
+        return objectNode()
+                .put("recipientId", recipientId.toString())
+                .set("messages", messagesJson);
+    }
+}
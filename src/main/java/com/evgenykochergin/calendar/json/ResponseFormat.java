@@ -0,0 +1,71 @@
+package com.evgenykochergin.calendar.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.Nullable;
+
+import static com.evgenykochergin.calendar.json.Json.CBOR_MAPPER;
+import static com.evgenykochergin.calendar.json.Json.OBJECT_MAPPER;
+import static com.evgenykochergin.calendar.json.Json.SMILE_MAPPER;
+
+/**
+ * Wire formats that share the JSON data model. JSON stays the default for any client that doesn't explicitly
+ * ask for a binary format in its Accept header.
+ */
+public enum ResponseFormat {
+
+    JSON("application/json", OBJECT_MAPPER),
+    SMILE("application/x-jackson-smile", SMILE_MAPPER),
+    CBOR("application/cbor", CBOR_MAPPER);
+
+    public final String contentType;
+    public final ObjectMapper objectMapper;
+
+    ResponseFormat(String contentType, ObjectMapper objectMapper) {
+        this.contentType = contentType;
+        this.objectMapper = objectMapper;
+    }
+
+    public static ResponseFormat negotiate(@Nullable String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        var format = JSON;
+        var quality = -1.0;
+        for (final var mediaRange : accept.split(",")) {
+            final var parameters = mediaRange.split(";");
+            final var candidate = formatOf(parameters[0].trim());
+            if (candidate == null) {
+                continue;
+            }
+            final var candidateQuality = qualityOf(parameters);
+            if (candidateQuality > quality) {
+                format = candidate;
+                quality = candidateQuality;
+            }
+        }
+        return quality > 0 ? format : JSON;
+    }
+
+    private static @Nullable ResponseFormat formatOf(String mediaType) {
+        for (final var format : values()) {
+            if (format.contentType.equalsIgnoreCase(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static double qualityOf(String[] parameters) {
+        for (int index = 1; index < parameters.length; index++) {
+            final var parameter = parameters[index].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -1,8 +1,14 @@
 package com.evgenykochergin.calendar.json;
 
+import com.evgenykochergin.calendar.service.AvailabilityHeatmap.Heatmap;
+import com.evgenykochergin.calendar.service.BestTimeSlotFinder.BestTimeSlots;
 import com.evgenykochergin.calendar.service.FreeTimeSlotFinder.TimeSlot;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.List;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.json.Json.arrayNode;
 import static com.evgenykochergin.calendar.json.Json.objectNode;
 
 public class TimeSlotSerializer {
@@ -15,4 +21,32 @@ public class TimeSlotSerializer {
                 .put("startDate", timeSlot.startDate().toString())
                 .put("endDate", timeSlot.endDate().toString());
     }
+
+    public static JsonNode bestTimeSlotsJson(BestTimeSlots bestTimeSlots) {
+        return objectNode()
+                .put("freeOptionalUsers", bestTimeSlots.freeOptionalUsers())
+                .put("optionalUsers", bestTimeSlots.optionalUsers())
+                .set("timeSlots", arrayNode().addAll(bestTimeSlots.timeSlots().stream().map(TimeSlotSerializer::timeSlotJson).toList()));
+    }
+
+    /**
+     * Free counts go out as a plain number array, bucket i starts at fromDate + i * bucketMinutes.
+     */
+    public static JsonNode heatmapJson(Heatmap heatmap) {
+        final var freeCounts = arrayNode();
+        for (final var freeCount : heatmap.freeCounts()) {
+            freeCounts.add(freeCount);
+        }
+        return objectNode()
+                .put("fromDate", heatmap.fromDate().toString())
+                .put("bucketMinutes", heatmap.bucket().toMinutes())
+                .put("users", heatmap.users())
+                .set("freeCounts", freeCounts);
+    }
+
+    public static JsonNode busyTimeSlotsJson(UUID userId, List<TimeSlot> busyTimeSlots) {
+        return objectNode()
+                .put("userId", userId.toString())
+                .set("busy", arrayNode().addAll(busyTimeSlots.stream().map(TimeSlotSerializer::timeSlotJson).toList()));
+    }
 }
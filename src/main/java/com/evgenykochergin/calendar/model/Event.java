@@ -2,19 +2,22 @@ package com.evgenykochergin.calendar.model;
 
 import com.evgenykochergin.calendar.model.type.EventStatus;
 import com.evgenykochergin.calendar.model.type.EventType;
+import com.evgenykochergin.calendar.model.type.Occurrence;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
 import com.evgenykochergin.calendar.model.type.Recurrence;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static com.evgenykochergin.calendar.model.type.EventStatus.*;
 import static com.evgenykochergin.calendar.model.type.EventType.RECURRING;
 import static com.evgenykochergin.calendar.model.type.EventType.SINGLE;
-import static java.util.Collections.emptyList;
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static java.util.UUID.randomUUID;
@@ -29,6 +32,18 @@ public class Event {
     public final Duration duration;
     public final EventType type;
     public final Optional<Recurrence> recurrence;
+    /**
+     * Zone the event was scheduled in, dates stay UTC. Recurring series repeat at the wall-clock time of this zone.
+     */
+    public final Optional<ZoneId> timeZone;
+    /**
+     * Exceptions to single occurrences of a recurring series, ordered by original start. Instances do not carry them.
+     */
+    public final List<OccurrenceOverride> overrides;
+    /**
+     * Start the occurrence has in its series, present for recurring instances that were overridden.
+     */
+    public final Optional<LocalDateTime> originalStartDate;
 
     public static Builder event() {
         return new Builder();
@@ -44,17 +59,28 @@ public class Event {
         this.duration = requireNonNull(builder.duration, "duration is required");
         this.type = requireNonNull(builder.type, "type is required");
         this.recurrence = requireNonNull(builder.recurrence, "recurrence is required");
+        this.timeZone = requireNonNull(builder.timeZone, "timeZone is required");
+        this.overrides = requireNonNull(builder.overrides, "overrides is required").stream()
+                .sorted(comparing(OccurrenceOverride::originalStartDate))
+                .toList();
+        this.originalStartDate = requireNonNull(builder.originalStartDate, "originalStartDate is required");
 
         if (is(SINGLE)) {
             if (recurrence.isPresent()) {
                 throw new IllegalArgumentException("recurrence must be empty for single events");
             }
+            if (!overrides.isEmpty()) {
+                throw new IllegalArgumentException("overrides must be empty for single events");
+            }
         }
         if (is(RECURRING)) {
             if (recurrence.isEmpty()) {
                 throw new IllegalArgumentException("recurrence must be presented for recurring events");
             }
         }
+        if (recurrence.isPresent() && !recurrence.get().zone.equals(timeZone)) {
+            throw new IllegalArgumentException("recurrence zone must match timeZone");
+        }
         if (startDate.isAfter(endDate)) {
             throw new IllegalArgumentException("startDate should be after endDate");
         }
@@ -94,24 +120,47 @@ public class Event {
     }
 
     public List<Event> newRecurringInstances(LocalDateTime fromDate, LocalDateTime toDate) {
+        return recurringInstances(fromDate, toDate).toList();
+    }
+
+    /**
+     * Lazily expands recurring instances in the given range, so callers can stop as soon as they have enough.
+     * Cancelled occurrences are skipped, moved and answered ones carry their overridden start, duration and status.
+     */
+    public Stream<Event> recurringInstances(LocalDateTime fromDate, LocalDateTime toDate) {
         if (!is(RECURRING)) {
             throw new IllegalStateException("Only from recurring event can create recurring instances");
         }
-        if (this.endDate.isBefore(fromDate) || this.startDate.isAfter(toDate)) {
-            return emptyList();
-        }
-        final var frequency = recurrence().frequency;
-        final var instances = new ArrayList<Event>();
-        var startDate = this.startDate;
-        while (startDate.compareTo(toDate) <= 0 && startDate.compareTo(this.endDate) <= 0) {
-            final var instanceStartDate = startDate;
-            final var instanceEndDate = startDate.plus(this.duration);
-            if ((instanceStartDate.isAfter(fromDate) && instanceStartDate.isBefore(toDate)) || (instanceEndDate.isAfter(fromDate) && instanceEndDate.isBefore(toDate))) {
-                instances.add(this.newRecurringInstance(instanceStartDate, instanceEndDate));
-            }
-            startDate = frequency.nextDate(startDate);
+        return recurrence().occurrences(this.startDate, this.duration, this.overrides, fromDate, toDate)
+                .map(this::newRecurringInstance);
+    }
+
+    /**
+     * Instance for the occurrence the override applies to.
+     */
+    public Event newRecurringInstance(OccurrenceOverride override) {
+        return newRecurringInstance(Occurrence.of(override, this.duration));
+    }
+
+    public Event withOverrides(List<OccurrenceOverride> overrides) {
+        return copy()
+                .overrides(overrides)
+                .build();
+    }
+
+    private Event newRecurringInstance(Occurrence occurrence) {
+        if (occurrence.override().isEmpty()) {
+            return newRecurringInstance(occurrence.startDate(), occurrence.endDate());
         }
-        return instances;
+        final var override = occurrence.override().get();
+        return copy()
+                .status(override.status().orElse(this.status))
+                .startDate(occurrence.startDate())
+                .endDate(occurrence.endDate())
+                .duration(occurrence.duration())
+                .overrides(List.of())
+                .originalStartDate(Optional.of(override.originalStartDate()))
+                .build();
     }
 
     public Event newRecurringInstance(LocalDateTime instanceStartDate, LocalDateTime instanceEndDate) {
@@ -121,6 +170,7 @@ public class Event {
         return copy()
                 .startDate(instanceStartDate)
                 .endDate(instanceEndDate)
+                .overrides(List.of())
                 .build();
     }
 
@@ -134,7 +184,10 @@ public class Event {
                 .endDate(this.endDate)
                 .duration(this.duration)
                 .type(this.type)
-                .recurrence(this.recurrence);
+                .recurrence(this.recurrence)
+                .timeZone(this.timeZone)
+                .overrides(this.overrides)
+                .originalStartDate(this.originalStartDate);
     }
 
     public static class Builder {
@@ -148,6 +201,9 @@ public class Event {
         private Duration duration;
         private EventType type;
         private Optional<Recurrence> recurrence = empty();
+        private Optional<ZoneId> timeZone = empty();
+        private List<OccurrenceOverride> overrides = List.of();
+        private Optional<LocalDateTime> originalStartDate = empty();
 
         private Builder() {
         }
@@ -201,6 +257,21 @@ public class Event {
             return recurrence(Optional.of(recurrence));
         }
 
+        public Builder timeZone(Optional<ZoneId> timeZone) {
+            this.timeZone = timeZone;
+            return this;
+        }
+
+        public Builder overrides(List<OccurrenceOverride> overrides) {
+            this.overrides = overrides;
+            return this;
+        }
+
+        public Builder originalStartDate(Optional<LocalDateTime> originalStartDate) {
+            this.originalStartDate = originalStartDate;
+            return this;
+        }
+
         public Event build() {
             return new Event(this);
         }
@@ -0,0 +1,23 @@
+package com.evgenykochergin.calendar.model.type;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * One occurrence of a recurring series with its override, if any, already applied to the start and duration.
+ */
+public record Occurrence(LocalDateTime startDate, Duration duration, Optional<OccurrenceOverride> override) {
+
+    public static Occurrence of(OccurrenceOverride override, Duration seriesDuration) {
+        return new Occurrence(
+                override.startDate().orElse(override.originalStartDate()),
+                override.duration().orElse(seriesDuration),
+                Optional.of(override)
+        );
+    }
+
+    public LocalDateTime endDate() {
+        return startDate.plus(duration);
+    }
+}
@@ -0,0 +1,57 @@
+package com.evgenykochergin.calendar.model.type;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+
+/**
+ * Exception to one occurrence of a recurring series, keyed by the start the occurrence has in the series.
+ * The occurrence is either cancelled, or takes the overridden start, duration and status in place of the series ones.
+ */
+public record OccurrenceOverride(LocalDateTime originalStartDate,
+                                 boolean cancelled,
+                                 Optional<LocalDateTime> startDate,
+                                 Optional<Duration> duration,
+                                 Optional<EventStatus> status) {
+
+    public OccurrenceOverride(LocalDateTime originalStartDate,
+                              boolean cancelled,
+                              Optional<LocalDateTime> startDate,
+                              Optional<Duration> duration,
+                              Optional<EventStatus> status) {
+        this.originalStartDate = requireNonNull(originalStartDate, "originalStartDate is required");
+        this.cancelled = cancelled;
+        this.startDate = requireNonNull(startDate, "startDate is required");
+        this.duration = requireNonNull(duration, "duration is required");
+        this.status = requireNonNull(status, "status is required");
+        if (duration.isPresent() && duration.get().isNegative()) {
+            throw new IllegalArgumentException("duration should be positive");
+        }
+    }
+
+    public static OccurrenceOverride of(LocalDateTime originalStartDate) {
+        return new OccurrenceOverride(originalStartDate, false, empty(), empty(), empty());
+    }
+
+    /**
+     * Whether the occurrence no longer takes place at its series start or for the series duration.
+     */
+    public boolean moves() {
+        return startDate.isPresent() || duration.isPresent();
+    }
+
+    public OccurrenceOverride cancel() {
+        return new OccurrenceOverride(originalStartDate, true, startDate, duration, status);
+    }
+
+    public OccurrenceOverride moveTo(LocalDateTime startDate, Duration duration) {
+        return new OccurrenceOverride(originalStartDate, cancelled, Optional.of(startDate), Optional.of(duration), status);
+    }
+
+    public OccurrenceOverride withStatus(EventStatus status) {
+        return new OccurrenceOverride(originalStartDate, cancelled, startDate, duration, Optional.of(status));
+    }
+}
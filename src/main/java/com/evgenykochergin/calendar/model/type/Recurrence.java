@@ -3,16 +3,291 @@ package com.evgenykochergin.calendar.model.type;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.Spliterator.IMMUTABLE;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Dates are UTC. Without a zone the series repeats in UTC, with a zone it repeats at the same wall-clock time of that
+ * zone, so its UTC start moves by an hour across daylight saving changes. The rule is compiled into a
+ * {@link RecurrencePlan} on first use and kept for the series start it was compiled for.
+ */
 public class Recurrence {
-    public final RecurrenceFrequency frequency;
+    /**
+     * Local time margin that covers any zone offset when a UTC range is widened to wall-clock time.
+     */
+    private static final Duration MAX_OFFSET = Duration.ofHours(18);
+    /**
+     * How far a COUNT is looked for when the series has no end date of its own.
+     */
+    private static final Period MAX_COUNT_SPAN = Period.ofYears(100);
+
+    public final RecurrenceRule rule;
     public final LocalDateTime endDate;
+    public final Optional<ZoneId> zone;
+
+    /**
+     * Null without a zone.
+     */
+    private final ZoneTransitions transitions;
+    private volatile CompiledPlan compiledPlan;
+
+    public Recurrence(RecurrenceFrequency frequency, LocalDateTime endDate) {
+        this(RecurrenceRule.of(frequency), endDate, empty());
+    }
 
+    public Recurrence(RecurrenceRule rule, LocalDateTime endDate, Optional<ZoneId> zone) {
+        this.rule = requireNonNull(rule, "rule is required");
+        this.endDate = requireNonNull(endDate, "endDate is required");
+        this.zone = requireNonNull(zone, "zone is required");
+        this.transitions = zone.map(ZoneTransitions::of).orElse(null);
+    }
+
+    /**
+     * Either a predefined frequency or a rule. The end date may be left out when the rule has a COUNT, it is computed
+     * when the event is created.
+     */
     @JsonCreator
-    public Recurrence(@JsonProperty("frequency") RecurrenceFrequency frequency,
-                      @JsonProperty("endDate") LocalDateTime endDate) {
-        this.frequency = frequency;
-        this.endDate = endDate;
+    public static Recurrence of(@JsonProperty("frequency") RecurrenceFrequency frequency,
+                                @JsonProperty("rule") String rule,
+                                @JsonProperty("endDate") LocalDateTime endDate) {
+        if ((frequency == null) == (rule == null)) {
+            throw new IllegalArgumentException("either frequency or rule is required");
+        }
+        final var recurrenceRule = frequency != null ? RecurrenceRule.of(frequency) : RecurrenceRule.parse(rule);
+        if (endDate == null && recurrenceRule.count().isEmpty()) {
+            throw new IllegalArgumentException("endDate is required without COUNT");
+        }
+        return new Recurrence(recurrenceRule, endDate == null ? LocalDateTime.MAX : endDate, empty());
+    }
+
+    /**
+     * The same recurrence ending at the last occurrence its COUNT allows, if that comes before the end date.
+     *
+     * @param seriesStartDate wall-clock start of the series, the end date is wall-clock time as well
+     */
+    public Recurrence withCountApplied(LocalDateTime seriesStartDate) {
+        if (rule.count().isEmpty()) {
+            return this;
+        }
+        final var plan = RecurrencePlan.compile(rule, seriesStartDate);
+        final var limitDate = endDate.equals(LocalDateTime.MAX) ? seriesStartDate.plus(MAX_COUNT_SPAN) : endDate;
+        final var cursor = plan.cursor(seriesStartDate.toLocalDate(), limitDate.toLocalDate());
+        var lastStartDate = seriesStartDate;
+        for (int occurrences = 0; occurrences < rule.count().get() && cursor.next(); occurrences++) {
+            final var startDate = plan.startDateOf(cursor.epochDay());
+            if (startDate.isAfter(limitDate)) {
+                break;
+            }
+            lastStartDate = startDate;
+        }
+        return new Recurrence(rule, lastStartDate, zone);
+    }
+
+    /**
+     * Lazily yields start dates of the occurrences of a series starting at seriesStartDate that overlap the given range.
+     * The plan jumps to the first day the range can start on, a zoned series is walked in wall-clock time of the zone
+     * and every start is converted to UTC through the cached transition table.
+     */
+    public Stream<LocalDateTime> startDates(LocalDateTime seriesStartDate,
+                                            Duration duration,
+                                            LocalDateTime fromDate,
+                                            LocalDateTime toDate) {
+        if (endDate.isBefore(fromDate) || seriesStartDate.isAfter(toDate)) {
+            return Stream.empty();
+        }
+        final var lastDate = toDate.isBefore(endDate) ? toDate : endDate;
+        final var margin = zone.isPresent() ? MAX_OFFSET : Duration.ZERO;
+        final var plan = plan(seriesStartDate);
+        final var cursor = plan.cursor(fromDate.minus(duration).minus(margin).toLocalDate(), lastDate.plus(margin).toLocalDate());
+        return StreamSupport.stream(new StartDateSpliterator(plan, cursor, transitions == null ? null : transitions.cursor()), false)
+                .takeWhile(startDate -> startDate.compareTo(lastDate) <= 0)
+                .filter(startDate -> within(startDate, duration, fromDate, toDate));
+    }
+
+    /**
+     * Start of the first occurrence of the series that is not before the given date, computed without expanding the
+     * series. May lie past the series end, {@link LocalDateTime#MAX} when the rule has no occurrence until the end.
+     */
+    public LocalDateTime firstStartAtOrAfter(LocalDateTime seriesStartDate, LocalDateTime date) {
+        if (!date.isAfter(seriesStartDate)) {
+            return seriesStartDate;
+        }
+        final var margin = zone.isPresent() ? MAX_OFFSET : Duration.ZERO;
+        final var limitDate = date.isAfter(endDate) ? date : endDate;
+        final var plan = plan(seriesStartDate);
+        final var cursor = plan.cursor(date.minus(margin).toLocalDate(), limitDate.plus(margin).plusDays(1).toLocalDate());
+        while (cursor.next()) {
+            final var localStartDate = plan.startDateOf(cursor.epochDay());
+            final var startDate = transitions == null ? localStartDate : transitions.toUtc(localStartDate);
+            if (!startDate.isBefore(date)) {
+                return startDate;
+            }
+        }
+        return LocalDateTime.MAX;
+    }
+
+    /**
+     * Lazily yields the occurrences overlapping the given range ordered by start, with the overrides applied.
+     * Generated start dates and overrides are both ordered by original start, so they are merged in one pass and an
+     * override matching a generated start cancels or annotates that occurrence. Moved occurrences are left out of
+     * that pass and merged back in by their new start, which also brings in occurrences moved into the range.
+     *
+     * @param overrides ordered by original start
+     */
+    public Stream<Occurrence> occurrences(LocalDateTime seriesStartDate,
+                                          Duration duration,
+                                          List<OccurrenceOverride> overrides,
+                                          LocalDateTime fromDate,
+                                          LocalDateTime toDate) {
+        final var startDates = startDates(seriesStartDate, duration, fromDate, toDate);
+        if (overrides.isEmpty()) {
+            return startDates.map(startDate -> new Occurrence(startDate, duration, empty()));
+        }
+        final var cursor = new OverrideCursor(overrides);
+        final var inPlace = startDates.<Occurrence>mapMulti((startDate, downstream) -> {
+            final var override = cursor.advanceTo(startDate);
+            if (override.isEmpty()) {
+                downstream.accept(new Occurrence(startDate, duration, empty()));
+            } else if (!override.get().cancelled() && !override.get().moves()) {
+                downstream.accept(new Occurrence(startDate, duration, override));
+            }
+        });
+        final var moved = overrides.stream()
+                .filter(override -> !override.cancelled() && override.moves())
+                .filter(override -> !override.originalStartDate().isBefore(seriesStartDate) && !override.originalStartDate().isAfter(endDate))
+                .map(override -> Occurrence.of(override, duration))
+                .filter(occurrence -> within(occurrence.startDate(), occurrence.duration(), fromDate, toDate))
+                .sorted(comparing(Occurrence::startDate))
+                .toList();
+        if (moved.isEmpty()) {
+            return inPlace;
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergingIterator(inPlace.iterator(), moved.iterator()), ORDERED), false);
+    }
+
+    /**
+     * Compiled once per series start, the same recurrence object lives as long as its event.
+     */
+    private RecurrencePlan plan(LocalDateTime seriesStartDate) {
+        final var compiled = compiledPlan;
+        if (compiled != null && compiled.seriesStartDate().equals(seriesStartDate)) {
+            return compiled.plan();
+        }
+        final var localStartDate = transitions == null ? seriesStartDate : transitions.toLocal(seriesStartDate);
+        final var plan = RecurrencePlan.compile(rule, localStartDate);
+        compiledPlan = new CompiledPlan(seriesStartDate, plan);
+        return plan;
+    }
+
+    private static boolean within(LocalDateTime startDate, Duration duration, LocalDateTime fromDate, LocalDateTime toDate) {
+        final var endDate = startDate.plus(duration);
+        return (startDate.isAfter(fromDate) && startDate.isBefore(toDate)) || (endDate.isAfter(fromDate) && endDate.isBefore(toDate));
+    }
+
+    private record CompiledPlan(LocalDateTime seriesStartDate, RecurrencePlan plan) {
+    }
+
+    private static final class StartDateSpliterator extends Spliterators.AbstractSpliterator<LocalDateTime> {
+
+        private final RecurrencePlan plan;
+        private final RecurrencePlan.Cursor cursor;
+        private final ZoneTransitions.Cursor transitions;
+
+        private StartDateSpliterator(RecurrencePlan plan, RecurrencePlan.Cursor cursor, ZoneTransitions.Cursor transitions) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL | IMMUTABLE);
+            this.plan = plan;
+            this.cursor = cursor;
+            this.transitions = transitions;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super LocalDateTime> action) {
+            if (!cursor.next()) {
+                return false;
+            }
+            final var epochDay = cursor.epochDay();
+            action.accept(transitions == null ? plan.startDateOf(epochDay) : transitions.toUtc(epochDay, plan.time()));
+            return true;
+        }
+    }
+
+    /**
+     * Walks the overrides forward only, every generated start date is looked up once and in order.
+     */
+    private static final class OverrideCursor {
+
+        private final List<OccurrenceOverride> overrides;
+        private int index;
+
+        private OverrideCursor(List<OccurrenceOverride> overrides) {
+            this.overrides = overrides;
+        }
+
+        private Optional<OccurrenceOverride> advanceTo(LocalDateTime originalStartDate) {
+            while (index < overrides.size() && overrides.get(index).originalStartDate().isBefore(originalStartDate)) {
+                index++;
+            }
+            if (index < overrides.size() && overrides.get(index).originalStartDate().equals(originalStartDate)) {
+                return Optional.of(overrides.get(index));
+            }
+            return empty();
+        }
+    }
+
+    private static final class MergingIterator implements Iterator<Occurrence> {
+
+        private final Iterator<Occurrence> first;
+        private final Iterator<Occurrence> second;
+        private Occurrence firstHead;
+        private Occurrence secondHead;
+
+        private MergingIterator(Iterator<Occurrence> first, Iterator<Occurrence> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (firstHead == null && first.hasNext()) {
+                firstHead = first.next();
+            }
+            if (secondHead == null && second.hasNext()) {
+                secondHead = second.next();
+            }
+            return firstHead != null || secondHead != null;
+        }
+
+        @Override
+        public Occurrence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Occurrence next;
+            if (secondHead == null || (firstHead != null && !secondHead.startDate().isBefore(firstHead.startDate()))) {
+                next = firstHead;
+                firstHead = null;
+            } else {
+                next = secondHead;
+                secondHead = null;
+            }
+            return next;
+        }
     }
 }
@@ -0,0 +1,225 @@
+package com.evgenykochergin.calendar.model.type;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+
+/**
+ * Immutable expansion plan of a {@link RecurrenceRule} anchored at the wall-clock start of a series. Occurrences
+ * share the time of day of the series start, so the plan works on epoch days only: the rule is reduced to a period
+ * (a day, a week starting on Monday, a month or a year) repeated every INTERVAL periods and to day masks tested within
+ * the period. A {@link Cursor} jumps arithmetically to the first period of a window and walks forward on primitive
+ * state. As in RFC 5545 the series start is always the first occurrence, even when the rule does not match it.
+ */
+public final class RecurrencePlan {
+
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final int ALL_DAYS = 0b111_1111;
+
+    private final RecurrenceRule rule;
+    private final LocalDateTime startDate;
+    private final LocalTime time;
+    private final long startEpochDay;
+    private final long startPeriod;
+    private final int startMonth;
+    private final int startDayOfMonth;
+    /**
+     * Bit per day of week, Monday is the lowest one.
+     */
+    private final int dayMask;
+    /**
+     * Bits 0-30 for month days 1..31, bits 32-62 for month days -1..-31.
+     */
+    private final long monthDayMask;
+
+    private RecurrencePlan(RecurrenceRule rule, LocalDateTime startDate) {
+        this.rule = rule;
+        this.startDate = startDate;
+        this.time = startDate.toLocalTime();
+        this.startEpochDay = startDate.toLocalDate().toEpochDay();
+        this.startPeriod = periodOf(rule.frequency(), startDate.toLocalDate());
+        this.startMonth = startDate.getMonthValue();
+        this.startDayOfMonth = startDate.getDayOfMonth();
+        this.dayMask = dayMaskOf(rule, startDate);
+        this.monthDayMask = rule.byMonthDay().stream()
+                .mapToLong(day -> 1L << (day > 0 ? day - 1 : 32 - day - 1))
+                .reduce(0L, (first, second) -> first | second);
+    }
+
+    /**
+     * @param startDate wall-clock start of the series
+     */
+    public static RecurrencePlan compile(RecurrenceRule rule, LocalDateTime startDate) {
+        return new RecurrencePlan(rule, startDate);
+    }
+
+    public boolean isFor(RecurrenceRule rule, LocalDateTime startDate) {
+        return this.rule.equals(rule) && this.startDate.equals(startDate);
+    }
+
+    /**
+     * Positions a cursor before the first occurrence on or after the from day, it stops after the limit day.
+     */
+    public Cursor cursor(LocalDate fromDate, LocalDate limitDate) {
+        return new Cursor(fromDate.toEpochDay(), limitDate.toEpochDay());
+    }
+
+    public LocalDateTime startDateOf(long epochDay) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(epochDay), time);
+    }
+
+    /**
+     * Wall-clock time of day of every occurrence.
+     */
+    public LocalTime time() {
+        return time;
+    }
+
+    public final class Cursor {
+
+        private final long limitEpochDay;
+        private boolean startPending;
+        private long period;
+        private long periodFirstDay;
+        private int periodLength;
+        /**
+         * Offset of the next candidate day within the period.
+         */
+        private int offset;
+        private long epochDay;
+
+        private Cursor(long fromEpochDay, long limitEpochDay) {
+            this.limitEpochDay = limitEpochDay;
+            if (fromEpochDay <= startEpochDay) {
+                startPending = true;
+                enter(startPeriod);
+                offset = (int) (startEpochDay - periodFirstDay) + 1;
+            } else {
+                final var fromPeriod = periodOf(rule.frequency(), LocalDate.ofEpochDay(fromEpochDay));
+                final var interval = rule.interval();
+                final var alignedPeriod = startPeriod + Math.ceilDiv(fromPeriod - startPeriod, interval) * interval;
+                enter(alignedPeriod);
+                offset = alignedPeriod == fromPeriod ? (int) Math.max(0, fromEpochDay - periodFirstDay) : 0;
+            }
+        }
+
+        /**
+         * Moves to the next occurrence, false once it would lie after the limit.
+         */
+        public boolean next() {
+            if (startPending) {
+                startPending = false;
+                epochDay = startEpochDay;
+                return epochDay <= limitEpochDay;
+            }
+            while (periodFirstDay <= limitEpochDay) {
+                while (offset < periodLength) {
+                    final var day = periodFirstDay + offset++;
+                    if (day > limitEpochDay) {
+                        return false;
+                    }
+                    if (matches(day, offset)) {
+                        epochDay = day;
+                        return true;
+                    }
+                }
+                enter(period + rule.interval());
+                offset = 0;
+            }
+            return false;
+        }
+
+        public long epochDay() {
+            return epochDay;
+        }
+
+        private void enter(long period) {
+            this.period = period;
+            switch (rule.frequency()) {
+                case DAILY -> {
+                    periodFirstDay = period;
+                    periodLength = 1;
+                }
+                case WEEKLY -> {
+                    periodFirstDay = period * 7 - 3;
+                    periodLength = 7;
+                }
+                case MONTHLY -> {
+                    final var year = floorDiv(period, 12);
+                    final var month = (int) floorMod(period, 12) + 1;
+                    periodFirstDay = epochDayOf(year, month, 1);
+                    periodLength = monthLength(year, month);
+                }
+                case YEARLY -> {
+                    periodFirstDay = epochDayOf(period, startMonth, Math.min(startDayOfMonth, monthLength(period, startMonth)));
+                    periodLength = 1;
+                }
+            }
+        }
+
+        /**
+         * @param dayOfPeriod one based, the day of month for monthly rules
+         */
+        private boolean matches(long day, int dayOfPeriod) {
+            if (day <= startEpochDay) {
+                return false;
+            }
+            final var dayOfWeekBit = 1 << floorMod(day + 3, 7);
+            return switch (rule.frequency()) {
+                case DAILY, WEEKLY -> (dayMask & dayOfWeekBit) != 0;
+                case MONTHLY -> (dayMask & dayOfWeekBit) != 0 && matchesMonthDay(dayOfPeriod, periodLength);
+                case YEARLY -> true;
+            };
+        }
+
+        private boolean matchesMonthDay(int dayOfMonth, int monthLength) {
+            if (monthDayMask == 0) {
+                return !rule.byDay().isEmpty() || dayOfMonth == Math.min(startDayOfMonth, monthLength);
+            }
+            return ((monthDayMask >>> (dayOfMonth - 1)) & 1) != 0 || ((monthDayMask >>> (32 + monthLength - dayOfMonth)) & 1) != 0;
+        }
+    }
+
+    /**
+     * Weekly rules without BYDAY repeat on the week day of the series start.
+     */
+    private static int dayMaskOf(RecurrenceRule rule, LocalDateTime startDate) {
+        if (rule.byDay().isEmpty()) {
+            return rule.frequency() == RecurrenceRule.Frequency.WEEKLY ? 1 << startDate.getDayOfWeek().ordinal() : ALL_DAYS;
+        }
+        return rule.byDay().stream()
+                .mapToInt(day -> 1 << day.ordinal())
+                .reduce(0, (first, second) -> first | second);
+    }
+
+    private static long periodOf(RecurrenceRule.Frequency frequency, LocalDate date) {
+        return switch (frequency) {
+            case DAILY -> date.toEpochDay();
+            case WEEKLY -> floorDiv(date.toEpochDay() + 3, 7);
+            case MONTHLY -> date.getYear() * 12L + date.getMonthValue() - 1;
+            case YEARLY -> date.getYear();
+        };
+    }
+
+    /**
+     * {@link LocalDate#toEpochDay()} without creating the date, years are not negative here.
+     */
+    private static long epochDayOf(long year, int month, int dayOfMonth) {
+        var total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367L * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total -= Year.isLeap(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private static int monthLength(long year, int month) {
+        return Month.of(month).length(Year.isLeap(year));
+    }
+}
@@ -0,0 +1,163 @@
+package com.evgenykochergin.calendar.model.type;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.time.DayOfWeek.*;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Subset of the iCalendar RRULE: FREQ, INTERVAL, BYDAY (plain week days), BYMONTHDAY and COUNT, e.g.
+ * {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE}. BYDAY expands weekly and monthly rules and filters daily ones,
+ * BYMONTHDAY is accepted for monthly rules only. The end of a series is its end date, COUNT is turned into one when
+ * the event is created. Rules are parsed once per distinct text, stored rows repeat a handful of them.
+ */
+public record RecurrenceRule(Frequency frequency,
+                             int interval,
+                             Set<DayOfWeek> byDay,
+                             List<Integer> byMonthDay,
+                             Optional<Integer> count) {
+
+    /**
+     * Keeps the pattern lengths of the overlap test and the jumps of the expansion plan far from overflow.
+     */
+    public static final int MAX_INTERVAL = 1_000;
+    private static final int MAX_PARSED = 10_000;
+    private static final Map<String, RecurrenceRule> PARSED = new ConcurrentHashMap<>();
+    private static final List<String> DAY_CODES = List.of("MO", "TU", "WE", "TH", "FR", "SA", "SU");
+    private static final Map<RecurrenceRule, RecurrenceFrequency> SIMPLE_FREQUENCIES = Arrays.stream(RecurrenceFrequency.values())
+            .collect(toMap(RecurrenceRule::of, identity()));
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+
+    public RecurrenceRule(Frequency frequency,
+                          int interval,
+                          Set<DayOfWeek> byDay,
+                          List<Integer> byMonthDay,
+                          Optional<Integer> count) {
+        this.frequency = requireNonNull(frequency, "frequency is required");
+        this.interval = interval;
+        this.byDay = Set.copyOf(requireNonNull(byDay, "byDay is required"));
+        this.byMonthDay = requireNonNull(byMonthDay, "byMonthDay is required").stream().distinct().sorted().toList();
+        this.count = requireNonNull(count, "count is required");
+
+        if (interval < 1 || interval > MAX_INTERVAL) {
+            throw new IllegalArgumentException(format("INTERVAL should be within 1..%s", MAX_INTERVAL));
+        }
+        if (count.isPresent() && count.get() < 1) {
+            throw new IllegalArgumentException("COUNT should be positive");
+        }
+        if (this.byMonthDay.stream().anyMatch(day -> day == 0 || day < -31 || day > 31)) {
+            throw new IllegalArgumentException("BYMONTHDAY should be within 1..31 or -31..-1");
+        }
+        if (!this.byMonthDay.isEmpty() && frequency != Frequency.MONTHLY) {
+            throw new IllegalArgumentException("BYMONTHDAY is supported for FREQ=MONTHLY only");
+        }
+        if (!this.byDay.isEmpty() && frequency == Frequency.YEARLY) {
+            throw new IllegalArgumentException("BYDAY is not supported for FREQ=YEARLY");
+        }
+    }
+
+    public static RecurrenceRule of(RecurrenceFrequency frequency) {
+        return switch (frequency) {
+            case DAILY -> new RecurrenceRule(Frequency.DAILY, 1, Set.of(), List.of(), empty());
+            case WEEKLY -> new RecurrenceRule(Frequency.WEEKLY, 1, Set.of(), List.of(), empty());
+            case MONTHLY -> new RecurrenceRule(Frequency.MONTHLY, 1, Set.of(), List.of(), empty());
+            case ANNUALLY -> new RecurrenceRule(Frequency.YEARLY, 1, Set.of(), List.of(), empty());
+            case EVERY_WEEKDAY -> new RecurrenceRule(Frequency.WEEKLY, 1, EnumSet.range(MONDAY, FRIDAY), List.of(), empty());
+        };
+    }
+
+    /**
+     * Accepts the rule with or without the {@code RRULE:} prefix, parts may come in any order.
+     */
+    public static RecurrenceRule parse(String text) {
+        final var parsed = PARSED.get(text);
+        if (parsed != null) {
+            return parsed;
+        }
+        final var rule = doParse(text);
+        if (PARSED.size() < MAX_PARSED) {
+            PARSED.put(text, rule);
+        }
+        return rule;
+    }
+
+    /**
+     * The predefined frequency this rule is equivalent to, if any.
+     */
+    public Optional<RecurrenceFrequency> simpleFrequency() {
+        return Optional.ofNullable(SIMPLE_FREQUENCIES.get(this));
+    }
+
+    @Override
+    public String toString() {
+        final var parts = new ArrayList<String>();
+        parts.add("FREQ=" + frequency);
+        if (interval != 1) {
+            parts.add("INTERVAL=" + interval);
+        }
+        if (!byDay.isEmpty()) {
+            parts.add("BYDAY=" + EnumSet.copyOf(byDay).stream().map(day -> DAY_CODES.get(day.ordinal())).collect(joining(",")));
+        }
+        if (!byMonthDay.isEmpty()) {
+            parts.add("BYMONTHDAY=" + byMonthDay.stream().map(String::valueOf).collect(joining(",")));
+        }
+        count.ifPresent(value -> parts.add("COUNT=" + value));
+        return String.join(";", parts);
+    }
+
+    private static RecurrenceRule doParse(String text) {
+        final var rule = text.startsWith("RRULE:") ? text.substring("RRULE:".length()) : text;
+        Frequency frequency = null;
+        var interval = 1;
+        Set<DayOfWeek> byDay = Set.of();
+        List<Integer> byMonthDay = List.of();
+        Optional<Integer> count = empty();
+        for (final var part : rule.split(";")) {
+            final var separator = part.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException(format("Malformed recurrence rule part %s", part));
+            }
+            final var value = part.substring(separator + 1);
+            switch (part.substring(0, separator)) {
+                case "FREQ" -> frequency = Frequency.valueOf(value);
+                case "INTERVAL" -> interval = Integer.parseInt(value);
+                case "BYDAY" -> byDay = parseDays(value);
+                case "BYMONTHDAY" -> byMonthDay = Arrays.stream(value.split(",")).map(Integer::valueOf).toList();
+                case "COUNT" -> count = Optional.of(Integer.valueOf(value));
+                default -> throw new IllegalArgumentException(format("Unsupported recurrence rule part %s", part));
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("FREQ is required");
+        }
+        return new RecurrenceRule(frequency, interval, byDay, byMonthDay, count);
+    }
+
+    private static Set<DayOfWeek> parseDays(String value) {
+        final var days = EnumSet.noneOf(DayOfWeek.class);
+        for (final var code : value.split(",")) {
+            final var index = DAY_CODES.indexOf(code);
+            if (index < 0) {
+                throw new IllegalArgumentException(format("Unsupported BYDAY value %s", code));
+            }
+            days.add(DayOfWeek.of(index + 1));
+        }
+        return days;
+    }
+}
@@ -0,0 +1,150 @@
+package com.evgenykochergin.calendar.model.type;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Converts wall-clock times of a zone to UTC with precomputed offset transition tables, one per zone and year, so
+ * expanding a zoned series does not consult {@link ZoneRules} per occurrence. A year rarely has more than two
+ * transitions, a lookup is a hash probe for the year and a short scan. A {@link Cursor} keeps the span of the offset
+ * it used last, so an expansion only looks up a table when it crosses a transition or a new year. Gaps and overlaps resolve the way
+ * {@link java.time.ZonedDateTime#of(LocalDateTime, ZoneId)} does: a time in a gap is pushed forward by the length of
+ * the gap, a time in an overlap takes the earlier offset.
+ */
+public final class ZoneTransitions {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final Map<ZoneId, ZoneTransitions> CACHE = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    private final Map<Integer, YearTable> tables = new ConcurrentHashMap<>();
+
+    private ZoneTransitions(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public static ZoneTransitions of(ZoneId zone) {
+        return CACHE.computeIfAbsent(zone, ZoneTransitions::new);
+    }
+
+    public LocalDateTime toUtc(LocalDateTime localDateTime) {
+        final var localSecond = localDateTime.toEpochSecond(UTC);
+        final var utcSecond = tables.computeIfAbsent(localDateTime.getYear(), this::table).toUtcSecond(localSecond);
+        return LocalDateTime.ofEpochSecond(utcSecond, localDateTime.getNano(), UTC);
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Used once per series for its start, not per occurrence.
+     */
+    public LocalDateTime toLocal(LocalDateTime utcDateTime) {
+        return utcDateTime.atOffset(UTC).atZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    /**
+     * Transitions between a day before and a day after the local year, enough for any offset.
+     */
+    private YearTable table(int year) {
+        final var rules = zone.getRules();
+        final var from = LocalDate.of(year, 1, 1).minusDays(1).atStartOfDay().toInstant(UTC);
+        final var to = LocalDate.of(year + 1, 1, 1).plusDays(1).atStartOfDay().toInstant(UTC);
+        final var boundaries = new ArrayList<Long>();
+        final var offsets = new ArrayList<Integer>();
+        offsets.add(rules.getOffset(from).getTotalSeconds());
+        var transition = rules.nextTransition(from);
+        while (transition != null && transition.getInstant().isBefore(to)) {
+            final var offsetBefore = transition.getOffsetBefore().getTotalSeconds();
+            final var offsetAfter = transition.getOffsetAfter().getTotalSeconds();
+            boundaries.add(transition.getInstant().getEpochSecond() + Math.max(offsetBefore, offsetAfter));
+            offsets.add(offsetAfter);
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        return new YearTable(
+                LocalDate.of(year, 1, 1).toEpochDay() * SECONDS_PER_DAY,
+                LocalDate.of(year + 1, 1, 1).toEpochDay() * SECONDS_PER_DAY,
+                boundaries.stream().mapToLong(Long::longValue).toArray(),
+                offsets.stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+
+    /**
+     * Converter for the start dates of one expansion, not thread-safe. It keeps the span of local time the last offset
+     * applies to, and within a span the UTC time of day and the day shift of the given time of day stay the same.
+     * Occurrences share their time of day, so most conversions are a range check and an epoch day addition.
+     */
+    public final class Cursor {
+
+        private long spanStartSecond = Long.MAX_VALUE;
+        private long spanEndSecond = Long.MIN_VALUE;
+        private int offset;
+        private LocalTime localTime;
+        private LocalTime utcTime;
+        private long dayShift;
+
+        private Cursor() {
+        }
+
+        /**
+         * Same as {@link #toUtc(LocalDateTime)} for the given day at the given time, without building the local date.
+         */
+        public LocalDateTime toUtc(long epochDay, LocalTime time) {
+            final var localSecond = epochDay * SECONDS_PER_DAY + time.toSecondOfDay();
+            if (localSecond < spanStartSecond || localSecond >= spanEndSecond) {
+                enterSpan(epochDay, localSecond);
+                localTime = null;
+            }
+            if (!time.equals(localTime)) {
+                final var utcSecondOfDay = time.toSecondOfDay() - offset;
+                localTime = time;
+                dayShift = floorDiv(utcSecondOfDay, SECONDS_PER_DAY);
+                utcTime = LocalTime.ofSecondOfDay(floorMod(utcSecondOfDay, SECONDS_PER_DAY)).withNano(time.getNano());
+            }
+            return LocalDateTime.of(LocalDate.ofEpochDay(epochDay + dayShift), utcTime);
+        }
+
+        /**
+         * Spans are cut at the bounds of the year, the table of a year only covers it.
+         */
+        private void enterSpan(long epochDay, long localSecond) {
+            final var table = tables.computeIfAbsent(LocalDate.ofEpochDay(epochDay).getYear(), ZoneTransitions.this::table);
+            final var span = table.spanOf(localSecond);
+            spanStartSecond = span == 0 ? table.yearStartSecond() : Math.max(table.yearStartSecond(), table.boundaries()[span - 1]);
+            spanEndSecond = span == table.boundaries().length ? table.yearEndSecond() : Math.min(table.yearEndSecond(), table.boundaries()[span]);
+            offset = table.offsets()[span];
+        }
+    }
+
+    /**
+     * @param boundaries local seconds from which the next offset applies, a transition moves the local time by its
+     *                   offset change and its boundary lies at the later of the two local times, so a time in a gap
+     *                   keeps the earlier offset and is pushed forward, a time in an overlap keeps the earlier offset
+     * @param offsets    one more than boundaries, the first applies before the first boundary
+     */
+    private record YearTable(long yearStartSecond, long yearEndSecond, long[] boundaries, int[] offsets) {
+
+        int spanOf(long localSecond) {
+            var span = 0;
+            while (span < boundaries.length && localSecond >= boundaries[span]) {
+                span++;
+            }
+            return span;
+        }
+
+        long toUtcSecond(long localSecond) {
+            return localSecond - offsets[spanOf(localSecond)];
+        }
+    }
+}
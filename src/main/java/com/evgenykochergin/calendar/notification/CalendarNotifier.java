@@ -0,0 +1,31 @@
+package com.evgenykochergin.calendar.notification;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.EventDetails;
+import com.evgenykochergin.calendar.service.EventListener;
+
+import static com.evgenykochergin.calendar.json.NotificationSerializer.statusChangeJson;
+
+/**
+ * Pushes RSVP changes to organizers. Invitations are recorded in the outbox by the event service and reach
+ * attendees through {@link OutboxNotificationSink}. Payloads carry ids and timing only, details are fetched through
+ * the regular endpoints so that visibility rules still apply.
+ */
+public class CalendarNotifier implements EventListener {
+
+    public static final String INVITATION = "invitation";
+    public static final String STATUS_CHANGE = "status-change";
+
+    private final NotificationHub hub;
+
+    public CalendarNotifier(NotificationHub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void onEventStatusChanged(EventDetails eventDetails, Event event) {
+        if (!eventDetails.organizedBy(event.userId)) {
+            hub.publish(eventDetails.organizerId, new Notification(STATUS_CHANGE, statusChangeJson(eventDetails, event).toString()));
+        }
+    }
+}
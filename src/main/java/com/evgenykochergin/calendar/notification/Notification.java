@@ -0,0 +1,14 @@
+package com.evgenykochergin.calendar.notification;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Named server-sent event with an already serialized payload, so fan-out to many subscribers serializes once.
+ */
+public record Notification(String type, String data) {
+
+    public Notification(String type, String data) {
+        this.type = requireNonNull(type, "type is required");
+        this.data = requireNonNull(data, "data is required");
+    }
+}
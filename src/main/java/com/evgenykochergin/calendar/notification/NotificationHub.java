@@ -0,0 +1,126 @@
+package com.evgenykochergin.calendar.notification;
+
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+import com.evgenykochergin.calendar.error.OverloadedException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process publish/subscribe hub keyed by user id. An idle subscriber costs one small queue and no thread:
+ * notifications are buffered per subscriber and written by a shared executor, one drain at a time per subscriber.
+ * A subscriber whose buffer overflows is considered too slow and is disconnected instead of slowing down publishers.
+ */
+public class NotificationHub {
+
+    private final Map<UUID, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final BoundedExecutor dispatcher;
+    private final int bufferSize;
+    private final LongAdder slowConsumerCount = new LongAdder();
+
+    public NotificationHub(BoundedExecutor dispatcher, int bufferSize) {
+        this.dispatcher = dispatcher;
+        this.bufferSize = bufferSize;
+    }
+
+    public Subscription subscribe(UUID userId, NotificationSink sink) {
+        final var subscription = new Subscription(userId, sink);
+        subscriptions.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return subscription;
+    }
+
+    public void publish(UUID userId, Notification notification) {
+        final var userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.forEach(subscription -> subscription.offer(notification));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public int subscriberCount(UUID userId) {
+        final var userSubscriptions = subscriptions.get(userId);
+        return userSubscriptions == null ? 0 : userSubscriptions.size();
+    }
+
+    public long slowConsumerCount() {
+        return slowConsumerCount.sum();
+    }
+
+    public class Subscription {
+        private final UUID userId;
+        private final NotificationSink sink;
+        private final ArrayBlockingQueue<Notification> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(UUID userId, NotificationSink sink) {
+            this.userId = userId;
+            this.sink = sink;
+        }
+
+        /**
+         * Removes the subscription, the sink is expected to be closed already.
+         */
+        public void cancel() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.computeIfPresent(userId, (key, userSubscriptions) -> {
+                    userSubscriptions.remove(this);
+                    return userSubscriptions.isEmpty() ? null : userSubscriptions;
+                });
+            }
+        }
+
+        private void offer(Notification notification) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(notification)) {
+                disconnectSlowConsumer();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (OverloadedException e) {
+                    draining.set(false);
+                    disconnectSlowConsumer();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Notification notification;
+                while (!closed.get() && (notification = buffer.poll()) != null) {
+                    sink.send(notification);
+                }
+            } catch (RuntimeException e) {
+                cancel();
+                sink.close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void disconnectSlowConsumer() {
+            slowConsumerCount.increment();
+            cancel();
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.evgenykochergin.calendar.notification;
+
+/**
+ * Connection of a single subscriber, e.g. an SSE client.
+ */
+public interface NotificationSink {
+
+    void send(Notification notification);
+
+    void close();
+}
@@ -0,0 +1,24 @@
+package com.evgenykochergin.calendar.notification;
+
+import com.evgenykochergin.calendar.outbox.OutboxMessage;
+import com.evgenykochergin.calendar.outbox.OutboxSink;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes outbox messages to the streams of their recipient, one notification per message.
+ */
+public class OutboxNotificationSink implements OutboxSink {
+
+    private final NotificationHub hub;
+
+    public OutboxNotificationSink(NotificationHub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void deliver(UUID recipientId, List<OutboxMessage> messages) {
+        messages.forEach(message -> hub.publish(recipientId, new Notification(message.type(), message.payload())));
+    }
+}
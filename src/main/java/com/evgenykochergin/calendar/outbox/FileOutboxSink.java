@@ -0,0 +1,34 @@
+package com.evgenykochergin.calendar.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.json.OutboxSerializer.deliveryJson;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Appends every delivery as a JSON line to a local file.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+
+    public FileOutboxSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void deliver(UUID recipientId, List<OutboxMessage> messages) {
+        try {
+            Files.writeString(file, deliveryJson(recipientId, messages).toString() + "\n", UTF_8, CREATE, APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.evgenykochergin.calendar.outbox;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps every delivery in memory, meant for tests and local runs.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final Map<UUID, List<List<OutboxMessage>>> deliveries = new ConcurrentHashMap<>();
+
+    @Override
+    public void deliver(UUID recipientId, List<OutboxMessage> messages) {
+        deliveries.computeIfAbsent(recipientId, ignored -> new CopyOnWriteArrayList<>()).add(List.copyOf(messages));
+    }
+
+    public List<List<OutboxMessage>> deliveries(UUID recipientId) {
+        return List.copyOf(deliveries.getOrDefault(recipientId, List.of()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.evgenykochergin.calendar.outbox;
+
+import org.jooq.DSLContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.evgenykochergin.calendar.db.tables.Outbox.OUTBOX;
+
+public class Outbox {
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    private Outbox() {
+    }
+
+    /**
+     * Records the entries with multi-row inserts, meant to be called inside the transaction of the change.
+     *
+     * @return ids of the recorded rows
+     */
+    public static List<Long> enqueue(DSLContext tx, List<OutboxEntry> entries) {
+        final var createdAt = LocalDateTime.now();
+        final var ids = new ArrayList<Long>(entries.size());
+        for (int from = 0; from < entries.size(); from += MAX_ROWS_PER_INSERT) {
+            var insert = tx.insertInto(OUTBOX, OUTBOX.RECIPIENT_ID, OUTBOX.TYPE, OUTBOX.PAYLOAD, OUTBOX.CREATED_AT);
+            for (final var entry : entries.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, entries.size()))) {
+                insert = insert.values(entry.recipientId(), entry.type(), entry.payload(), createdAt);
+            }
+            ids.addAll(insert.returning(OUTBOX.ID).fetch().getValues(OUTBOX.ID));
+        }
+        return ids;
+    }
+}
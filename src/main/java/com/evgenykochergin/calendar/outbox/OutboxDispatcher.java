@@ -0,0 +1,188 @@
+package com.evgenykochergin.calendar.outbox;
+
+import com.evgenykochergin.calendar.database.Shards;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.evgenykochergin.calendar.db.tables.Outbox.OUTBOX;
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jooq.impl.DSL.select;
+
+/**
+ * Polls the outbox of every shard and hands the messages to a sink. Rows are claimed in batches by stamping them
+ * with a claim id, a row is claimable while it has no claim or its claim is older than the lease, so several
+ * dispatchers can poll the same database without delivering a row twice in the normal case, and rows of a crashed
+ * dispatcher are picked up once its lease expires. Messages of a batch are grouped per recipient and delivered
+ * together, delivered rows are deleted, rows of failed deliveries are released for the next poll.
+ */
+public class OutboxDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final Shards shards;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final Duration lease;
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder deliveryCount = new LongAdder();
+    private final LongAdder failedDeliveryCount = new LongAdder();
+    private final AtomicLong averageLagMillisBits = new AtomicLong(doubleToLongBits(0));
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        final var thread = new Thread(task, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxDispatcher(Shards shards, OutboxSink sink, int batchSize, Duration lease) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize should be positive");
+        }
+        this.shards = shards;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.lease = lease;
+    }
+
+    public void start(Duration pollInterval) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                dispatch();
+            } catch (RuntimeException e) {
+                LOGGER.error("Outbox dispatch failed", e);
+            }
+        }, pollInterval.toMillis(), pollInterval.toMillis(), MILLISECONDS);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Drains the outbox of every shard batch by batch, until a batch comes back incomplete or a delivery fails.
+     *
+     * @return number of delivered messages
+     */
+    public int dispatch() {
+        var delivered = 0;
+        for (final var db : shards.all()) {
+            List<OutboxMessage> batch;
+            int batchDelivered;
+            do {
+                batch = claim(db);
+                batchDelivered = deliver(db, batch);
+                delivered += batchDelivered;
+            } while (batch.size() == batchSize && batchDelivered == batchSize);
+        }
+        return delivered;
+    }
+
+    public long pendingCount() {
+        return shards.scatter(db -> List.of(db.fetchCount(OUTBOX)))
+                .stream()
+                .mapToLong(Integer::longValue)
+                .sum();
+    }
+
+    public long dispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    public long deliveryCount() {
+        return deliveryCount.sum();
+    }
+
+    public long failedDeliveryCount() {
+        return failedDeliveryCount.sum();
+    }
+
+    /**
+     * Exponentially weighted time between recording a message and handing it to the sink.
+     */
+    public double averageLagMillis() {
+        return longBitsToDouble(averageLagMillisBits.get());
+    }
+
+    private List<OutboxMessage> claim(DSLContext db) {
+        final var claimId = randomUUID().toString();
+        final var now = LocalDateTime.now();
+        db.update(OUTBOX)
+                .set(OUTBOX.CLAIMED_BY, claimId)
+                .set(OUTBOX.CLAIMED_AT, now)
+                .where(OUTBOX.ID.in(select(OUTBOX.ID)
+                                .from(OUTBOX)
+                                .where(claimable(now))
+                                .orderBy(OUTBOX.ID)
+                                .limit(batchSize))
+                        .and(claimable(now)))
+                .execute();
+        return db.selectFrom(OUTBOX)
+                .where(OUTBOX.CLAIMED_BY.eq(claimId))
+                .orderBy(OUTBOX.ID)
+                .fetch(record -> new OutboxMessage(
+                        record.getId(),
+                        record.getRecipientId(),
+                        record.getType(),
+                        record.getPayload(),
+                        record.getCreatedAt()
+                ));
+    }
+
+    private int deliver(DSLContext db, List<OutboxMessage> batch) {
+        final var messagesByRecipient = new LinkedHashMap<UUID, List<OutboxMessage>>();
+        batch.forEach(message -> messagesByRecipient.computeIfAbsent(message.recipientId(), ignored -> new ArrayList<>()).add(message));
+        final var deliveredIds = new ArrayList<Long>();
+        final var failedIds = new ArrayList<Long>();
+        messagesByRecipient.forEach((recipientId, messages) -> {
+            final var ids = messages.stream().map(OutboxMessage::id).toList();
+            try {
+                sink.deliver(recipientId, messages);
+                deliveredIds.addAll(ids);
+                deliveryCount.increment();
+                final var now = LocalDateTime.now();
+                messages.forEach(message -> recordLag(Duration.between(message.createdAt(), now).toMillis()));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Outbox delivery to {} failed, {} messages will be retried", recipientId, messages.size(), e);
+                failedIds.addAll(ids);
+                failedDeliveryCount.increment();
+            }
+        });
+        if (!deliveredIds.isEmpty()) {
+            db.deleteFrom(OUTBOX).where(OUTBOX.ID.in(deliveredIds)).execute();
+            dispatchedCount.add(deliveredIds.size());
+        }
+        if (!failedIds.isEmpty()) {
+            db.update(OUTBOX)
+                    .set(OUTBOX.CLAIMED_BY, (String) null)
+                    .set(OUTBOX.CLAIMED_AT, (LocalDateTime) null)
+                    .where(OUTBOX.ID.in(failedIds))
+                    .execute();
+        }
+        return deliveredIds.size();
+    }
+
+    private Condition claimable(LocalDateTime now) {
+        return OUTBOX.CLAIMED_BY.isNull().or(OUTBOX.CLAIMED_AT.lt(now.minus(lease)));
+    }
+
+    private void recordLag(long lagMillis) {
+        averageLagMillisBits.accumulateAndGet(
+                doubleToLongBits(lagMillis),
+                (average, sample) -> doubleToLongBits(0.9 * longBitsToDouble(average) + 0.1 * longBitsToDouble(sample))
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.evgenykochergin.calendar.outbox;
+
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Notification to be recorded in the outbox together with the change it is about.
+ */
+public record OutboxEntry(UUID recipientId, String type, String payload) {
+    public OutboxEntry(UUID recipientId, String type, String payload) {
+        this.recipientId = requireNonNull(recipientId, "recipientId is required");
+        this.type = requireNonNull(type, "type is required");
+        this.payload = requireNonNull(payload, "payload is required");
+    }
+}
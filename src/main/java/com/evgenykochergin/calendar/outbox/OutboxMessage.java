@@ -0,0 +1,10 @@
+package com.evgenykochergin.calendar.outbox;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox row claimed for delivery.
+ */
+public record OutboxMessage(long id, UUID recipientId, String type, String payload, LocalDateTime createdAt) {
+}
@@ -0,0 +1,21 @@
+package com.evgenykochergin.calendar.outbox;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Delivers outbox messages, e.g. to connected clients, a mail gateway or a file. Messages of one recipient are
+ * handed over together and in the order they were recorded. A delivery that throws is retried later, so sinks
+ * should tolerate duplicates.
+ */
+public interface OutboxSink {
+
+    void deliver(UUID recipientId, List<OutboxMessage> messages);
+
+    default OutboxSink andThen(OutboxSink next) {
+        return (recipientId, messages) -> {
+            deliver(recipientId, messages);
+            next.deliver(recipientId, messages);
+        };
+    }
+}
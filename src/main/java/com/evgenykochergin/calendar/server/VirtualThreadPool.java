@@ -0,0 +1,74 @@
+package com.evgenykochergin.calendar.server;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Jetty thread pool that runs every task, request handling included, on its own virtual thread. The server starts
+ * and stops it as a bean, every start gets a new executor, so the pool can be restarted with the server.
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    private volatile ExecutorService executorService;
+
+    @Override
+    protected void doStart() {
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Running tasks get a few seconds to finish, then they are interrupted.
+     */
+    @Override
+    protected void doStop() throws InterruptedException {
+        final var executor = executorService;
+        executor.shutdown();
+        if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns once the pool is stopped and its tasks are over, right away when it was never started.
+     */
+    @Override
+    public void join() throws InterruptedException {
+        final var executor = executorService;
+        if (executor != null) {
+            executor.awaitTermination(Long.MAX_VALUE, NANOSECONDS);
+        }
+    }
+
+    @Override
+    public int getThreads() {
+        return 1;
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 1;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        final var executor = executorService;
+        if (executor == null) {
+            throw new RejectedExecutionException("Thread pool is not started");
+        }
+        executor.execute(command);
+    }
+}
@@ -0,0 +1,107 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.mergedTimeSlots;
+import static java.time.Duration.between;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Number of free users in every fixed size bucket of a range, e.g. every 30 minutes of a week for a few hundred users.
+ * A user is free in a bucket when none of their busy time slots overlaps it. Each busy time slot adds one at its first
+ * bucket and subtracts one past its last bucket of a difference array, a prefix sum then gives the busy users of every
+ * bucket, so the work is linear in busy time slots plus buckets. Users are split into chunks which are expanded on the
+ * given executor in parallel, their difference arrays are added up at the end.
+ */
+public class AvailabilityHeatmap {
+
+    public static final int MAX_BUCKETS = 10_000;
+    private static final int USERS_PER_CHUNK = 32;
+
+    /**
+     * @param freeCounts free users per bucket, the last bucket is cut short when the range is not a multiple of it
+     */
+    public record Heatmap(LocalDateTime fromDate, Duration bucket, int users, int[] freeCounts) {
+    }
+
+    private AvailabilityHeatmap() {
+    }
+
+    public static long bucketCountOf(LocalDateTime fromDate, LocalDateTime toDate, Duration bucket) {
+        return Math.ceilDiv(between(fromDate, toDate).toSeconds(), bucket.toSeconds());
+    }
+
+    public static CompletableFuture<Heatmap> heatmapOf(Collection<UUID> userIds,
+                                                       List<EventTiming> eventTimings,
+                                                       LocalDateTime fromDate,
+                                                       LocalDateTime toDate,
+                                                       Duration bucket,
+                                                       BoundedExecutor executor) {
+        final var uniqueUserIds = List.copyOf(new LinkedHashSet<>(userIds));
+        final var eventTimingsByUserId = eventTimings.stream().collect(groupingBy(EventTiming::userId));
+        final var bucketCount = (int) bucketCountOf(fromDate, toDate, bucket);
+        final var chunks = new ArrayList<CompletableFuture<int[]>>();
+        for (var index = 0; index < uniqueUserIds.size(); index += USERS_PER_CHUNK) {
+            final var chunkUserIds = uniqueUserIds.subList(index, Math.min(index + USERS_PER_CHUNK, uniqueUserIds.size()));
+            chunks.add(executor.supply(() -> busyDifferences(chunkUserIds, eventTimingsByUserId, fromDate, toDate, bucket, bucketCount)));
+        }
+        return allOf(chunks.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            final var differences = new int[bucketCount + 1];
+            for (final var chunk : chunks) {
+                final var chunkDifferences = chunk.join();
+                for (var index = 0; index < bucketCount; index++) {
+                    differences[index] += chunkDifferences[index];
+                }
+            }
+            final var freeCounts = new int[bucketCount];
+            var busyUsers = 0;
+            for (var index = 0; index < bucketCount; index++) {
+                busyUsers += differences[index];
+                freeCounts[index] = uniqueUserIds.size() - busyUsers;
+            }
+            return new Heatmap(fromDate, bucket, uniqueUserIds.size(), freeCounts);
+        });
+    }
+
+    /**
+     * Difference array of the busy users of a chunk. Busy time slots of a user are merged and never mark a bucket
+     * twice, even when two of them share it.
+     */
+    private static int[] busyDifferences(List<UUID> userIds,
+                                         Map<UUID, List<EventTiming>> eventTimingsByUserId,
+                                         LocalDateTime fromDate,
+                                         LocalDateTime toDate,
+                                         Duration bucket,
+                                         int bucketCount) {
+        final var differences = new int[bucketCount + 1];
+        final var bucketSeconds = bucket.toSeconds();
+        for (final var userId : userIds) {
+            final var busyTimeSlots = mergedTimeSlots(eventTimingsByUserId.getOrDefault(userId, List.of())
+                    .stream()
+                    .flatMap(eventTiming -> eventTiming.timeSlots(fromDate, toDate))
+                    .toList());
+            var nextBucket = 0;
+            for (final var busyTimeSlot : busyTimeSlots) {
+                final var firstBucket = Math.max(nextBucket, (int) (between(fromDate, busyTimeSlot.startDate()).toSeconds() / bucketSeconds));
+                final var endBucket = (int) Math.ceilDiv(between(fromDate, busyTimeSlot.endDate()).toSeconds(), bucketSeconds);
+                if (firstBucket < endBucket) {
+                    differences[firstBucket]++;
+                    differences[endBucket]--;
+                    nextBucket = endBucket;
+                }
+            }
+        }
+        return differences;
+    }
+}
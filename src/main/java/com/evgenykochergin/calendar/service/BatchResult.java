@@ -0,0 +1,32 @@
+package com.evgenykochergin.calendar.service;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+
+/**
+ * Outcome of a single item of a batch request, either a value or the reason the item was rejected.
+ */
+public record BatchResult<T>(Optional<T> value, Optional<String> error) {
+
+    public BatchResult(Optional<T> value, Optional<String> error) {
+        this.value = requireNonNull(value, "value is required");
+        this.error = requireNonNull(error, "error is required");
+        if (value.isPresent() == error.isPresent()) {
+            throw new IllegalArgumentException("exactly one of value and error should be present");
+        }
+    }
+
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(Optional.of(value), empty());
+    }
+
+    public static <T> BatchResult<T> failure(String error) {
+        return new BatchResult<>(empty(), Optional.of(error));
+    }
+
+    public boolean isSuccess() {
+        return value.isPresent();
+    }
+}
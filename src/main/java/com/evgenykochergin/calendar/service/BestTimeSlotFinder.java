@@ -0,0 +1,167 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.service.FreeTimeSlotFinder.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.busyTimeSlots;
+import static java.util.Comparator.comparing;
+import static java.util.Optional.empty;
+
+/**
+ * Finds the time slots where every required user is free and as many optional users as possible are free. Every
+ * busy time slot [start, end) of a user forbids meetings starting within (start - duration, end), these open intervals
+ * are merged per user and weighted: an optional user weighs one, a required user more than all optional users
+ * together. One sweep over the sorted interval bounds then tracks the blocked weight of every start date, so the search
+ * is O(n log n) in the number of busy time slots.
+ */
+public class BestTimeSlotFinder {
+
+    public static final int MAX_TIME_SLOTS = 10;
+
+    /**
+     * @param timeSlots earliest first, a meeting of the requested duration fits anywhere within every one of them
+     */
+    public record BestTimeSlots(int freeOptionalUsers, int optionalUsers, List<TimeSlot> timeSlots) {
+    }
+
+    private record Bound(LocalDateTime date, long weight) {
+    }
+
+    /**
+     * Closed range of start dates.
+     */
+    private record StartRange(LocalDateTime earliest, LocalDateTime latest) {
+    }
+
+    private BestTimeSlotFinder() {
+    }
+
+    public static Optional<BestTimeSlots> bestTimeSlotsOf(Collection<UUID> requiredUserIds,
+                                                          Collection<UUID> optionalUserIds,
+                                                          List<EventTiming> eventTimings,
+                                                          Duration duration,
+                                                          LocalDateTime fromDate,
+                                                          LocalDateTime toDate) {
+        final var latestStartDate = toDate.minus(duration);
+        if (latestStartDate.isBefore(fromDate)) {
+            return empty();
+        }
+        final var required = new LinkedHashSet<>(requiredUserIds);
+        final var optional = new LinkedHashSet<>(optionalUserIds);
+        optional.removeAll(required);
+        final var userIds = new LinkedHashSet<>(required);
+        userIds.addAll(optional);
+        final long requiredWeight = optional.size() + 1;
+
+        final var bounds = new ArrayList<Bound>();
+        busyTimeSlots(userIds, eventTimings, fromDate, toDate).forEach((userId, busyTimeSlots) -> {
+            final var weight = required.contains(userId) ? requiredWeight : 1;
+            for (final var forbidden : forbiddenStarts(busyTimeSlots, duration)) {
+                bounds.add(new Bound(forbidden.startDate(), weight));
+                bounds.add(new Bound(forbidden.endDate(), -weight));
+            }
+        });
+        bounds.sort(comparing(Bound::date).thenComparing(bound -> bound.weight() > 0));
+
+        final var sweep = new Sweep(fromDate, latestStartDate, duration, requiredWeight);
+        var blocked = 0L;
+        var previousDate = fromDate;
+        var index = 0;
+        while (index < bounds.size()) {
+            final var date = bounds.get(index).date();
+            sweep.consider(previousDate, date, blocked);
+            while (index < bounds.size() && bounds.get(index).date().equals(date) && bounds.get(index).weight() < 0) {
+                blocked += bounds.get(index++).weight();
+            }
+            sweep.consider(date, date, blocked);
+            while (index < bounds.size() && bounds.get(index).date().equals(date)) {
+                blocked += bounds.get(index++).weight();
+            }
+            previousDate = date;
+        }
+        sweep.consider(previousDate, latestStartDate, blocked);
+        return sweep.result(optional.size());
+    }
+
+    /**
+     * Open intervals of start dates that collide with the busy time slots, which are sorted and merged. Intervals that
+     * only touch are kept apart, their common bound is a valid start.
+     */
+    private static List<TimeSlot> forbiddenStarts(List<TimeSlot> busyTimeSlots, Duration duration) {
+        final var forbiddenStarts = new ArrayList<TimeSlot>();
+        for (final var busyTimeSlot : busyTimeSlots) {
+            final var startDate = busyTimeSlot.startDate().minus(duration);
+            final var lastIndex = forbiddenStarts.size() - 1;
+            if (lastIndex >= 0 && startDate.isBefore(forbiddenStarts.get(lastIndex).endDate())) {
+                forbiddenStarts.set(lastIndex, new TimeSlot(forbiddenStarts.get(lastIndex).startDate(), busyTimeSlot.endDate()));
+            } else {
+                forbiddenStarts.add(new TimeSlot(startDate, busyTimeSlot.endDate()));
+            }
+        }
+        return forbiddenStarts;
+    }
+
+    /**
+     * Collects the start date ranges with the least blocked weight. The sweep offers every bound as a point and every
+     * open range between two bounds by its closure: a bound is never blocked more than the range next to it, because
+     * the intervals are open, so the closure is as good as the range.
+     */
+    private static final class Sweep {
+
+        private final LocalDateTime earliestStartDate;
+        private final LocalDateTime latestStartDate;
+        private final Duration duration;
+        private final long requiredWeight;
+        private final List<StartRange> ranges = new ArrayList<>();
+        private long best = Long.MAX_VALUE;
+
+        private Sweep(LocalDateTime earliestStartDate, LocalDateTime latestStartDate, Duration duration, long requiredWeight) {
+            this.earliestStartDate = earliestStartDate;
+            this.latestStartDate = latestStartDate;
+            this.duration = duration;
+            this.requiredWeight = requiredWeight;
+        }
+
+        private void consider(LocalDateTime fromDate, LocalDateTime toDate, long blocked) {
+            final var startDate = fromDate.isBefore(earliestStartDate) ? earliestStartDate : fromDate;
+            final var endDate = toDate.isAfter(latestStartDate) ? latestStartDate : toDate;
+            if (startDate.isAfter(endDate) || blocked >= requiredWeight || blocked > best) {
+                return;
+            }
+            if (blocked < best) {
+                best = blocked;
+                ranges.clear();
+            }
+            final var lastIndex = ranges.size() - 1;
+            if (lastIndex >= 0 && !ranges.get(lastIndex).latest().isBefore(startDate)) {
+                if (endDate.isAfter(ranges.get(lastIndex).latest())) {
+                    ranges.set(lastIndex, new StartRange(ranges.get(lastIndex).earliest(), endDate));
+                }
+            } else {
+                ranges.add(new StartRange(startDate, endDate));
+            }
+        }
+
+        private Optional<BestTimeSlots> result(int optionalUsers) {
+            if (ranges.isEmpty()) {
+                return empty();
+            }
+            return Optional.of(new BestTimeSlots(
+                    (int) (optionalUsers - best),
+                    optionalUsers,
+                    ranges.stream()
+                            .limit(MAX_TIME_SLOTS)
+                            .map(range -> new TimeSlot(range.earliest(), range.latest().plus(duration)))
+                            .toList()
+            ));
+        }
+    }
+}
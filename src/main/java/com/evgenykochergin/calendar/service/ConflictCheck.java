@@ -0,0 +1,19 @@
+package com.evgenykochergin.calendar.service;
+
+/**
+ * What to do when a new event overlaps events the organizer or attendees already have.
+ */
+public enum ConflictCheck {
+    /**
+     * Conflicts are not looked for.
+     */
+    NONE,
+    /**
+     * The event is created and the conflicts are reported.
+     */
+    WARN,
+    /**
+     * The event is not created when there is any conflict.
+     */
+    REJECT
+}
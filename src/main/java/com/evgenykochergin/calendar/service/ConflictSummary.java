@@ -0,0 +1,16 @@
+package com.evgenykochergin.calendar.service;
+
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Events of a user that overlap an event being created. Declined events are not counted as conflicts.
+ */
+public record ConflictSummary(UUID userId, List<UUID> eventIds) {
+    public ConflictSummary(UUID userId, List<UUID> eventIds) {
+        this.userId = requireNonNull(userId, "userId is required");
+        this.eventIds = List.copyOf(requireNonNull(eventIds, "eventIds is required"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.error.ValidationException;
+import com.evgenykochergin.calendar.model.Event;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Position of the last returned event in a page ordered by (startDate, eventId).
+ * Clients get it as an opaque string and pass it back to fetch the next page.
+ */
+public record EventCursor(LocalDateTime startDate, UUID eventId) {
+
+    private static final String SEPARATOR = "|";
+
+    public EventCursor(LocalDateTime startDate, UUID eventId) {
+        this.startDate = requireNonNull(startDate, "startDate is required");
+        this.eventId = requireNonNull(eventId, "eventId is required");
+    }
+
+    public static EventCursor cursorOf(Event event) {
+        return new EventCursor(event.startDate, event.id);
+    }
+
+    public static EventCursor decode(String value) {
+        try {
+            final var decoded = new String(Base64.getUrlDecoder().decode(value), UTF_8);
+            final var separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return new EventCursor(
+                    LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    UUID.fromString(decoded.substring(separatorIndex + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((startDate + SEPARATOR + eventId).getBytes(UTF_8));
+    }
+
+    public boolean isBefore(Event event) {
+        final var compare = startDate.compareTo(event.startDate);
+        return compare < 0 || (compare == 0 && eventId.compareTo(event.id) < 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.error.ValidationException;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Sparse fieldset of an event response, e.g. {@code fields=startDate,endDate,details.name}.
+ * Requesting {@code details} selects all detail fields, the service layer skips the queries for fields nobody asked for.
+ */
+public class EventFields {
+
+    private static final String DETAILS = "details";
+    private static final String DETAILS_PREFIX = DETAILS + ".";
+    private static final Set<String> KNOWN_FIELDS = Set.of(
+            "id",
+            "startDate",
+            "endDate",
+            "duration",
+            "type",
+            "recurrence",
+            "originalStartDate",
+            "timeZone",
+            DETAILS,
+            "details.name",
+            "details.organizerId",
+            "details.visibility",
+            "details.description",
+            "details.attendees"
+    );
+
+    public static final EventFields ALL = new EventFields(KNOWN_FIELDS);
+
+    private final Set<String> fields;
+
+    private EventFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static EventFields parse(@Nullable String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        final var fields = Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(toSet());
+        fields.stream()
+                .filter(field -> !KNOWN_FIELDS.contains(field))
+                .findFirst()
+                .ifPresent(field -> {
+                    throw new ValidationException(format("Unknown field %s", field));
+                });
+        return new EventFields(fields);
+    }
+
+    public boolean includes(String field) {
+        if (fields.contains(field)) {
+            return true;
+        }
+        return field.startsWith(DETAILS_PREFIX) && fields.contains(DETAILS);
+    }
+
+    public boolean includesDetails() {
+        return fields.stream().anyMatch(field -> field.equals(DETAILS) || field.startsWith(DETAILS_PREFIX));
+    }
+
+    public boolean includesAttendees() {
+        return includes("details.attendees");
+    }
+}
@@ -0,0 +1,29 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.EventDetails;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
+
+import java.util.List;
+
+/**
+ * Callbacks fired by {@link EventService} after the transaction of a mutation has committed.
+ */
+public interface EventListener {
+
+    /**
+     * @param events events of the organizer and of every attendee
+     */
+    default void onEventCreated(EventDetails eventDetails, List<Event> events) {
+    }
+
+    default void onEventStatusChanged(EventDetails eventDetails, Event event) {
+    }
+
+    /**
+     * @param event    recurring series the occurrence belongs to
+     * @param override new state of the override, it replaces any previous one for the same original start
+     */
+    default void onOccurrenceOverridden(Event event, OccurrenceOverride override) {
+    }
+}
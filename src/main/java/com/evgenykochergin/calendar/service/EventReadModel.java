@@ -0,0 +1,280 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.database.Shards;
+import com.evgenykochergin.calendar.journal.ChangeLog;
+import com.evgenykochergin.calendar.journal.SnapshotStore;
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.EventDetails;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
+import com.evgenykochergin.calendar.service.mapper.EventMapper;
+import com.evgenykochergin.calendar.service.mapper.OccurrenceOverrideMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import static com.evgenykochergin.calendar.db.tables.Event.EVENT;
+import static com.evgenykochergin.calendar.db.tables.EventException.EVENT_EXCEPTION;
+import static java.util.Comparator.comparing;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Optional in-memory read model of event timing. It is loaded once at startup and kept current by write-through
+ * from {@link EventService}, so user event and free/busy lookups never reach the database.
+ * <p>
+ * With a journal directory every change is also appended to a binary {@link ChangeLog} and the state is periodically
+ * written as a snapshot, so startup reads the newest snapshot and replays only the log tail instead of scanning tables.
+ * Occurrence overrides are not journaled, they are few and always read from the database at startup.
+ */
+public class EventReadModel implements EventListener {
+
+    private final Map<UUID, UserTimeline> timelines = new ConcurrentHashMap<>();
+    private final Map<UUID, List<OccurrenceOverride>> overridesByEventId = new ConcurrentHashMap<>();
+    /**
+     * Without a {@link RecurrenceCache}, a loaded recurrence lives as long as the timeline holding its event.
+     */
+    private final EventMapper eventMapper = new EventMapper();
+    private final OccurrenceOverrideMapper occurrenceOverrideMapper = new OccurrenceOverrideMapper();
+    private final LongAdder repairedUserCount = new LongAdder();
+    private final Optional<Path> journalDirectory;
+    /**
+     * Guards the change log, appends and snapshots agree on which sequence the in-memory state corresponds to. Held
+     * across file writes, so it is not a monitor, which would pin the carrier of a virtual thread.
+     */
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private ChangeLog changeLog;
+
+    public EventReadModel() {
+        this(Optional.empty());
+    }
+
+    public EventReadModel(Optional<Path> journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    public void load(Shards shards) {
+        timelines.clear();
+        loadOverrides(shards);
+        if (journalDirectory.isEmpty()) {
+            loadFrom(shards);
+            return;
+        }
+        final var directory = journalDirectory.get();
+        final var snapshot = new SnapshotStore(directory).loadNewest();
+        final long lastSequence;
+        if (snapshot.isPresent()) {
+            snapshot.get().events()
+                    .stream()
+                    .collect(groupingBy(event -> event.userId))
+                    .forEach((userId, events) -> timelines.put(userId, UserTimeline.of(events)));
+            lastSequence = ChangeLog.replay(directory, snapshot.get().sequence(), this::applyInMemory);
+        } else {
+            loadFrom(shards);
+            lastSequence = ChangeLog.replay(directory, 0, event -> {
+            });
+        }
+        journalLock.lock();
+        try {
+            changeLog = new ChangeLog(directory, lastSequence);
+        } finally {
+            journalLock.unlock();
+        }
+        if (snapshot.isEmpty()) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Writes the current state as a snapshot and drops the change log segments it covers once the snapshot is
+     * in place. Only the copy of the per-user snapshot references happens under the journal lock, encoding and
+     * writing do not block writers.
+     */
+    public void snapshot() {
+        if (journalDirectory.isEmpty()) {
+            return;
+        }
+        final long sequence;
+        final List<UserTimeline> state;
+        journalLock.lock();
+        try {
+            sequence = changeLog.lastSequence();
+            state = List.copyOf(timelines.values());
+            changeLog.rotate();
+        } finally {
+            journalLock.unlock();
+        }
+        new SnapshotStore(journalDirectory.get()).write(sequence, state.stream().flatMap(UserTimeline::all).toList());
+        journalLock.lock();
+        try {
+            changeLog.truncate(sequence);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Events of the user overlapping the range with recurring series expanded, ordered by start.
+     */
+    public List<Event> userEvents(UUID userId, LocalDateTime fromDate, LocalDateTime toDate) {
+        return timeline(userId).events(fromDate, toDate)
+                .flatMap(event -> event.recurrence.isPresent() ? withOverrides(event).recurringInstances(fromDate, toDate) : Stream.of(event))
+                .sorted(comparing((Event event) -> event.startDate).thenComparing(event -> event.id))
+                .toList();
+    }
+
+    public List<EventTiming> eventTimings(Collection<UUID> userIds, LocalDateTime fromDate, LocalDateTime toDate) {
+        return new LinkedHashSet<>(userIds).stream()
+                .flatMap(userId -> timeline(userId).events(fromDate, toDate))
+                .map(event -> new EventTiming(event.userId, event.startDate, event.duration, event.recurrence, overridesByEventId.getOrDefault(event.id, List.of())))
+                .toList();
+    }
+
+    @Override
+    public void onEventCreated(EventDetails eventDetails, List<Event> events) {
+        events.forEach(this::apply);
+    }
+
+    @Override
+    public void onEventStatusChanged(EventDetails eventDetails, Event event) {
+        apply(event);
+    }
+
+    @Override
+    public void onOccurrenceOverridden(Event event, OccurrenceOverride override) {
+        overridesByEventId.compute(event.id, (eventId, overrides) -> {
+            final var updated = new ArrayList<OccurrenceOverride>();
+            if (overrides != null) {
+                overrides.stream()
+                        .filter(existing -> !existing.originalStartDate().equals(override.originalStartDate()))
+                        .forEach(updated::add);
+            }
+            updated.add(override);
+            return List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Compares the model with the database and reloads users that differ. A user is reloaded only when the
+     * difference is still there on a second, per-user read, so writes racing with the check are not reported.
+     * Occurrence overrides are reloaded as a whole. The change log only knows upserts and can't express a repair, so
+     * with a journal a snapshot is written right after repairing. Should the process die in between, the replayed
+     * state lacks the repair until the next check.
+     *
+     * @return ids of the repaired users
+     */
+    public Set<UUID> verify(Shards shards) {
+        final var eventsByUserId = shards.scatter(db -> db.selectFrom(EVENT).fetch(eventMapper))
+                .stream()
+                .collect(groupingBy(event -> event.userId));
+        final var userIds = new HashSet<UUID>(eventsByUserId.keySet());
+        userIds.addAll(timelines.keySet());
+        final var repairedUserIds = new HashSet<UUID>();
+        for (final var userId : userIds) {
+            if (matches(userId, eventsByUserId.getOrDefault(userId, List.of()))) {
+                continue;
+            }
+            final var events = shards.forUser(userId).selectFrom(EVENT).where(EVENT.USER_ID.eq(userId)).fetch(eventMapper);
+            if (!matches(userId, events)) {
+                journalLock.lock();
+                try {
+                    timelines.put(userId, UserTimeline.of(events));
+                } finally {
+                    journalLock.unlock();
+                }
+                repairedUserIds.add(userId);
+            }
+        }
+        repairedUserCount.add(repairedUserIds.size());
+        loadOverrides(shards);
+        if (!repairedUserIds.isEmpty()) {
+            snapshot();
+        }
+        return repairedUserIds;
+    }
+
+    public int userCount() {
+        return timelines.size();
+    }
+
+    public long repairedUserCount() {
+        return repairedUserCount.sum();
+    }
+
+    private void apply(Event event) {
+        if (journalDirectory.isEmpty()) {
+            applyInMemory(event);
+            return;
+        }
+        journalLock.lock();
+        try {
+            if (changeLog != null) {
+                changeLog.append(event);
+            }
+            applyInMemory(event);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void applyInMemory(Event event) {
+        timelines.compute(event.userId, (userId, timeline) -> (timeline == null ? UserTimeline.EMPTY : timeline).with(event));
+    }
+
+    private void loadFrom(Shards shards) {
+        shards.scatter(db -> db.selectFrom(EVENT).fetch(eventMapper))
+                .stream()
+                .collect(groupingBy(event -> event.userId))
+                .forEach((userId, events) -> timelines.put(userId, UserTimeline.of(events)));
+    }
+
+    private void loadOverrides(Shards shards) {
+        final var overrides = shards.scatter(db -> db.selectFrom(EVENT_EXCEPTION).fetch())
+                .stream()
+                .collect(groupingBy(record -> record.getEventId(), mapping(occurrenceOverrideMapper::map, toList())));
+        overridesByEventId.keySet().retainAll(overrides.keySet());
+        overridesByEventId.putAll(overrides);
+    }
+
+    private Event withOverrides(Event event) {
+        final var overrides = overridesByEventId.get(event.id);
+        return overrides == null ? event : event.withOverrides(overrides);
+    }
+
+    private UserTimeline timeline(UUID userId) {
+        return timelines.getOrDefault(userId, UserTimeline.EMPTY);
+    }
+
+    private boolean matches(UUID userId, List<Event> expectedEvents) {
+        final var actual = timeline(userId).all().collect(toMap(event -> event.id, identity()));
+        if (actual.size() != expectedEvents.size()) {
+            return false;
+        }
+        return expectedEvents.stream().allMatch(expected -> {
+            final var event = actual.get(expected.id);
+            return event != null
+                    && event.status == expected.status
+                    && event.type == expected.type
+                    && event.startDate.equals(expected.startDate)
+                    && event.endDate.equals(expected.endDate)
+                    && event.duration.equals(expected.duration)
+                    && Objects.equals(event.eventDetailsId, expected.eventDetailsId);
+        });
+    }
+}
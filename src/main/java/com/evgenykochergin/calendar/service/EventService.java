@@ -1,40 +1,84 @@
 package com.evgenykochergin.calendar.service;
 
+import com.evgenykochergin.calendar.concurrent.StripedLocks;
+import com.evgenykochergin.calendar.database.Shards;
+import com.evgenykochergin.calendar.db.tables.records.EventDetailsRecord;
+import com.evgenykochergin.calendar.db.tables.records.EventExceptionRecord;
+import com.evgenykochergin.calendar.db.tables.records.EventRecord;
 import com.evgenykochergin.calendar.error.*;
 import com.evgenykochergin.calendar.model.Event;
 import com.evgenykochergin.calendar.model.EventDetails;
 import com.evgenykochergin.calendar.model.type.EventDetailsVisibility;
+import com.evgenykochergin.calendar.model.type.EventStatus;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
 import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.model.type.RecurrenceRule;
 import com.evgenykochergin.calendar.model.type.UserEventStatus;
+import com.evgenykochergin.calendar.model.type.ZoneTransitions;
+import com.evgenykochergin.calendar.outbox.OutboxEntry;
 import com.evgenykochergin.calendar.service.FreeTimeSlotFinder.TimeSlot;
 import com.evgenykochergin.calendar.service.mapper.EventDetailsMapper;
 import com.evgenykochergin.calendar.service.mapper.EventMapper;
+import com.evgenykochergin.calendar.service.mapper.OccurrenceOverrideMapper;
 import com.evgenykochergin.calendar.service.unmapper.EventDetailsUnmapper;
 import com.evgenykochergin.calendar.service.unmapper.EventUnmapper;
+import com.evgenykochergin.calendar.service.unmapper.OccurrenceOverrideUnmapper;
+import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SelectField;
+import org.jooq.Table;
+import org.jooq.TableRecord;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import static com.evgenykochergin.calendar.db.tables.Event.EVENT;
 import static com.evgenykochergin.calendar.db.tables.EventDetails.EVENT_DETAILS;
+import static com.evgenykochergin.calendar.db.tables.EventException.EVENT_EXCEPTION;
+import static com.evgenykochergin.calendar.db.tables.Outbox.OUTBOX;
+import static com.evgenykochergin.calendar.json.NotificationSerializer.invitationJson;
 import static com.evgenykochergin.calendar.model.Event.event;
 import static com.evgenykochergin.calendar.model.EventDetails.eventDetails;
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PRIVATE;
 import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.model.type.EventStatus.DECLINED;
 import static com.evgenykochergin.calendar.model.type.EventStatus.PENDING;
 import static com.evgenykochergin.calendar.model.type.EventType.RECURRING;
 import static com.evgenykochergin.calendar.model.type.EventType.SINGLE;
-import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.freeTimeSlot;
+import static com.evgenykochergin.calendar.notification.CalendarNotifier.INVITATION;
+import static com.evgenykochergin.calendar.outbox.Outbox.enqueue;
+import static com.evgenykochergin.calendar.service.EventCursor.cursorOf;
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.busyTimeSlots;
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.freeTimeSlotOf;
+import static java.time.Duration.ofMinutes;
 import static java.lang.String.format;
 import static java.time.temporal.ChronoUnit.DAYS;
 import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
+import static java.util.Optional.ofNullable;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toConcurrentMap;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Stream.concat;
+import static org.jooq.DatePart.MINUTE;
+import static org.jooq.impl.DSL.coalesce;
+import static org.jooq.impl.DSL.localDateTimeAdd;
+import static org.jooq.impl.DSL.noCondition;
 
 public class EventService {
     public static class CreateEventParams {
@@ -46,6 +90,11 @@ public class EventService {
         public final EventDetailsVisibility visibility;
         public final Optional<String> description;
         public final Optional<Recurrence> recurrence;
+        public final ConflictCheck conflictCheck;
+        /**
+         * Zone of the wall-clock start and recurrence end, without it they are UTC.
+         */
+        public final Optional<ZoneId> timeZone;
 
         private CreateEventParams(Builder builder) {
             this.organizerId = requireNonNull(builder.organizerId, "organizerId is required");
@@ -56,6 +105,8 @@ public class EventService {
             this.visibility = requireNonNull(builder.visibility, "visibility is required");
             this.description = requireNonNull(builder.description, "description is required");
             this.recurrence = requireNonNull(builder.recurrence, "recurrence is required");
+            this.conflictCheck = requireNonNull(builder.conflictCheck, "conflictCheck is required");
+            this.timeZone = requireNonNull(builder.timeZone, "timeZone is required");
         }
 
         public static Builder createEventParams() {
@@ -71,6 +122,8 @@ public class EventService {
             private EventDetailsVisibility visibility;
             private Optional<String> description = empty();
             private Optional<Recurrence> recurrence = empty();
+            private ConflictCheck conflictCheck = ConflictCheck.NONE;
+            private Optional<ZoneId> timeZone = empty();
 
             private Builder() {
             }
@@ -123,33 +176,119 @@ public class EventService {
                 return recurrence(Optional.of(recurrence));
             }
 
+            public Builder conflictCheck(ConflictCheck conflictCheck) {
+                this.conflictCheck = conflictCheck;
+                return this;
+            }
+
+            public Builder timeZone(Optional<ZoneId> timeZone) {
+                this.timeZone = timeZone;
+                return this;
+            }
+
+            public Builder timeZone(ZoneId timeZone) {
+                return timeZone(Optional.of(timeZone));
+            }
+
             public CreateEventParams build() {
                 return new CreateEventParams(this);
             }
         }
     }
 
+    public record RsvpParams(UUID eventId, EventStatus status) {
+        public RsvpParams(UUID eventId, EventStatus status) {
+            this.eventId = requireNonNull(eventId, "eventId is required");
+            this.status = requireNonNull(status, "status is required");
+            if (status == PENDING) {
+                throw new IllegalArgumentException("status should be ACCEPTED or DECLINED");
+            }
+        }
+    }
+
+    public record EventPage(List<Event> events, Optional<EventCursor> nextCursor) {
+    }
+
+    /**
+     * @param conflicts per-user conflicts, empty when nothing overlaps or conflicts were not checked
+     */
+    public record CreatedEvent(Event event, List<ConflictSummary> conflicts) {
+    }
+
+    private record StoredTiming(UUID eventId, EventTiming timing) {
+    }
+
     private static final int MAX_USER_EVENTS_PERIOD_IN_DAYS = 365;
-    private final DSLContext db;
+    private static final int MAX_USER_EVENTS_PAGE_SIZE = 1000;
+    private static final int MAX_ROWS_PER_INSERT = 500;
+    private static final int MAX_AGENDA_USERS = 100;
+    private static final int USER_LOCK_STRIPES = 1024;
+    private static final int MAX_CACHED_RECURRENCES = 100_000;
+    private static final Comparator<Event> EVENT_ORDER = comparing((Event event) -> event.startDate).thenComparing(event -> event.id);
+    private final Shards shards;
     private final UserService userService;
     private final EventDetailsMapper eventDetailsMapper;
     private final EventDetailsUnmapper eventDetailsUnmapper;
+    private final RecurrenceCache recurrences;
     private final EventMapper eventMapper;
     private final EventUnmapper eventUnmapper;
+    private final OccurrenceOverrideMapper occurrenceOverrideMapper;
+    private final OccurrenceOverrideUnmapper occurrenceOverrideUnmapper;
+    private final ForkJoinPool agendaPool;
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private final Optional<EventReadModel> readModel;
+    /**
+     * Orders mutations of the same calendar: the transaction and the listener callbacks of one mutation run under
+     * the locks of every user it touches, so listeners observe changes in commit order.
+     */
+    private final StripedLocks userLocks = new StripedLocks(USER_LOCK_STRIPES);
 
     public EventService(DSLContext db, UserService userService) {
-        this.db = db;
+        this(Shards.single(db), userService, empty());
+    }
+
+    /**
+     * @param shards    events of every user are kept in the shard of that user, event details in the shard of the organizer,
+     *                  closed together with the service
+     * @param readModel when present, unpaged user events and event timings are served from it
+     */
+    public EventService(Shards shards, UserService userService, Optional<EventReadModel> readModel) {
+        this.shards = shards;
         this.userService = userService;
         this.eventDetailsMapper = new EventDetailsMapper();
         this.eventDetailsUnmapper = new EventDetailsUnmapper();
-        this.eventMapper = new EventMapper();
+        this.recurrences = new RecurrenceCache(MAX_CACHED_RECURRENCES);
+        this.eventMapper = new EventMapper(Optional.of(recurrences));
         this.eventUnmapper = new EventUnmapper();
+        this.occurrenceOverrideMapper = new OccurrenceOverrideMapper();
+        this.occurrenceOverrideUnmapper = new OccurrenceOverrideUnmapper();
+        this.agendaPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.readModel = readModel;
+        readModel.ifPresent(listeners::add);
+    }
+
+    public void addListener(EventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(EventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops the agenda pool and the threads of the shards, the service can't be used afterwards.
+     */
+    public void close() {
+        agendaPool.shutdown();
+        shards.close();
     }
 
     public Optional<Event> findEventById(UUID eventId) {
-        return db.selectFrom(EVENT)
-                .where(EVENT.ID.eq(eventId))
-                .fetchOptional(eventMapper);
+        return shards.scatter(db -> db.selectFrom(EVENT)
+                        .where(EVENT.ID.eq(eventId))
+                        .fetch(eventMapper))
+                .stream()
+                .findFirst();
     }
 
     public Event getEventById(UUID eventId) {
@@ -157,9 +296,11 @@ public class EventService {
     }
 
     public Optional<EventDetails> findEventDetailsById(UUID id) {
-        return db.selectFrom(EVENT_DETAILS)
-                .where(EVENT_DETAILS.ID.eq(id))
-                .fetchOptional(eventDetailsMapper);
+        return shards.scatter(db -> db.selectFrom(EVENT_DETAILS)
+                        .where(EVENT_DETAILS.ID.eq(id))
+                        .fetch(eventDetailsMapper))
+                .stream()
+                .findFirst();
     }
 
     public EventDetails getEventDetailsById(UUID id) {
@@ -167,22 +308,80 @@ public class EventService {
     }
 
     public Collection<UserEventStatus> getUserEventStatusesByEventDetailsId(UUID eventDetailsId) {
-        return db.selectFrom(EVENT)
-                .where(EVENT.EVENT_DETAILS_ID.in(eventDetailsId))
-                .fetch(eventMapper)
+        return shards.scatter(db -> db.selectFrom(EVENT)
+                        .where(EVENT.EVENT_DETAILS_ID.in(eventDetailsId))
+                        .fetch(eventMapper))
                 .stream()
                 .map(event -> new UserEventStatus(event.userId, event.status))
                 .collect(toList());
     }
 
+    public List<EventView> getEventViews(Collection<Event> events, UUID viewerId) {
+        return getEventViews(events, viewerId, EventFields.ALL);
+    }
+
+    /**
+     * Resolves details and attendees for the given events with at most two queries in total, hiding private
+     * details from users that neither organize nor attend the event. Queries for fields that were not requested are
+     * skipped: without details nothing is loaded, without attendees only the viewer's own participation is checked.
+     */
+    public List<EventView> getEventViews(Collection<Event> events, UUID viewerId, EventFields fields) {
+        if (events.isEmpty() || !fields.includesDetails()) {
+            return events.stream()
+                    .map(event -> new EventView(event, empty(), List.of()))
+                    .toList();
+        }
+        final var eventDetailsIds = events.stream().map(event -> event.eventDetailsId).collect(toSet());
+        final var eventDetailsById = loadEventDetails(eventDetailsIds);
+        final Map<UUID, List<UserEventStatus>> userEventStatusesByEventDetailsId;
+        final Set<UUID> attendedEventDetailsIds;
+        if (fields.includesAttendees()) {
+            userEventStatusesByEventDetailsId = shards.scatter(db -> db.selectFrom(EVENT)
+                            .where(EVENT.EVENT_DETAILS_ID.in(eventDetailsIds))
+                            .fetch(eventMapper))
+                    .stream()
+                    .collect(groupingBy(event -> event.eventDetailsId, mapping(event -> new UserEventStatus(event.userId, event.status), toList())));
+            attendedEventDetailsIds = userEventStatusesByEventDetailsId.entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue().stream().anyMatch(userEventStatus -> userEventStatus.userId.equals(viewerId)))
+                    .map(Map.Entry::getKey)
+                    .collect(toSet());
+        } else {
+            userEventStatusesByEventDetailsId = Map.of();
+            attendedEventDetailsIds = attendedEventDetailsIds(eventDetailsById.values(), viewerId);
+        }
+        return events.stream()
+                .map(event -> {
+                    final var eventDetails = eventDetailsById.get(event.eventDetailsId);
+                    if (eventDetails == null) {
+                        throw new EventDetailsNotFoundException(event.eventDetailsId);
+                    }
+                    if (eventDetails.is(PRIVATE) && !eventDetails.organizedBy(viewerId) && !attendedEventDetailsIds.contains(eventDetails.id)) {
+                        return new EventView(event, empty(), List.of());
+                    }
+                    return new EventView(event, Optional.of(eventDetails), userEventStatusesByEventDetailsId.getOrDefault(eventDetails.id, List.of()));
+                })
+                .toList();
+    }
+
     public Event getEventForUser(UUID eventDetailsId, UUID userId) {
-        return db.selectFrom(EVENT)
+        return shards.forUser(userId).selectFrom(EVENT)
                 .where(EVENT.EVENT_DETAILS_ID.eq(eventDetailsId).and(EVENT.USER_ID.eq(userId)))
                 .fetchOne(eventMapper);
     }
 
 
     public Event createEvent(CreateEventParams params) {
+        return createEventWithConflictCheck(params).event();
+    }
+
+    /**
+     * Creates the event and, unless {@link ConflictCheck#NONE} is requested, looks for events of the organizer and
+     * attendees that overlap it. The check runs under the same user locks as the insert.
+     *
+     * @throws EventConflictException when {@link ConflictCheck#REJECT} is requested and anything overlaps
+     */
+    public CreatedEvent createEventWithConflictCheck(CreateEventParams params) {
         validateOrganizerId(params.organizerId);
         validateAttendees(params.attendeeIds, params.organizerId);
         final var eventDetails = eventDetails()
@@ -195,83 +394,666 @@ public class EventService {
         final var attendeeEvents = params.attendeeIds.stream()
                 .map(attendeeId -> buildEventFor(attendeeId, eventDetails.id, params))
                 .toList();
-        db.transaction(tx -> {
-            tx.dsl().executeInsert(eventDetailsUnmapper.unmap(eventDetails));
-            tx.dsl().batchInsert(concat(Stream.of(organizerEvent), attendeeEvents.stream()).map(eventUnmapper::unmap).toList()).execute();
-        });
-        return organizerEvent;
+        final var events = concat(Stream.of(organizerEvent), attendeeEvents.stream()).toList();
+        try (final var ignored = userLocks.lock(userIdsOf(events))) {
+            final var conflicts = params.conflictCheck == ConflictCheck.NONE
+                    ? List.<ConflictSummary>of()
+                    : findConflicts(events.stream().map(event -> event.userId).toList(), timingOf(organizerEvent));
+            if (params.conflictCheck == ConflictCheck.REJECT && !conflicts.isEmpty()) {
+                throw new EventConflictException(conflicts.stream().map(ConflictSummary::userId).toList());
+            }
+            insertAcrossShards(
+                    List.of(eventDetailsUnmapper.unmap(eventDetails)),
+                    events.stream().map(eventUnmapper::unmap).toList(),
+                    invitations(eventDetails, events)
+            );
+            listeners.forEach(listener -> listener.onEventCreated(eventDetails, events));
+            return new CreatedEvent(organizerEvent, conflicts);
+        }
+    }
+
+    /**
+     * Creates events in one transaction, validating every referenced user with a single query.
+     * Items that fail validation are reported and skipped, the rest are inserted with multi-row inserts.
+     */
+    public List<BatchResult<Event>> createEvents(List<CreateEventParams> paramsList) {
+        final var userIds = paramsList.stream()
+                .flatMap(params -> concat(Stream.of(params.organizerId), params.attendeeIds.stream()))
+                .collect(toSet());
+        final var existingUserIds = userService.findAllByIds(userIds).stream()
+                .map(user -> user.id)
+                .collect(toSet());
+        final var results = new ArrayList<BatchResult<Event>>(paramsList.size());
+        final var eventDetailsRecords = new ArrayList<EventDetailsRecord>();
+        final var eventRecords = new ArrayList<EventRecord>();
+        final var invitations = new ArrayList<OutboxEntry>();
+        final var createdEvents = new LinkedHashMap<EventDetails, List<Event>>();
+        for (final var params : paramsList) {
+            final var error = validationError(params, existingUserIds);
+            if (error.isPresent()) {
+                results.add(BatchResult.failure(error.get()));
+                continue;
+            }
+            final var eventDetails = eventDetails()
+                    .organizerId(params.organizerId)
+                    .name(params.name)
+                    .description(params.description)
+                    .visibility(params.visibility)
+                    .build();
+            final var organizerEvent = buildEventFor(params.organizerId, eventDetails.id, params);
+            final var events = concat(
+                    Stream.of(organizerEvent),
+                    params.attendeeIds.stream().map(attendeeId -> buildEventFor(attendeeId, eventDetails.id, params))
+            ).toList();
+            eventDetailsRecords.add(eventDetailsUnmapper.unmap(eventDetails));
+            events.forEach(event -> eventRecords.add(eventUnmapper.unmap(event)));
+            invitations.addAll(invitations(eventDetails, events));
+            createdEvents.put(eventDetails, events);
+            results.add(BatchResult.success(organizerEvent));
+        }
+        if (!eventDetailsRecords.isEmpty()) {
+            final var createdUserIds = userIdsOf(createdEvents.values().stream().flatMap(List::stream).toList());
+            try (final var ignored = userLocks.lock(createdUserIds)) {
+                insertAcrossShards(eventDetailsRecords, eventRecords, invitations);
+                listeners.forEach(listener -> createdEvents.forEach(listener::onEventCreated));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Applies RSVPs with one batched UPDATE per distinct status and shard. The users of the answered events are looked
+     * up first and the events themselves are read once those users are locked, so the previous statuses that a failure
+     * restores are never older than an answer committed concurrently.
+     * Every event should be answered at most once, callers answering the same event again collapse the answers first.
+     * Shards are written in separate transactions, when one fails the shards already written get their previous
+     * statuses back and nothing is notified.
+     */
+    public List<BatchResult<Event>> applyRsvps(List<RsvpParams> rsvps) {
+        final var eventIds = rsvps.stream().map(RsvpParams::eventId).collect(toSet());
+        if (eventIds.size() < rsvps.size()) {
+            throw new IllegalArgumentException("rsvps should answer every event at most once");
+        }
+        final var userIds = shards.scatter(db -> db.selectDistinct(EVENT.USER_ID)
+                .from(EVENT)
+                .where(EVENT.ID.in(eventIds))
+                .fetch(EVENT.USER_ID));
+        final var updatedEvents = new HashMap<UUID, Event>();
+        if (!userIds.isEmpty()) {
+            try (final var ignored = userLocks.lock(userIds)) {
+                final var events = shards.scatter(userIds, (db, shardUserIds) -> db.selectFrom(EVENT)
+                                .where(EVENT.USER_ID.in(shardUserIds)
+                                        .and(EVENT.ID.in(eventIds)))
+                                .fetch(eventMapper))
+                        .stream()
+                        .collect(toMap(event -> event.id, identity()));
+                rsvps.forEach(rsvp -> {
+                    final var event = events.get(rsvp.eventId());
+                    if (event != null) {
+                        updatedEvents.put(rsvp.eventId(), rsvp.status() == ACCEPTED ? event.accept() : event.decline());
+                    }
+                });
+                final var writtenShards = new ArrayList<Integer>();
+                try {
+                    shards.byShard(updatedEvents.values(), event -> event.userId).forEach((shard, shardEvents) -> {
+                        updateStatuses(shard, shardEvents);
+                        writtenShards.add(shard);
+                    });
+                } catch (RuntimeException e) {
+                    shards.byShard(events.values(), event -> event.userId).forEach((shard, shardEvents) -> {
+                        if (writtenShards.contains(shard)) {
+                            updateStatuses(shard, shardEvents);
+                        }
+                    });
+                    throw e;
+                }
+                notifyStatusChanged(updatedEvents.values());
+            }
+        }
+        return rsvps.stream()
+                .map(rsvp -> ofNullable(updatedEvents.get(rsvp.eventId()))
+                        .map(BatchResult::success)
+                        .orElseGet(() -> BatchResult.failure(new EventNotFoundException(rsvp.eventId()).getMessage())))
+                .toList();
     }
 
     public Event acceptEvent(UUID eventId) {
         final var event = getEventById(eventId).accept();
-        db.transaction(tx -> {
-            tx.dsl().executeUpdate(eventUnmapper.unmap(event));
-        });
+        try (final var ignored = userLocks.lock(List.of(event.userId))) {
+            shards.forUser(event.userId).transaction(tx -> {
+                tx.dsl().executeUpdate(eventUnmapper.unmap(event));
+            });
+            notifyStatusChanged(List.of(event));
+        }
         return event;
     }
 
     public Event declineEvent(UUID eventId) {
         final var event = getEventById(eventId).decline();
-        db.transaction(tx -> {
-            tx.dsl().executeUpdate(eventUnmapper.unmap(event));
-        });
+        try (final var ignored = userLocks.lock(List.of(event.userId))) {
+            shards.forUser(event.userId).transaction(tx -> {
+                tx.dsl().executeUpdate(eventUnmapper.unmap(event));
+            });
+            notifyStatusChanged(List.of(event));
+        }
         return event;
     }
 
+    /**
+     * Cancels one occurrence of a recurring event for the organizer and every attendee, only the organizer may do so.
+     */
+    public void cancelOccurrence(UUID eventId, LocalDateTime originalStartDate, UUID principalId) {
+        overrideOccurrence(organizedEvent(eventId, principalId), originalStartDate, true, OccurrenceOverride::cancel);
+    }
+
+    /**
+     * Moves one occurrence of a recurring event for the organizer and every attendee, the rest of the series stays.
+     * Only the organizer may do so.
+     *
+     * @return the moved occurrence of the given event
+     */
+    public Event moveOccurrence(UUID eventId, LocalDateTime originalStartDate, LocalDateTime startDate, Duration duration, UUID principalId) {
+        if (duration.isNegative()) {
+            throw new ValidationException("duration should be positive");
+        }
+        return overrideOccurrence(organizedEvent(eventId, principalId), originalStartDate, true, override -> override.moveTo(startDate, duration));
+    }
+
+    public Event acceptOccurrence(UUID eventId, LocalDateTime originalStartDate) {
+        return overrideOccurrence(getEventById(eventId), originalStartDate, false, override -> override.withStatus(ACCEPTED));
+    }
+
+    public Event declineOccurrence(UUID eventId, LocalDateTime originalStartDate) {
+        return overrideOccurrence(getEventById(eventId), originalStartDate, false, override -> override.withStatus(DECLINED));
+    }
+
     public List<Event> getUserEvents(UUID userId, LocalDateTime fromDate, LocalDateTime toDate) {
-        userService.getById(userId);
-        if (DAYS.between(fromDate, toDate) > MAX_USER_EVENTS_PERIOD_IN_DAYS) {
-            throw new IllegalArgumentException(format("Period should not be more than %s days", MAX_USER_EVENTS_PERIOD_IN_DAYS));
+        validateUserEventsRequest(userId, fromDate, toDate);
+        if (readModel.isPresent()) {
+            return readModel.get().userEvents(userId, fromDate, toDate);
         }
+        final var db = shards.forUser(userId);
         final var singleEvents = db.selectFrom(EVENT)
                 .where(EVENT.USER_ID.eq(userId)
-                        .and(EVENT.START_DATE.between(fromDate, toDate).or(EVENT.END_DATE.between(fromDate, toDate)))
-                        .and(EVENT.TYPE.eq(SINGLE.name())))
+                        .and(singleEventsWithin(fromDate, toDate)))
                 .fetch(eventMapper);
-        final var recurringEvents = db.selectFrom(EVENT)
+        final var recurringEvents = fetchRecurringEvents(db, EVENT.USER_ID.eq(userId), fromDate, toDate);
+        return concat(singleEvents.stream(), recurringEvents.stream().flatMap(event -> event.recurringInstances(fromDate, toDate)))
+                .sorted(EVENT_ORDER)
+                .toList();
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getUserEvents(UUID, LocalDateTime, LocalDateTime)}: single events are limited
+     * in SQL and every recurring series stops expanding once it has produced a full page.
+     */
+    public EventPage getUserEvents(UUID userId,
+                                   LocalDateTime fromDate,
+                                   LocalDateTime toDate,
+                                   Optional<EventCursor> cursor,
+                                   int limit) {
+        validateUserEventsRequest(userId, fromDate, toDate);
+        if (limit < 1 || limit > MAX_USER_EVENTS_PAGE_SIZE) {
+            throw new ValidationException(format("limit should be between 1 and %s", MAX_USER_EVENTS_PAGE_SIZE));
+        }
+        final var db = shards.forUser(userId);
+        final var singleEvents = db.selectFrom(EVENT)
                 .where(EVENT.USER_ID.eq(userId)
-                        .and(EVENT.END_DATE.ge(fromDate))
-                        .and(EVENT.TYPE.eq(RECURRING.name())))
+                        .and(singleEventsWithin(fromDate, toDate))
+                        .and(cursor.map(EventService::after).orElse(noCondition())))
+                .orderBy(EVENT.START_DATE, EVENT.ID)
+                .limit(limit + 1)
                 .fetch(eventMapper);
-        return concat(singleEvents.stream(), recurringEvents.stream().flatMap(event -> event.newRecurringInstances(fromDate, toDate).stream()))
-                .sorted(comparing(event -> event.startDate))
+        final var recurringEvents = fetchRecurringEvents(db, EVENT.USER_ID.eq(userId), fromDate, toDate);
+        final var recurringInstances = recurringEvents.stream()
+                .flatMap(event -> event.recurringInstances(fromDate, toDate)
+                        .filter(instance -> cursor.map(value -> value.isBefore(instance)).orElse(true))
+                        .limit(limit + 1));
+        final var events = concat(singleEvents.stream(), recurringInstances)
+                .sorted(EVENT_ORDER)
+                .limit(limit + 1)
                 .toList();
+        if (events.size() <= limit) {
+            return new EventPage(events, empty());
+        }
+        final var page = events.subList(0, limit);
+        return new EventPage(page, Optional.of(cursorOf(page.get(limit - 1))));
+    }
+
+    /**
+     * Loads the agendas of several users with two queries per shard and expands recurring series in parallel.
+     * Occurrence overrides come with the series query.
+     */
+    public Map<UUID, List<Event>> getUsersEvents(Collection<UUID> userIds, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (userIds.size() > MAX_AGENDA_USERS) {
+            throw new ValidationException(format("Agendas can be requested for at most %s users", MAX_AGENDA_USERS));
+        }
+        if (DAYS.between(fromDate, toDate) > MAX_USER_EVENTS_PERIOD_IN_DAYS) {
+            throw new IllegalArgumentException(format("Period should not be more than %s days", MAX_USER_EVENTS_PERIOD_IN_DAYS));
+        }
+        final var uniqueUserIds = new LinkedHashSet<>(userIds);
+        validateUsers(uniqueUserIds);
+        final Map<UUID, List<Event>> singleEvents = shards.scatter(uniqueUserIds, (db, shardUserIds) -> db.selectFrom(EVENT)
+                        .where(EVENT.USER_ID.in(shardUserIds)
+                                .and(singleEventsWithin(fromDate, toDate)))
+                        .fetch(eventMapper))
+                .stream()
+                .collect(groupingBy(event -> event.userId));
+        final Map<UUID, List<Event>> recurringEvents = shards.scatter(uniqueUserIds, (db, shardUserIds) ->
+                        fetchRecurringEvents(db, EVENT.USER_ID.in(shardUserIds), fromDate, toDate))
+                .stream()
+                .collect(groupingBy(event -> event.userId));
+        final Map<UUID, List<Event>> eventsByUserId = agendaPool.submit(() -> uniqueUserIds.parallelStream()
+                        .collect(toConcurrentMap(identity(), userId -> concat(
+                                singleEvents.getOrDefault(userId, List.of()).stream(),
+                                recurringEvents.getOrDefault(userId, List.of()).stream().flatMap(event -> event.recurringInstances(fromDate, toDate)))
+                                .sorted(EVENT_ORDER)
+                                .toList())))
+                .join();
+        final var result = new LinkedHashMap<UUID, List<Event>>();
+        uniqueUserIds.forEach(userId -> result.put(userId, eventsByUserId.get(userId)));
+        return result;
+    }
+
+    /**
+     * Reads only the timing columns of the event table, joined with the occurrence overrides in range, with a single
+     * query per shard, the shards are queried in parallel and event details are never touched.
+     * With the read model enabled the database is not queried at all.
+     */
+    public List<EventTiming> getEventTimings(Collection<UUID> userIds, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (DAYS.between(fromDate, toDate) > MAX_USER_EVENTS_PERIOD_IN_DAYS) {
+            throw new IllegalArgumentException(format("Period should not be more than %s days", MAX_USER_EVENTS_PERIOD_IN_DAYS));
+        }
+        if (readModel.isPresent()) {
+            return readModel.get().eventTimings(userIds, fromDate, toDate);
+        }
+        return shards.scatter(userIds, (db, shardUserIds) -> withOverrides(
+                db.select(withExceptionFields(EVENT.ID, EVENT.USER_ID, EVENT.START_DATE, EVENT.END_DATE, EVENT.DURATION, EVENT.RECURRENCE_RULE, EVENT.TIME_ZONE))
+                        .from(EVENT)
+                        .leftJoin(EVENT_EXCEPTION).on(EVENT_EXCEPTION.EVENT_ID.eq(EVENT.ID).and(overridesWithin(fromDate, toDate)))
+                        .where(EVENT.USER_ID.in(shardUserIds)
+                                .and(singleEventsWithin(fromDate, toDate).or(recurringEventsWithin(fromDate))))
+                        .fetch(),
+                record -> new EventTiming(
+                        record.get(EVENT.USER_ID),
+                        record.get(EVENT.START_DATE),
+                        ofMinutes(record.get(EVENT.DURATION)),
+                        recurrenceOf(record)
+                ),
+                EventTiming::withOverrides));
     }
 
+    /**
+     * Free/busy lookup, busy time slots are merged per user and clipped to the requested range.
+     */
+    public Map<UUID, List<TimeSlot>> getBusyTimeSlots(Collection<UUID> userIds, LocalDateTime fromDate, LocalDateTime toDate) {
+        return busyTimeSlots(userIds, getEventTimings(userIds, fromDate, toDate), fromDate, toDate);
+    }
 
     public Optional<TimeSlot> findFreeTimeSlot(Collection<UUID> userIds,
                                                Duration duration,
                                                LocalDateTime fromDate,
                                                LocalDateTime toDate) {
-        return freeTimeSlot(
-                userIds.stream()
-                        .flatMap(userId -> getUserEvents(userId, fromDate, toDate).stream())
-                        .map(event -> new TimeSlot(event.startDate, event.endDate))
-                        .toList(),
-                duration,
-                fromDate,
-                toDate
-        );
+        validateUsers(userIds);
+        return freeTimeSlotOf(getEventTimings(userIds, fromDate, toDate), duration, fromDate, toDate);
+    }
+
+    public void validateUsers(Collection<UUID> userIds) {
+        final var uniqueUserIds = new LinkedHashSet<>(userIds);
+        final var existingUserIds = userService.findAllByIds(uniqueUserIds).stream().map(user -> user.id).collect(toSet());
+        uniqueUserIds.stream()
+                .filter(userId -> !existingUserIds.contains(userId))
+                .findFirst()
+                .ifPresent(userId -> {
+                    throw new UserNotFoundException(userId);
+                });
+    }
+
+    /**
+     * Looks for conflicts with one query per shard: the (user_id, start_date) index narrows rows down to events
+     * starting before the candidate ends, rows ending before it starts and declined events are filtered out, and the
+     * remaining recurring series are tested arithmetically instead of being expanded. Overrides that touch the
+     * candidate range are joined like for every other read: a series may conflict through an occurrence moved past its
+     * end, and cancelled or moved occurrences no longer count at their original time.
+     */
+    private List<ConflictSummary> findConflicts(List<UUID> userIds, EventTiming candidate) {
+        final var candidateEnd = candidate.recurrence()
+                .map(recurrence -> recurrence.endDate)
+                .orElse(candidate.startDate())
+                .plus(candidate.duration());
+        final var conflictingEventIds = new HashMap<UUID, List<UUID>>();
+        shards.scatter(userIds, (db, shardUserIds) -> withOverrides(
+                        db.select(withExceptionFields(EVENT.ID, EVENT.USER_ID, EVENT.START_DATE, EVENT.END_DATE, EVENT.DURATION, EVENT.RECURRENCE_RULE, EVENT.TIME_ZONE))
+                                .from(EVENT)
+                                .leftJoin(EVENT_EXCEPTION).on(EVENT_EXCEPTION.EVENT_ID.eq(EVENT.ID).and(overridesWithin(candidate.startDate(), candidateEnd)))
+                                .where(EVENT.USER_ID.in(shardUserIds)
+                                        .and(EVENT.STATUS.ne(DECLINED.name()))
+                                        .and(EVENT.START_DATE.lt(candidateEnd)
+                                                .and(localDateTimeAdd(EVENT.END_DATE, EVENT.DURATION, MINUTE).gt(candidate.startDate()))
+                                                .or(EVENT_EXCEPTION.EVENT_ID.isNotNull())))
+                                .fetch(),
+                        record -> new StoredTiming(record.get(EVENT.ID), new EventTiming(
+                                record.get(EVENT.USER_ID),
+                                record.get(EVENT.START_DATE),
+                                ofMinutes(record.get(EVENT.DURATION)),
+                                recurrenceOf(record))),
+                        (stored, overrides) -> new StoredTiming(stored.eventId(), stored.timing().withOverrides(overrides))))
+                .stream()
+                .filter(stored -> overlaps(candidate, candidateEnd, stored.timing()))
+                .forEach(stored -> conflictingEventIds.computeIfAbsent(stored.timing().userId(), ignored -> new ArrayList<>()).add(stored.eventId()));
+        return new LinkedHashSet<>(userIds).stream()
+                .filter(conflictingEventIds::containsKey)
+                .map(userId -> new ConflictSummary(userId, conflictingEventIds.get(userId)))
+                .toList();
+    }
+
+    /**
+     * The overlap test without expansion only knows plain series, series with overrides are expanded within the
+     * candidate range instead.
+     */
+    private static boolean overlaps(EventTiming candidate, LocalDateTime candidateEnd, EventTiming timing) {
+        if (timing.overrides().isEmpty()) {
+            return OccurrenceOverlap.overlaps(candidate, timing);
+        }
+        return timing.timeSlots(candidate.startDate(), candidateEnd)
+                .anyMatch(timeSlot -> OccurrenceOverlap.overlaps(candidate, timeSlot.startDate(), timeSlot.endDate()));
+    }
+
+    private Optional<Recurrence> recurrenceOf(Record record) {
+        return ofNullable(record.get(EVENT.RECURRENCE_RULE)).map(rule -> recurrences.recurrenceOf(
+                record.get(EVENT.ID),
+                RecurrenceRule.parse(rule),
+                record.get(EVENT.END_DATE),
+                ofNullable(record.get(EVENT.TIME_ZONE)).map(ZoneId::of)
+        ));
+    }
+
+    private static EventTiming timingOf(Event event) {
+        return new EventTiming(event.userId, event.startDate, event.duration, event.recurrence);
+    }
+
+    private static Set<UUID> userIdsOf(Collection<Event> events) {
+        return events.stream().map(event -> event.userId).collect(toSet());
     }
 
+    /**
+     * Details are loaded with one query and only when someone listens.
+     */
+    private void notifyStatusChanged(Collection<Event> events) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        final var eventDetailsById = loadEventDetails(events.stream().map(event -> event.eventDetailsId).collect(toSet()));
+        for (final var event : events) {
+            final var eventDetails = eventDetailsById.get(event.eventDetailsId);
+            if (eventDetails != null) {
+                listeners.forEach(listener -> listener.onEventStatusChanged(eventDetails, event));
+            }
+        }
+    }
+
+    /**
+     * With a time zone the requested dates are wall-clock times of that zone, they are stored in UTC. A COUNT is
+     * turned into the end date of the series here, so reads only ever look at the end date.
+     */
     private Event buildEventFor(UUID userId, UUID eventDetailsId, CreateEventParams params) {
+        final var startDate = utcOf(params.startDate, params.timeZone);
+        final var recurrence = params.recurrence
+                .map(value -> value.withCountApplied(params.startDate))
+                .map(value -> new Recurrence(value.rule, utcOf(value.endDate, params.timeZone), params.timeZone));
         return event()
                 .userId(userId)
                 .eventDetailsId(eventDetailsId)
                 .status(params.organizerId.equals(userId) ? ACCEPTED : PENDING)
                 .type(params.recurrence.isPresent() ? RECURRING : SINGLE)
                 .duration(params.duration)
-                .startDate(params.startDate)
-                .endDate(endDate(params))
-                .recurrence(params.recurrence)
+                .startDate(startDate)
+                .endDate(recurrence.map(value -> value.endDate).orElse(startDate.plus(params.duration)))
+                .recurrence(recurrence)
+                .timeZone(params.timeZone)
                 .build();
     }
 
-    private LocalDateTime endDate(CreateEventParams params) {
-        if (params.recurrence.isEmpty()) {
-            return params.startDate.plus(params.duration);
+    private static LocalDateTime utcOf(LocalDateTime dateTime, Optional<ZoneId> timeZone) {
+        return timeZone.map(zone -> ZoneTransitions.of(zone).toUtc(dateTime)).orElse(dateTime);
+    }
+
+    private void validateUserEventsRequest(UUID userId, LocalDateTime fromDate, LocalDateTime toDate) {
+        userService.getById(userId);
+        if (DAYS.between(fromDate, toDate) > MAX_USER_EVENTS_PERIOD_IN_DAYS) {
+            throw new IllegalArgumentException(format("Period should not be more than %s days", MAX_USER_EVENTS_PERIOD_IN_DAYS));
+        }
+    }
+
+    private Set<UUID> attendedEventDetailsIds(Collection<EventDetails> eventDetails, UUID viewerId) {
+        final var privateEventDetailsIds = eventDetails.stream()
+                .filter(details -> details.is(PRIVATE) && !details.organizedBy(viewerId))
+                .map(details -> details.id)
+                .collect(toSet());
+        if (privateEventDetailsIds.isEmpty()) {
+            return Set.of();
+        }
+        return shards.forUser(viewerId).select(EVENT.EVENT_DETAILS_ID)
+                .from(EVENT)
+                .where(EVENT.EVENT_DETAILS_ID.in(privateEventDetailsIds).and(EVENT.USER_ID.eq(viewerId)))
+                .fetchSet(EVENT.EVENT_DETAILS_ID);
+    }
+
+    private Map<UUID, EventDetails> loadEventDetails(Set<UUID> eventDetailsIds) {
+        return shards.scatter(db -> db.selectFrom(EVENT_DETAILS)
+                        .where(EVENT_DETAILS.ID.in(eventDetailsIds))
+                        .fetch(eventDetailsMapper))
+                .stream()
+                .collect(toMap(eventDetails -> eventDetails.id, identity()));
+    }
+
+    /**
+     * Invitations are recorded in the outbox of the attendee's shard, in the transaction that inserts the attendee's
+     * event, and delivered later by the outbox dispatcher.
+     */
+    private static List<OutboxEntry> invitations(EventDetails eventDetails, List<Event> events) {
+        return events.stream()
+                .filter(event -> !eventDetails.organizedBy(event.userId))
+                .map(event -> new OutboxEntry(event.userId, INVITATION, invitationJson(eventDetails, event).toString()))
+                .toList();
+    }
+
+    /**
+     * Event details go to the shard of their organizer and every event to the shard of its user, one transaction per
+     * shard. With a single shard this is one transaction. Shards are written one by one in index order, and when a
+     * later shard fails the rows already committed to the earlier ones are deleted again.
+     */
+    private void insertAcrossShards(List<EventDetailsRecord> eventDetailsRecords,
+                                    List<EventRecord> eventRecords,
+                                    List<OutboxEntry> outboxEntries) {
+        final var eventDetailsRecordsByShard = shards.byShard(eventDetailsRecords, EventDetailsRecord::getOrganizerId);
+        final var eventRecordsByShard = shards.byShard(eventRecords, EventRecord::getUserId);
+        final var outboxEntriesByShard = shards.byShard(outboxEntries, OutboxEntry::recipientId);
+        final var shardIndexes = new TreeSet<Integer>(eventDetailsRecordsByShard.keySet());
+        shardIndexes.addAll(eventRecordsByShard.keySet());
+        final var outboxIdsByShard = new HashMap<Integer, List<Long>>();
+        final var writtenShards = new ArrayList<Integer>();
+        try {
+            for (final var shard : shardIndexes) {
+                shards.shard(shard).transaction(tx -> {
+                    insertAll(tx.dsl(), EVENT_DETAILS, eventDetailsRecordsByShard.getOrDefault(shard, List.of()));
+                    insertAll(tx.dsl(), EVENT, eventRecordsByShard.getOrDefault(shard, List.of()));
+                    outboxIdsByShard.put(shard, enqueue(tx.dsl(), outboxEntriesByShard.getOrDefault(shard, List.of())));
+                });
+                writtenShards.add(shard);
+            }
+        } catch (RuntimeException e) {
+            recurrences.evict(eventRecords.stream().map(EventRecord::getId).toList());
+            writtenShards.forEach(shard -> shards.shard(shard).transaction(tx -> {
+                tx.dsl().deleteFrom(OUTBOX)
+                        .where(OUTBOX.ID.in(outboxIdsByShard.get(shard)))
+                        .execute();
+                tx.dsl().deleteFrom(EVENT)
+                        .where(EVENT.ID.in(eventRecordsByShard.getOrDefault(shard, List.of()).stream().map(EventRecord::getId).toList()))
+                        .execute();
+                tx.dsl().deleteFrom(EVENT_DETAILS)
+                        .where(EVENT_DETAILS.ID.in(eventDetailsRecordsByShard.getOrDefault(shard, List.of()).stream().map(EventDetailsRecord::getId).toList()))
+                        .execute();
+            }));
+            throw e;
+        }
+    }
+
+    private void updateStatuses(int shard, Collection<Event> events) {
+        final var eventIdsByStatus = events.stream()
+                .collect(groupingBy(event -> event.status, mapping(event -> event.id, toSet())));
+        shards.shard(shard).transaction(tx -> tx.dsl().batch(eventIdsByStatus.entrySet().stream()
+                        .map(entry -> tx.dsl().update(EVENT)
+                                .set(EVENT.STATUS, entry.getKey().name())
+                                .where(EVENT.ID.in(entry.getValue())))
+                        .toList())
+                .execute());
+    }
+
+    /**
+     * Occurrences are keyed by their series start, so an override is an upsert of one exception row per affected
+     * series. Cancelling and moving apply to the series of the organizer and every attendee, answering only to the
+     * given one. The rows of different shards are written in separate transactions, repeating a call is harmless.
+     *
+     * @return instance of the occurrence in the given event
+     */
+    private Event overrideOccurrence(Event event,
+                                     LocalDateTime originalStartDate,
+                                     boolean everyAttendee,
+                                     UnaryOperator<OccurrenceOverride> change) {
+        if (!event.is(RECURRING) || !occursAt(event, originalStartDate)) {
+            throw new OccurrenceNotFoundException(event.id, originalStartDate);
+        }
+        final var events = everyAttendee
+                ? shards.scatter(db -> db.selectFrom(EVENT).where(EVENT.EVENT_DETAILS_ID.eq(event.eventDetailsId)).fetch(eventMapper))
+                : List.of(event);
+        final var eventIds = events.stream().map(series -> series.id).toList();
+        try (final var ignored = userLocks.lock(userIdsOf(events))) {
+            final var existingOverrides = shards.scatter(userIdsOf(events), (db, shardUserIds) -> db.selectFrom(EVENT_EXCEPTION)
+                            .where(EVENT_EXCEPTION.EVENT_ID.in(eventIds)
+                                    .and(EVENT_EXCEPTION.ORIGINAL_START_DATE.eq(originalStartDate)))
+                            .fetch())
+                    .stream()
+                    .collect(toMap(EventExceptionRecord::getEventId, occurrenceOverrideMapper::map));
+            final var overrides = events.stream()
+                    .collect(toMap(series -> series.id, series -> change.apply(existingOverrides.getOrDefault(series.id, OccurrenceOverride.of(originalStartDate)))));
+            shards.byShard(events, series -> series.userId).forEach((shard, shardEvents) ->
+                    shards.shard(shard).transaction(tx -> tx.dsl().batch(shardEvents.stream()
+                                    .map(series -> occurrenceOverrideUnmapper.unmap(series.id, overrides.get(series.id)))
+                                    .map(record -> tx.dsl().insertInto(EVENT_EXCEPTION)
+                                            .set(record)
+                                            .onDuplicateKeyUpdate()
+                                            .set(record))
+                                    .toList())
+                            .execute()));
+            events.forEach(series -> listeners.forEach(listener -> listener.onOccurrenceOverridden(series, overrides.get(series.id))));
+            return event.newRecurringInstance(overrides.get(event.id));
+        }
+    }
+
+    private Event organizedEvent(UUID eventId, UUID principalId) {
+        final var event = getEventById(eventId);
+        if (!getEventDetailsById(event.eventDetailsId).organizedBy(principalId)) {
+            throw new ForbiddenException("Only the organizer can change occurrences for everyone");
+        }
+        return event;
+    }
+
+    private static boolean occursAt(Event event, LocalDateTime date) {
+        return !date.isAfter(event.recurrence().endDate)
+                && OccurrenceOverlap.firstStartAtOrAfter(event.startDate, event.recurrence(), date).equals(date);
+    }
+
+    /**
+     * Loads recurring series together with the overrides of occurrences that fall into the range or were moved into
+     * it, in the same query: the exception table is left-joined on its (event_id, original_start_date) key.
+     */
+    private List<Event> fetchRecurringEvents(DSLContext db, Condition condition, LocalDateTime fromDate, LocalDateTime toDate) {
+        return withOverrides(
+                db.select(withExceptionFields(EVENT.fields()))
+                        .from(EVENT)
+                        .leftJoin(EVENT_EXCEPTION).on(EVENT_EXCEPTION.EVENT_ID.eq(EVENT.ID).and(overridesWithin(fromDate, toDate)))
+                        .where(condition.and(recurringEventsWithin(fromDate)))
+                        .fetch(),
+                record -> eventMapper.map(record.into(EVENT)),
+                Event::withOverrides
+        );
+    }
+
+    /**
+     * Folds the joined rows back into one value per event, attaching the overrides found for it.
+     */
+    private <T> List<T> withOverrides(List<? extends Record> records,
+                                      Function<Record, T> rowMapper,
+                                      BiFunction<T, List<OccurrenceOverride>, T> attach) {
+        final var rows = new LinkedHashMap<UUID, T>();
+        final var overrides = new HashMap<UUID, List<OccurrenceOverride>>();
+        for (final var record : records) {
+            final var eventId = record.get(EVENT.ID);
+            rows.computeIfAbsent(eventId, ignored -> rowMapper.apply(record));
+            if (record.get(EVENT_EXCEPTION.EVENT_ID) != null) {
+                overrides.computeIfAbsent(eventId, ignored -> new ArrayList<>())
+                        .add(occurrenceOverrideMapper.map(record.into(EVENT_EXCEPTION)));
+            }
+        }
+        return rows.entrySet()
+                .stream()
+                .map(entry -> overrides.containsKey(entry.getKey()) ? attach.apply(entry.getValue(), overrides.get(entry.getKey())) : entry.getValue())
+                .toList();
+    }
+
+    private static List<SelectField<?>> withExceptionFields(Field<?>... eventFields) {
+        return concat(Arrays.stream(eventFields), Arrays.stream(EVENT_EXCEPTION.fields())).<SelectField<?>>map(field -> field).toList();
+    }
+
+    /**
+     * Overrides whose original occurrence or whose new time overlaps the range, durations are kept in minutes.
+     */
+    private static Condition overridesWithin(LocalDateTime fromDate, LocalDateTime toDate) {
+        return EVENT_EXCEPTION.ORIGINAL_START_DATE.le(toDate)
+                .and(localDateTimeAdd(EVENT_EXCEPTION.ORIGINAL_START_DATE, EVENT.DURATION, MINUTE).ge(fromDate))
+                .or(EVENT_EXCEPTION.START_DATE.le(toDate)
+                        .and(localDateTimeAdd(EVENT_EXCEPTION.START_DATE, coalesce(EVENT_EXCEPTION.DURATION, EVENT.DURATION), MINUTE).ge(fromDate)));
+    }
+
+    private static Condition singleEventsWithin(LocalDateTime fromDate, LocalDateTime toDate) {
+        return EVENT.START_DATE.between(fromDate, toDate).or(EVENT.END_DATE.between(fromDate, toDate))
+                .and(EVENT.TYPE.eq(SINGLE.name()));
+    }
+
+    private static Condition recurringEventsWithin(LocalDateTime fromDate) {
+        return EVENT.END_DATE.ge(fromDate)
+                .and(EVENT.TYPE.eq(RECURRING.name()));
+    }
+
+    private static Condition after(EventCursor cursor) {
+        return EVENT.START_DATE.gt(cursor.startDate())
+                .or(EVENT.START_DATE.eq(cursor.startDate()).and(EVENT.ID.gt(cursor.eventId())));
+    }
+
+    private Optional<String> validationError(CreateEventParams params, Set<UUID> existingUserIds) {
+        if (!existingUserIds.contains(params.organizerId)) {
+            return Optional.of(new UserNotFoundException(params.organizerId).getMessage());
+        }
+        if (params.attendeeIds.contains(params.organizerId)) {
+            return Optional.of("Attendees should not contain organizer");
+        }
+        final var missingAttendeeIds = params.attendeeIds.stream()
+                .filter(attendeeId -> !existingUserIds.contains(attendeeId))
+                .collect(toSet());
+        if (!missingAttendeeIds.isEmpty()) {
+            return Optional.of(new AttendeesNotFoundException(missingAttendeeIds).getMessage());
+        }
+        return empty();
+    }
+
+    private static <R extends TableRecord<R>> void insertAll(DSLContext db, Table<R> table, List<R> records) {
+        for (int from = 0; from < records.size(); from += MAX_ROWS_PER_INSERT) {
+            db.insertInto(table)
+                    .columns(table.fields())
+                    .valuesOfRecords(records.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, records.size())))
+                    .execute();
         }
-        return params.recurrence.get().endDate;
     }
 
     private void validateOrganizerId(UUID organizerId) {
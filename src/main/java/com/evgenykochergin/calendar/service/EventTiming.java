@@ -0,0 +1,64 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.type.Occurrence;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.service.FreeTimeSlotFinder.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+
+/**
+ * Timing columns of an event row, all that is needed to tell when a user is busy.
+ */
+public record EventTiming(UUID userId,
+                          LocalDateTime startDate,
+                          Duration duration,
+                          Optional<Recurrence> recurrence,
+                          List<OccurrenceOverride> overrides) {
+
+    public EventTiming(UUID userId,
+                       LocalDateTime startDate,
+                       Duration duration,
+                       Optional<Recurrence> recurrence,
+                       List<OccurrenceOverride> overrides) {
+        this.userId = requireNonNull(userId, "userId is required");
+        this.startDate = requireNonNull(startDate, "startDate is required");
+        this.duration = requireNonNull(duration, "duration is required");
+        this.recurrence = requireNonNull(recurrence, "recurrence is required");
+        this.overrides = requireNonNull(overrides, "overrides is required").stream()
+                .sorted(comparing(OccurrenceOverride::originalStartDate))
+                .toList();
+    }
+
+    public EventTiming(UUID userId, LocalDateTime startDate, Duration duration, Optional<Recurrence> recurrence) {
+        this(userId, startDate, duration, recurrence, List.of());
+    }
+
+    EventTiming withOverrides(List<OccurrenceOverride> overrides) {
+        return new EventTiming(userId, startDate, duration, recurrence, overrides);
+    }
+
+    /**
+     * Busy time slots of this event or its recurring instances, clipped to the given range.
+     */
+    public Stream<TimeSlot> timeSlots(LocalDateTime fromDate, LocalDateTime toDate) {
+        final var occurrences = recurrence
+                .map(value -> value.occurrences(startDate, duration, overrides, fromDate, toDate))
+                .orElseGet(() -> Stream.of(new Occurrence(startDate, duration, empty())));
+        return occurrences
+                .filter(occurrence -> occurrence.startDate().isBefore(toDate) && occurrence.endDate().isAfter(fromDate))
+                .map(occurrence -> new TimeSlot(
+                        occurrence.startDate().isBefore(fromDate) ? fromDate : occurrence.startDate(),
+                        occurrence.endDate().isAfter(toDate) ? toDate : occurrence.endDate()
+                ));
+    }
+}
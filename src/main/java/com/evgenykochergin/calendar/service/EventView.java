@@ -0,0 +1,23 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.EventDetails;
+import com.evgenykochergin.calendar.model.type.UserEventStatus;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Event as seen by a particular user: details and attendees are empty when the event is private
+ * and the user neither organizes nor attends it.
+ */
+public record EventView(Event event, Optional<EventDetails> details, Collection<UserEventStatus> attendees) {
+
+    public EventView(Event event, Optional<EventDetails> details, Collection<UserEventStatus> attendees) {
+        this.event = requireNonNull(event, "event is required");
+        this.details = requireNonNull(details, "details is required");
+        this.attendees = requireNonNull(attendees, "attendees is required");
+    }
+}
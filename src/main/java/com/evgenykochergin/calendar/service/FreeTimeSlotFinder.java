@@ -2,8 +2,13 @@ package com.evgenykochergin.calendar.service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 import static java.time.Duration.between;
@@ -68,4 +73,63 @@ public class FreeTimeSlotFinder {
         }
         return empty();
     }
+
+    /**
+     * Sorts time slots and merges the overlapping or touching ones.
+     */
+    public static List<TimeSlot> mergedTimeSlots(List<TimeSlot> sourceTimeSlots) {
+        final var timeSlots = sourceTimeSlots.stream()
+                .sorted(comparing((Function<TimeSlot, LocalDateTime>) timeSlot -> timeSlot.startDate)
+                        .thenComparing(timeSlot -> timeSlot.endDate))
+                .toList();
+        final var mergedTimeSlots = new ArrayList<TimeSlot>();
+        for (final var timeSlot : timeSlots) {
+            final var lastIndex = mergedTimeSlots.size() - 1;
+            if (lastIndex >= 0 && !mergedTimeSlots.get(lastIndex).endDate.isBefore(timeSlot.startDate)) {
+                final var lastTimeSlot = mergedTimeSlots.get(lastIndex);
+                if (timeSlot.endDate.isAfter(lastTimeSlot.endDate)) {
+                    mergedTimeSlots.set(lastIndex, new TimeSlot(lastTimeSlot.startDate, timeSlot.endDate));
+                }
+            } else {
+                mergedTimeSlots.add(timeSlot);
+            }
+        }
+        return mergedTimeSlots;
+    }
+
+    /**
+     * Busy time slots of every given user, merged per user and clipped to the given range.
+     */
+    public static Map<UUID, List<TimeSlot>> busyTimeSlots(Collection<UUID> userIds,
+                                                          List<EventTiming> eventTimings,
+                                                          LocalDateTime fromDate,
+                                                          LocalDateTime toDate) {
+        final var busyTimeSlots = new LinkedHashMap<UUID, List<TimeSlot>>();
+        userIds.forEach(userId -> busyTimeSlots.put(userId, new ArrayList<>()));
+        for (final var eventTiming : eventTimings) {
+            final var timeSlots = busyTimeSlots.get(eventTiming.userId());
+            if (timeSlots != null) {
+                eventTiming.timeSlots(fromDate, toDate).forEach(timeSlots::add);
+            }
+        }
+        busyTimeSlots.replaceAll((userId, timeSlots) -> mergedTimeSlots(timeSlots));
+        return busyTimeSlots;
+    }
+
+    /**
+     * First free time slot of the given duration, every event timing counts as busy time.
+     */
+    public static Optional<TimeSlot> freeTimeSlotOf(List<EventTiming> eventTimings,
+                                                    Duration duration,
+                                                    LocalDateTime fromDate,
+                                                    LocalDateTime toDate) {
+        return freeTimeSlot(
+                eventTimings.stream()
+                        .flatMap(eventTiming -> eventTiming.timeSlots(fromDate, toDate))
+                        .toList(),
+                duration,
+                fromDate,
+                toDate
+        );
+    }
 }
@@ -0,0 +1,117 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.model.type.RecurrenceRule;
+
+import java.time.LocalDateTime;
+import java.util.OptionalLong;
+
+import static java.time.Duration.ofDays;
+
+/**
+ * Overlap tests for events and recurring series that do not expand the series. The first occurrence at or after
+ * a given moment is found by the expansion plan of the series, which jumps straight to it. Two recurring series are
+ * compared over their common lifetime, and when both repeat with a period of whole weeks or days in the same zone the
+ * comparison stops after the least common multiple of their periods because the pattern repeats.
+ */
+final class OccurrenceOverlap {
+
+    private OccurrenceOverlap() {
+    }
+
+    /**
+     * Whether any occurrence of the event intersects the half-open range [fromDate, toDate).
+     */
+    static boolean overlaps(EventTiming timing, LocalDateTime fromDate, LocalDateTime toDate) {
+        if (timing.recurrence().isEmpty()) {
+            return timing.startDate().isBefore(toDate) && timing.startDate().plus(timing.duration()).isAfter(fromDate);
+        }
+        final var recurrence = timing.recurrence().get();
+        final var occurrenceStart = firstStartAtOrAfter(timing.startDate(), recurrence, fromDate.minus(timing.duration()).plusNanos(1));
+        return occurrenceStart.isBefore(toDate) && occurrenceStart.compareTo(recurrence.endDate) <= 0;
+    }
+
+    static boolean overlaps(EventTiming first, EventTiming second) {
+        if (first.recurrence().isEmpty()) {
+            return overlaps(second, first.startDate(), first.startDate().plus(first.duration()));
+        }
+        if (second.recurrence().isEmpty()) {
+            return overlaps(first, second.startDate(), second.startDate().plus(second.duration()));
+        }
+        final var sparse = averageGapDays(first.recurrence().get().rule) >= averageGapDays(second.recurrence().get().rule) ? first : second;
+        final var dense = sparse == first ? second : first;
+        final var fromDate = max(first.startDate(), second.startDate());
+        var toDate = min(seriesEnd(first), seriesEnd(second));
+        final var sparsePattern = patternDays(sparse.recurrence().get().rule);
+        final var densePattern = patternDays(dense.recurrence().get().rule);
+        if (sparsePattern.isPresent() && densePattern.isPresent()
+                && sparse.recurrence().get().zone.equals(dense.recurrence().get().zone)) {
+            final var patternLength = ofDays(lcm(sparsePattern.getAsLong(), densePattern.getAsLong()));
+            toDate = min(toDate, fromDate.plus(patternLength).plus(sparse.duration()).plus(dense.duration()));
+        }
+        final var recurrence = sparse.recurrence().get();
+        var occurrenceStart = firstStartAtOrAfter(sparse.startDate(), recurrence, fromDate.minus(sparse.duration()).plusNanos(1));
+        while (occurrenceStart.isBefore(toDate) && occurrenceStart.compareTo(recurrence.endDate) <= 0) {
+            if (overlaps(dense, occurrenceStart, occurrenceStart.plus(sparse.duration()))) {
+                return true;
+            }
+            occurrenceStart = firstStartAtOrAfter(sparse.startDate(), recurrence, occurrenceStart.plusNanos(1));
+        }
+        return false;
+    }
+
+    /**
+     * Start of the first occurrence of the series that is not before the given date, may lie past the series end.
+     */
+    static LocalDateTime firstStartAtOrAfter(LocalDateTime seriesStartDate, Recurrence recurrence, LocalDateTime date) {
+        return recurrence.firstStartAtOrAfter(seriesStartDate, date);
+    }
+
+    /**
+     * Length in days after which the start days of a series repeat, empty for month based rules.
+     */
+    private static OptionalLong patternDays(RecurrenceRule rule) {
+        return switch (rule.frequency()) {
+            case DAILY -> OptionalLong.of(rule.byDay().isEmpty() ? rule.interval() : lcm(rule.interval(), 7));
+            case WEEKLY -> OptionalLong.of(7L * rule.interval());
+            case MONTHLY, YEARLY -> OptionalLong.empty();
+        };
+    }
+
+    /**
+     * Rough distance between occurrences, only used to step through the sparser of two series.
+     */
+    private static double averageGapDays(RecurrenceRule rule) {
+        final var daysPerWeek = rule.byDay().isEmpty() ? 7 : rule.byDay().size();
+        final var daysPerMonth = !rule.byMonthDay().isEmpty() ? rule.byMonthDay().size() : rule.byDay().isEmpty() ? 1 : daysPerWeek * 4;
+        return switch (rule.frequency()) {
+            case DAILY -> rule.interval() * 7.0 / daysPerWeek;
+            case WEEKLY -> rule.interval() * 7.0 / (rule.byDay().isEmpty() ? 1 : daysPerWeek);
+            case MONTHLY -> rule.interval() * 30.0 / daysPerMonth;
+            case YEARLY -> rule.interval() * 365.0;
+        };
+    }
+
+    private static long lcm(long first, long second) {
+        var a = first;
+        var b = second;
+        while (b != 0) {
+            final var remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return first / a * second;
+    }
+
+    private static LocalDateTime seriesEnd(EventTiming timing) {
+        return timing.recurrence().get().endDate.plus(timing.duration());
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
@@ -0,0 +1,69 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.model.type.RecurrenceRule;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recurrences of stored events by event id, so the expansion plan a recurrence compiles on first use outlives the row
+ * it was read from. An entry is replaced when the row no longer matches it, the least recently used entry is evicted
+ * once the cache holds more than its capacity and the owner evicts the entries of events it deletes.
+ */
+public class RecurrenceCache {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, Recurrence> byEventId;
+
+    public RecurrenceCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity should be positive");
+        }
+        this.byEventId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Recurrence> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public Recurrence recurrenceOf(UUID eventId, RecurrenceRule rule, LocalDateTime endDate, Optional<ZoneId> zone) {
+        lock.lock();
+        try {
+            final var cached = byEventId.get(eventId);
+            if (cached != null && cached.rule.equals(rule) && cached.endDate.equals(endDate) && cached.zone.equals(zone)) {
+                return cached;
+            }
+            final var recurrence = new Recurrence(rule, endDate, zone);
+            byEventId.put(eventId, recurrence);
+            return recurrence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void evict(Collection<UUID> eventIds) {
+        lock.lock();
+        try {
+            eventIds.forEach(byEventId::remove);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return byEventId.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.error.EventNotFoundException;
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.type.EventStatus;
+import com.evgenykochergin.calendar.service.EventService.RsvpParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Group commit for RSVPs: answers are queued and written together by one flusher thread with
+ * {@link EventService#applyRsvps(List)}, so the number of transactions follows the number of flushes instead of the
+ * number of requests. A flush happens once the oldest queued answer has waited for the flush interval or the queue
+ * holds a full batch. Repeated answers for the same event collapse into the last one, every caller is completed
+ * only after the flush carrying its answer has committed.
+ */
+public class RsvpGroupCommitter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RsvpGroupCommitter.class);
+
+    private final EventService eventService;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Object lock = new Object();
+    private Map<UUID, PendingRsvp> pending = new LinkedHashMap<>();
+    private long oldestPendingNanos;
+    private boolean running = true;
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder collapsedCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final Thread flusher;
+
+    public RsvpGroupCommitter(EventService eventService, int maxBatchSize, Duration flushInterval) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize should be positive");
+        }
+        this.eventService = eventService;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.flusher = new Thread(this::flushLoop, "rsvp-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * @return completes with the updated event once the answer is committed, or with
+     * {@link EventNotFoundException} when there is no such event
+     */
+    public CompletableFuture<Event> submit(UUID eventId, EventStatus status) {
+        final var rsvp = new RsvpParams(eventId, status);
+        final var future = new CompletableFuture<Event>();
+        synchronized (lock) {
+            if (!running) {
+                throw new IllegalStateException("RSVP group commit is shut down");
+            }
+            if (pending.isEmpty()) {
+                oldestPendingNanos = System.nanoTime();
+            }
+            final var existing = pending.get(eventId);
+            if (existing == null) {
+                pending.put(eventId, new PendingRsvp(rsvp, future));
+            } else {
+                existing.rsvp = rsvp;
+                existing.futures.add(future);
+                collapsedCount.increment();
+            }
+            submittedCount.increment();
+            if (pending.size() >= maxBatchSize || pending.size() == 1) {
+                lock.notifyAll();
+            }
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    public long submittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long collapsedCount() {
+        return collapsedCount.sum();
+    }
+
+    public long flushCount() {
+        return flushCount.sum();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            final Map<UUID, PendingRsvp> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * Waits until a batch is due, returns {@code null} once shut down with nothing left to flush.
+     */
+    private Map<UUID, PendingRsvp> nextBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (pending.isEmpty()) {
+                    if (!running) {
+                        return null;
+                    }
+                    lock.wait();
+                    continue;
+                }
+                final var remainingNanos = oldestPendingNanos + flushIntervalNanos - System.nanoTime();
+                if (pending.size() >= maxBatchSize || remainingNanos <= 0 || !running) {
+                    final var batch = pending;
+                    pending = new LinkedHashMap<>();
+                    return batch;
+                }
+                NANOSECONDS.timedWait(lock, remainingNanos);
+            }
+        }
+    }
+
+    private void flush(Map<UUID, PendingRsvp> batch) {
+        final var pendingRsvps = new ArrayList<>(batch.values());
+        try {
+            final var results = eventService.applyRsvps(pendingRsvps.stream().map(pendingRsvp -> pendingRsvp.rsvp).toList());
+            flushCount.increment();
+            for (int index = 0; index < pendingRsvps.size(); index++) {
+                final var pendingRsvp = pendingRsvps.get(index);
+                final var result = results.get(index);
+                if (result.isSuccess()) {
+                    pendingRsvp.futures.forEach(future -> future.complete(result.value().get()));
+                } else {
+                    pendingRsvp.futures.forEach(future -> future.completeExceptionally(new EventNotFoundException(pendingRsvp.rsvp.eventId())));
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("RSVP group commit of {} events failed", pendingRsvps.size(), e);
+            pendingRsvps.forEach(pendingRsvp -> pendingRsvp.futures.forEach(future -> future.completeExceptionally(e)));
+        }
+    }
+
+    private static class PendingRsvp {
+        private RsvpParams rsvp;
+        private final List<CompletableFuture<Event>> futures = new ArrayList<>();
+
+        private PendingRsvp(RsvpParams rsvp, CompletableFuture<Event> future) {
+            this.rsvp = rsvp;
+            this.futures.add(future);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.Event;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.evgenykochergin.calendar.model.type.EventType.SINGLE;
+import static java.time.ZoneOffset.UTC;
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Immutable snapshot of one user's calendar. Single events are kept sorted by start in a primitive array of epoch
+ * seconds, so a range lookup is a binary search; recurring series are kept as definitions and expanded on read.
+ * Every change produces a new snapshot, readers never see a half-applied update.
+ */
+final class UserTimeline {
+
+    static final UserTimeline EMPTY = new UserTimeline(new long[0], new Event[0], 0, List.of());
+
+    private final long[] startSeconds;
+    private final Event[] singleEvents;
+    private final long maxDurationSeconds;
+    private final List<Event> recurringEvents;
+
+    private UserTimeline(long[] startSeconds, Event[] singleEvents, long maxDurationSeconds, List<Event> recurringEvents) {
+        this.startSeconds = startSeconds;
+        this.singleEvents = singleEvents;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.recurringEvents = recurringEvents;
+    }
+
+    static UserTimeline of(Collection<Event> events) {
+        final var singleEvents = events.stream()
+                .filter(event -> event.is(SINGLE))
+                .sorted(comparingLong(event -> epochSecond(event.startDate)))
+                .toArray(Event[]::new);
+        return new UserTimeline(
+                Arrays.stream(singleEvents).mapToLong(event -> epochSecond(event.startDate)).toArray(),
+                singleEvents,
+                Arrays.stream(singleEvents).mapToLong(event -> event.duration.toSeconds()).max().orElse(0),
+                events.stream().filter(event -> !event.is(SINGLE)).toList()
+        );
+    }
+
+    /**
+     * Snapshot with the given event added, or replacing the event with the same id.
+     */
+    UserTimeline with(Event event) {
+        final var remaining = without(event);
+        if (!event.is(SINGLE)) {
+            final var recurring = new ArrayList<>(remaining.recurringEvents);
+            recurring.add(event);
+            return new UserTimeline(remaining.startSeconds, remaining.singleEvents, remaining.maxDurationSeconds, List.copyOf(recurring));
+        }
+        final var start = epochSecond(event.startDate);
+        final var index = insertionPoint(remaining.startSeconds, start);
+        final var size = remaining.startSeconds.length;
+        final var startSeconds = new long[size + 1];
+        final var singleEvents = new Event[size + 1];
+        System.arraycopy(remaining.startSeconds, 0, startSeconds, 0, index);
+        System.arraycopy(remaining.singleEvents, 0, singleEvents, 0, index);
+        startSeconds[index] = start;
+        singleEvents[index] = event;
+        System.arraycopy(remaining.startSeconds, index, startSeconds, index + 1, size - index);
+        System.arraycopy(remaining.singleEvents, index, singleEvents, index + 1, size - index);
+        return new UserTimeline(
+                startSeconds,
+                singleEvents,
+                Math.max(remaining.maxDurationSeconds, event.duration.toSeconds()),
+                remaining.recurringEvents
+        );
+    }
+
+    /**
+     * Same filter as the SQL lookup: a single event matches when its start or its end is within the range,
+     * a recurring series when it has not ended before the range starts.
+     */
+    Stream<Event> events(LocalDateTime fromDate, LocalDateTime toDate) {
+        final var from = epochSecond(fromDate);
+        final var to = epochSecond(toDate);
+        final var first = insertionPoint(startSeconds, from - maxDurationSeconds);
+        final var last = insertionPoint(startSeconds, to + 1);
+        final var singles = IntStream.range(first, last)
+                .filter(index -> {
+                    final var start = startSeconds[index];
+                    final var end = start + singleEvents[index].duration.toSeconds();
+                    return (start >= from && start <= to) || (end >= from && end <= to);
+                })
+                .mapToObj(index -> singleEvents[index]);
+        final var recurring = recurringEvents.stream()
+                .filter(event -> !event.endDate.isBefore(fromDate));
+        return Stream.concat(singles, recurring);
+    }
+
+    Stream<Event> all() {
+        return Stream.concat(Arrays.stream(singleEvents), recurringEvents.stream());
+    }
+
+    private UserTimeline without(Event event) {
+        if (!event.is(SINGLE)) {
+            if (recurringEvents.stream().noneMatch(existing -> existing.id.equals(event.id))) {
+                return this;
+            }
+            return new UserTimeline(startSeconds, singleEvents, maxDurationSeconds, recurringEvents.stream()
+                    .filter(existing -> !existing.id.equals(event.id))
+                    .toList());
+        }
+        final var index = IntStream.range(0, singleEvents.length)
+                .filter(candidate -> singleEvents[candidate].id.equals(event.id))
+                .findFirst();
+        if (index.isEmpty()) {
+            return this;
+        }
+        final var removed = index.getAsInt();
+        final var size = startSeconds.length - 1;
+        final var newStartSeconds = new long[size];
+        final var newSingleEvents = new Event[size];
+        System.arraycopy(startSeconds, 0, newStartSeconds, 0, removed);
+        System.arraycopy(singleEvents, 0, newSingleEvents, 0, removed);
+        System.arraycopy(startSeconds, removed + 1, newStartSeconds, removed, size - removed);
+        System.arraycopy(singleEvents, removed + 1, newSingleEvents, removed, size - removed);
+        return new UserTimeline(newStartSeconds, newSingleEvents, maxDurationSeconds, recurringEvents);
+    }
+
+    /**
+     * Index of the first element that is not less than the key.
+     */
+    private static int insertionPoint(long[] sorted, long key) {
+        var low = 0;
+        var high = sorted.length;
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+            if (sorted[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(UTC);
+    }
+}
@@ -6,18 +6,37 @@ import com.evgenykochergin.calendar.model.Event;
 import com.evgenykochergin.calendar.model.type.EventStatus;
 import com.evgenykochergin.calendar.model.type.EventType;
 import com.evgenykochergin.calendar.model.type.Recurrence;
-import com.evgenykochergin.calendar.model.type.RecurrenceFrequency;
+import com.evgenykochergin.calendar.model.type.RecurrenceRule;
+import com.evgenykochergin.calendar.service.RecurrenceCache;
 import org.jetbrains.annotations.Nullable;
 import org.jooq.RecordMapper;
 
+import java.time.ZoneId;
+import java.util.Optional;
+
 import static com.evgenykochergin.calendar.model.Event.event;
 import static java.time.Duration.ofMinutes;
+import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
 
 public class EventMapper implements RecordMapper<EventRecord, Event> {
 
+    private final Optional<RecurrenceCache> recurrences;
+
+    public EventMapper() {
+        this(empty());
+    }
+
+    /**
+     * @param recurrences when present, recurrences of rows that did not change since the last read are reused
+     */
+    public EventMapper(Optional<RecurrenceCache> recurrences) {
+        this.recurrences = recurrences;
+    }
+
     @Override
     public @Nullable Event map(EventRecord eventRecord) {
+        final var timeZone = ofNullable(eventRecord.getTimeZone()).map(ZoneId::of);
         return event()
                 .id(eventRecord.getId())
                 .userId(eventRecord.getUserId())
@@ -27,7 +46,14 @@ public class EventMapper implements RecordMapper<EventRecord, Event> {
                 .endDate(eventRecord.getEndDate())
                 .duration(ofMinutes(eventRecord.getDuration()))
                 .type(EventType.valueOf(eventRecord.getType()))
-                .recurrence(ofNullable(eventRecord.getRecurrenceFreq()).map(freq-> new Recurrence(RecurrenceFrequency.valueOf(freq), eventRecord.getEndDate())))
+                .recurrence(ofNullable(eventRecord.getRecurrenceRule()).map(rule -> recurrenceOf(eventRecord, RecurrenceRule.parse(rule), timeZone)))
+                .timeZone(timeZone)
                 .build();
     }
+
+    private Recurrence recurrenceOf(EventRecord eventRecord, RecurrenceRule rule, Optional<ZoneId> timeZone) {
+        return recurrences
+                .map(cache -> cache.recurrenceOf(eventRecord.getId(), rule, eventRecord.getEndDate(), timeZone))
+                .orElseGet(() -> new Recurrence(rule, eventRecord.getEndDate(), timeZone));
+    }
 }
@@ -0,0 +1,25 @@
+package com.evgenykochergin.calendar.service.mapper;
+
+import com.evgenykochergin.calendar.db.tables.records.EventExceptionRecord;
+import com.evgenykochergin.calendar.model.type.EventStatus;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.RecordMapper;
+
+import java.time.Duration;
+
+import static java.util.Optional.ofNullable;
+
+public class OccurrenceOverrideMapper implements RecordMapper<EventExceptionRecord, OccurrenceOverride> {
+
+    @Override
+    public @Nullable OccurrenceOverride map(EventExceptionRecord record) {
+        return new OccurrenceOverride(
+                record.getOriginalStartDate(),
+                record.getCancelled(),
+                ofNullable(record.getStartDate()),
+                ofNullable(record.getDuration()).map(Duration::ofMinutes),
+                ofNullable(record.getStatus()).map(EventStatus::valueOf)
+        );
+    }
+}
@@ -6,6 +6,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jooq.RecordUnmapper;
 import org.jooq.exception.MappingException;
 
+import java.time.ZoneId;
+
 public class EventUnmapper implements RecordUnmapper<Event, EventRecord> {
 
     @Override
@@ -19,6 +21,7 @@ public class EventUnmapper implements RecordUnmapper<Event, EventRecord> {
                 .setDuration(event.duration.toMinutes())
                 .setType(event.type.name())
                 .setStatus(event.status.name())
-                .setRecurrenceFreq(event.recurrence.map(recurrence -> recurrence.frequency.name()).orElse(null));
+                .setRecurrenceRule(event.recurrence.map(recurrence -> recurrence.rule.toString()).orElse(null))
+                .setTimeZone(event.timeZone.map(ZoneId::getId).orElse(null));
     }
 }
@@ -0,0 +1,23 @@
+package com.evgenykochergin.calendar.service.unmapper;
+
+import com.evgenykochergin.calendar.db.tables.records.EventExceptionRecord;
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Overrides do not know the series they belong to, so the event id is passed alongside.
+ */
+public class OccurrenceOverrideUnmapper {
+
+    public EventExceptionRecord unmap(UUID eventId, OccurrenceOverride override) {
+        return new EventExceptionRecord()
+                .setEventId(eventId)
+                .setOriginalStartDate(override.originalStartDate())
+                .setCancelled(override.cancelled())
+                .setStartDate(override.startDate().orElse(null))
+                .setDuration(override.duration().map(Duration::toMinutes).orElse(null))
+                .setStatus(override.status().map(Enum::name).orElse(null));
+    }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX event_user_id_start_date_idx ON event(user_id, start_date, id);
+
+CREATE INDEX event_event_details_id_idx ON event(event_details_id);
@@ -0,0 +1,11 @@
+CREATE TABLE outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    recipient_id UUID NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    claimed_by VARCHAR(36),
+    claimed_at TIMESTAMP
+);
+
+CREATE INDEX outbox_claimed_by_idx ON outbox(claimed_by, id);
@@ -0,0 +1,10 @@
+CREATE TABLE event_exception (
+    event_id UUID NOT NULL,
+    original_start_date TIMESTAMP NOT NULL,
+    cancelled BOOLEAN NOT NULL,
+    start_date TIMESTAMP,
+    duration BIGINT,
+    status VARCHAR(50),
+    PRIMARY KEY (event_id, original_start_date),
+    FOREIGN KEY (event_id) REFERENCES event(id)
+);
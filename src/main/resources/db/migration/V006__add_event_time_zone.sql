@@ -0,0 +1 @@
+ALTER TABLE event ADD COLUMN time_zone VARCHAR(64);
@@ -0,0 +1,12 @@
+ALTER TABLE event ADD COLUMN recurrence_rule VARCHAR(256);
+
+UPDATE event SET recurrence_rule = CASE recurrence_freq
+    WHEN 'DAILY' THEN 'FREQ=DAILY'
+    WHEN 'WEEKLY' THEN 'FREQ=WEEKLY'
+    WHEN 'MONTHLY' THEN 'FREQ=MONTHLY'
+    WHEN 'ANNUALLY' THEN 'FREQ=YEARLY'
+    WHEN 'EVERY_WEEKDAY' THEN 'FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR'
+END
+WHERE recurrence_freq IS NOT NULL;
+
+ALTER TABLE event DROP COLUMN recurrence_freq;
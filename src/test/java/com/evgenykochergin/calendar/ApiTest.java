@@ -2,31 +2,55 @@ package com.evgenykochergin.calendar;
 
 import com.evgenykochergin.calendar.model.type.EventStatus;
 import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.service.ConflictSummary;
 import com.evgenykochergin.calendar.service.UserService.CreateUserParams;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.RestAssured;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Base64;
 import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
+import static com.evgenykochergin.calendar.ApplicationSettings.settings;
+import static com.evgenykochergin.calendar.json.Json.CBOR_MAPPER;
 import static com.evgenykochergin.calendar.json.Json.arrayNode;
 import static com.evgenykochergin.calendar.json.Json.objectNode;
 import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PRIVATE;
 import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
 import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
+import static com.evgenykochergin.calendar.service.ConflictCheck.WARN;
 import static com.evgenykochergin.calendar.service.EventService.CreateEventParams.createEventParams;
 import static io.javalin.http.HttpStatus.ACCEPTED;
+import static io.javalin.http.HttpStatus.CONFLICT;
 import static io.javalin.http.HttpStatus.CREATED;
+import static io.javalin.http.HttpStatus.FORBIDDEN;
 import static io.restassured.RestAssured.given;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
 import static java.time.LocalDateTime.parse;
+import static java.util.UUID.randomUUID;
 import static net.javacrumbs.jsonunit.core.Option.IGNORING_ARRAY_ORDER;
 import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.eclipse.jetty.http.HttpStatus.Code.BAD_REQUEST;
 import static org.eclipse.jetty.http.HttpStatus.Code.NO_CONTENT;
 import static org.eclipse.jetty.http.HttpStatus.Code.OK;
+import static org.eclipse.jetty.http.HttpStatus.Code.SERVICE_UNAVAILABLE;
+import static org.eclipse.jetty.http.HttpStatus.Code.TOO_MANY_REQUESTS;
 
 public class ApiTest extends FunctionalTest {
 
@@ -160,6 +184,260 @@ public class ApiTest extends FunctionalTest {
                                                 .put("status", "PENDING")))));
     }
 
+    @Test
+    public void should_create_recurring_event_in_time_zone() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var requestBody = objectNode()
+                .put("name", "test-name")
+                .put("duration", 60)
+                .put("startDate", "2022-10-24T09:00")
+                .put("timeZone", "Europe/Berlin")
+                .<ObjectNode>set("recurrence", objectNode()
+                        .put("frequency", "WEEKLY")
+                        .put("endDate", "2022-11-07T09:00"))
+                .put("visibility", "PUBLIC");
+        final var eventId = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .body(requestBody)
+                .when()
+                .post("/events")
+                .then()
+                .statusCode(CREATED.getCode())
+                .extract()
+                .path("id");
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .queryParam("fromDate", "2022-10-23T00:00")
+                .queryParam("toDate", "2022-11-08T00:00")
+                .when()
+                .get("/users/{userId}/events", organizer.id)
+                .then()
+                .statusCode(OK.getCode())
+                .extract()
+                .response();
+
+        // then
+        final var events = response.as(JsonNode.class);
+        assertThat(events).hasSize(3);
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.get("id").asText()).isEqualTo(eventId);
+            assertThat(event.get("timeZone").asText()).isEqualTo("Europe/Berlin");
+        });
+        assertThat(events).extracting(event -> event.get("startDate").asText())
+                .containsExactlyInAnyOrder("2022-10-24T07:00", "2022-10-31T08:00", "2022-11-07T08:00");
+    }
+
+    @Test
+    public void should_create_recurring_event_from_rule_with_count() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var requestBody = objectNode()
+                .put("name", "test-name")
+                .put("duration", 60)
+                .put("startDate", "2022-10-18T09:00")
+                .<ObjectNode>set("recurrence", objectNode()
+                        .put("rule", "FREQ=WEEKLY;BYDAY=TU,TH;COUNT=4"))
+                .put("visibility", "PUBLIC");
+        final var created = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .body(requestBody)
+                .when()
+                .post("/events")
+                .then()
+                .statusCode(CREATED.getCode())
+                .extract()
+                .response()
+                .as(JsonNode.class);
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .queryParam("fromDate", "2022-10-17T00:00")
+                .queryParam("toDate", "2022-11-30T00:00")
+                .when()
+                .get("/users/{userId}/events", organizer.id)
+                .then()
+                .statusCode(OK.getCode())
+                .extract()
+                .response();
+
+        // then
+        assertThatJson(created.get("recurrence"))
+                .isEqualTo(objectNode()
+                        .put("rule", "FREQ=WEEKLY;BYDAY=TU,TH;COUNT=4")
+                        .put("endDate", "2022-10-27T09:00"));
+        assertThat(response.as(JsonNode.class)).extracting(event -> event.get("startDate").asText())
+                .containsExactlyInAnyOrder("2022-10-18T09:00", "2022-10-20T09:00", "2022-10-25T09:00", "2022-10-27T09:00");
+    }
+
+    @Test
+    public void should_report_conflicts_when_creating_event_with_warning() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var existingEvent = eventService.createEvent(createEventParams()
+                .organizerId(attendee.id)
+                .name("daily")
+                .startDate(parse("2022-10-17T05:00"))
+                .duration(ofMinutes(60))
+                .visibility(PRIVATE)
+                .recurrence(new Recurrence(DAILY, parse("2022-12-31T05:00")))
+                .build());
+        final var requestBody = objectNode()
+                .put("name", "test-name")
+                .put("duration", 60)
+                .put("startDate", "2022-11-02T05:30:00")
+                .put("visibility", "PUBLIC")
+                .put("conflictCheck", "WARN")
+                .set("attendeeIds", arrayNode().add(attendee.id.toString()));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .body(requestBody)
+                .when()
+                .post("/events")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(CREATED.getCode());
+        assertThatJson(response.as(JsonNode.class).get("conflicts"))
+                .isEqualTo(arrayNode()
+                        .add(objectNode()
+                                .put("userId", attendee.id.toString())
+                                .put("count", 1)
+                                .set("eventIds", arrayNode().add(existingEvent.id.toString()))));
+    }
+
+    @Test
+    public void should_not_report_conflict_with_cancelled_occurrence() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var existingEvent = eventService.createEvent(createEventParams()
+                .organizerId(attendee.id)
+                .name("daily")
+                .startDate(parse("2022-10-17T05:00"))
+                .duration(ofMinutes(60))
+                .visibility(PUBLIC)
+                .recurrence(new Recurrence(DAILY, parse("2022-12-31T05:00")))
+                .build());
+        eventService.cancelOccurrence(existingEvent.id, parse("2022-11-02T05:00"), attendee.id);
+
+        // when
+        final var createdEvent = eventService.createEventWithConflictCheck(createEventParams()
+                .organizerId(organizer.id)
+                .name("single")
+                .startDate(parse("2022-11-02T05:30"))
+                .duration(ofMinutes(60))
+                .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                .visibility(PUBLIC)
+                .conflictCheck(WARN)
+                .build());
+
+        // then
+        assertThat(createdEvent.conflicts())
+                .isEmpty();
+    }
+
+    @Test
+    public void should_report_conflict_with_moved_occurrence_at_its_new_time() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var existingEvent = eventService.createEvent(createEventParams()
+                .organizerId(attendee.id)
+                .name("daily")
+                .startDate(parse("2022-10-17T05:00"))
+                .duration(ofMinutes(60))
+                .visibility(PUBLIC)
+                .recurrence(new Recurrence(DAILY, parse("2022-10-31T05:00")))
+                .build());
+        eventService.moveOccurrence(existingEvent.id, parse("2022-10-31T05:00"), parse("2022-11-02T05:00"), ofMinutes(60), attendee.id);
+
+        // when
+        final var atOriginalTime = eventService.createEventWithConflictCheck(createEventParams()
+                .organizerId(organizer.id)
+                .name("original")
+                .startDate(parse("2022-10-31T05:30"))
+                .duration(ofMinutes(60))
+                .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                .visibility(PUBLIC)
+                .conflictCheck(WARN)
+                .build());
+        final var atNewTime = eventService.createEventWithConflictCheck(createEventParams()
+                .organizerId(organizer.id)
+                .name("new")
+                .startDate(parse("2022-11-02T05:30"))
+                .duration(ofMinutes(60))
+                .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                .visibility(PUBLIC)
+                .conflictCheck(WARN)
+                .build());
+
+        // then
+        assertThat(atOriginalTime.conflicts())
+                .isEmpty();
+        assertThat(atNewTime.conflicts())
+                .containsExactly(new ConflictSummary(attendee.id, List.of(existingEvent.id)));
+    }
+
+    @Test
+    public void should_reject_conflicting_event() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        eventService.createEvent(createEventParams()
+                .organizerId(organizer.id)
+                .name("weekly")
+                .startDate(parse("2022-10-18T05:00"))
+                .duration(ofMinutes(60))
+                .visibility(PUBLIC)
+                .recurrence(new Recurrence(WEEKLY, parse("2023-10-18T05:00")))
+                .build());
+        final var requestBody = objectNode()
+                .put("name", "test-name")
+                .put("duration", 30)
+                .put("startDate", "2023-03-14T05:45:00")
+                .put("visibility", "PUBLIC")
+                .put("conflictCheck", "REJECT")
+                .set("attendeeIds", arrayNode().add(attendee.id.toString()));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .body(requestBody)
+                .when()
+                .post("/events")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(CONFLICT.getCode());
+        assertThat(eventService.getUserEvents(attendee.id, parse("2023-03-14T00:00"), parse("2023-03-15T00:00")))
+                .isEmpty();
+    }
+
     @Test
     public void should_accept_event() {
         // given
@@ -228,6 +506,155 @@ public class ApiTest extends FunctionalTest {
                 .isEqualTo(EventStatus.DECLINED);
     }
 
+    @Test
+    public void should_create_events_in_batch() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var missingAttendeeId = randomUUID();
+        final var requestBody = objectNode()
+                .set("events", arrayNode()
+                        .add(objectNode()
+                                .put("name", "valid")
+                                .put("duration", 60)
+                                .put("startDate", "2022-10-18T05:00")
+                                .put("visibility", "PUBLIC")
+                                .set("attendeeIds", arrayNode().add(attendee.id.toString())))
+                        .add(objectNode()
+                                .put("name", "invalid")
+                                .put("duration", 60)
+                                .put("startDate", "2022-10-18T07:00")
+                                .put("visibility", "PUBLIC")
+                                .set("attendeeIds", arrayNode().add(missingAttendeeId.toString()))));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .body(requestBody)
+                .when()
+                .post("/events/batch")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThat(response.jsonPath().getList("success"))
+                .containsExactly(true, false);
+        assertThat(response.jsonPath().getString("[1].error"))
+                .contains(missingAttendeeId.toString());
+        final var event = eventService.getEventById(UUID.fromString(response.jsonPath().getString("[0].result.id")));
+        assertThat(eventService.getUserEventStatusesByEventDetailsId(event.eventDetailsId))
+                .extracting(userEventStatus -> userEventStatus.userId)
+                .containsExactlyInAnyOrder(organizer.id, attendee.id);
+    }
+
+    @Test
+    public void should_apply_rsvps_in_batch() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var firstEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("first")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PUBLIC)
+                        .build());
+        final var secondEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("second")
+                        .startDate(date("2022-10-18T07:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PUBLIC)
+                        .build());
+        final var firstEventForAttendee = eventService.getEventForUser(firstEvent.eventDetailsId, attendee.id);
+        final var secondEventForAttendee = eventService.getEventForUser(secondEvent.eventDetailsId, attendee.id);
+        final var requestBody = objectNode()
+                .set("rsvps", arrayNode()
+                        .add(objectNode()
+                                .put("eventId", firstEventForAttendee.id.toString())
+                                .put("status", "ACCEPTED"))
+                        .add(objectNode()
+                                .put("eventId", secondEventForAttendee.id.toString())
+                                .put("status", "DECLINED"))
+                        .add(objectNode()
+                                .put("eventId", randomUUID().toString())
+                                .put("status", "ACCEPTED")));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(attendee.username, attendee.password)
+                .body(requestBody)
+                .when()
+                .post("/events/rsvp/batch")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThat(response.jsonPath().getList("success"))
+                .containsExactly(true, true, false);
+        assertThat(eventService.getEventById(firstEventForAttendee.id).status)
+                .isEqualTo(EventStatus.ACCEPTED);
+        assertThat(eventService.getEventById(secondEventForAttendee.id).status)
+                .isEqualTo(EventStatus.DECLINED);
+    }
+
+    @Test
+    public void should_reject_batch_answering_same_event_twice() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var event = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("event")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PUBLIC)
+                        .build());
+        final var eventForAttendee = eventService.getEventForUser(event.eventDetailsId, attendee.id);
+        final var requestBody = objectNode()
+                .set("rsvps", arrayNode()
+                        .add(objectNode()
+                                .put("eventId", eventForAttendee.id.toString())
+                                .put("status", "ACCEPTED"))
+                        .add(objectNode()
+                                .put("eventId", eventForAttendee.id.toString())
+                                .put("status", "DECLINED")));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(attendee.username, attendee.password)
+                .body(requestBody)
+                .when()
+                .post("/events/rsvp/batch")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(BAD_REQUEST.getCode());
+        assertThat(eventService.getEventById(eventForAttendee.id).status)
+                .isEqualTo(EventStatus.PENDING);
+    }
+
     @Test
     public void should_get_user_events() {
         // given
@@ -331,33 +758,295 @@ public class ApiTest extends FunctionalTest {
     }
 
     @Test
-    public void should_get_user_event_with_hidden_details_when_event_is_private() {
+    public void should_cancel_and_move_single_occurrences_of_recurring_event() {
         // given
         final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
         final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
-        final var user = userService.createUser(new CreateUserParams("user", "user-password"));
-        final var singleEvent = eventService.createEvent(
+        final var recurringEvent = eventService.createEvent(
                 createEventParams()
                         .organizerId(organizer.id)
-                        .name("single")
-                        .startDate(date("2022-10-18T05:00"))
-                        .duration(ofMinutes(60))
+                        .name("recurring")
+                        .startDate(date("2022-10-17T10:00"))
+                        .duration(ofMinutes(30))
                         .attendeeIds(new TreeSet<>(List.of(attendee.id)))
-                        .visibility(PRIVATE)
+                        .visibility(PUBLIC)
+                        .recurrence(new Recurrence(DAILY, date("2022-11-17T10:00")))
                         .build());
+
         // when
-        final var response = given()
+        final var cancelResponse = given()
                 .auth()
                 .preemptive()
-                .basic(user.username, user.password)
-                .queryParam("fromDate", "2022-10-16T00:00")
-                .queryParam("toDate", "2022-10-19T00:00")
+                .basic(organizer.username, organizer.password)
                 .when()
-                .get("/users/{userId}/events", organizer.id)
+                .post("/events/{eventId}/occurrences/{originalStartDate}/cancel", recurringEvent.id, "2022-10-18T10:00")
                 .then()
                 .extract()
                 .response();
-
+        final var moveResponse = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .body(objectNode()
+                        .put("startDate", "2022-10-19T15:00")
+                        .put("duration", 45))
+                .when()
+                .post("/events/{eventId}/occurrences/{originalStartDate}/move", recurringEvent.id, "2022-10-19T10:00")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(cancelResponse.statusCode())
+                .isEqualTo(ACCEPTED.getCode());
+        assertThat(moveResponse.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThat(moveResponse.jsonPath().getString("originalStartDate"))
+                .isEqualTo("2022-10-19T10:00");
+        final var attendeeEvents = eventService.getUserEvents(attendee.id, date("2022-10-17T00:00"), date("2022-10-21T00:00"));
+        assertThat(attendeeEvents)
+                .extracting(event -> event.startDate)
+                .containsExactly(date("2022-10-17T10:00"), date("2022-10-19T15:00"), date("2022-10-20T10:00"));
+        assertThat(eventService.getBusyTimeSlots(List.of(attendee.id), date("2022-10-19T00:00"), date("2022-10-20T00:00")).get(attendee.id))
+                .extracting(timeSlot -> timeSlot.startDate())
+                .containsExactly(date("2022-10-19T15:00"));
+    }
+
+    @Test
+    public void should_not_cancel_or_move_occurrence_when_not_organizer() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var recurringEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("recurring")
+                        .startDate(date("2022-10-17T10:00"))
+                        .duration(ofMinutes(30))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PUBLIC)
+                        .recurrence(new Recurrence(DAILY, date("2022-11-17T10:00")))
+                        .build());
+
+        // when
+        final var cancelResponse = given()
+                .auth()
+                .preemptive()
+                .basic(attendee.username, attendee.password)
+                .when()
+                .post("/events/{eventId}/occurrences/{originalStartDate}/cancel", recurringEvent.id, "2022-10-18T10:00")
+                .then()
+                .extract()
+                .response();
+        final var moveResponse = given()
+                .auth()
+                .preemptive()
+                .basic(attendee.username, attendee.password)
+                .body(objectNode()
+                        .put("startDate", "2022-10-19T15:00")
+                        .put("duration", 45))
+                .when()
+                .post("/events/{eventId}/occurrences/{originalStartDate}/move", recurringEvent.id, "2022-10-19T10:00")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(cancelResponse.statusCode())
+                .isEqualTo(FORBIDDEN.getCode());
+        assertThat(moveResponse.statusCode())
+                .isEqualTo(FORBIDDEN.getCode());
+        assertThat(eventService.getUserEvents(organizer.id, date("2022-10-17T00:00"), date("2022-10-20T00:00")))
+                .extracting(event -> event.startDate)
+                .containsExactly(date("2022-10-17T10:00"), date("2022-10-18T10:00"), date("2022-10-19T10:00"));
+    }
+
+    @Test
+    public void should_reject_override_of_missing_occurrence() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var recurringEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("recurring")
+                        .startDate(date("2022-10-17T10:00"))
+                        .duration(ofMinutes(30))
+                        .visibility(PUBLIC)
+                        .recurrence(new Recurrence(DAILY, date("2022-11-17T10:00")))
+                        .build());
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .when()
+                .post("/events/{eventId}/occurrences/{originalStartDate}/decline", recurringEvent.id, "2022-10-18T11:00")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(CONFLICT.getCode());
+    }
+
+    @Test
+    public void should_get_user_events_page_by_page() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var singleEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("single")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PUBLIC)
+                        .build());
+        final var recurringEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("recurring")
+                        .startDate(date("2022-10-17T10:00"))
+                        .duration(ofMinutes(30))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PUBLIC)
+                        .recurrence(new Recurrence(DAILY, date("2022-11-17T10:00")))
+                        .build());
+
+        // when
+        final var firstPage = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .queryParam("fromDate", "2022-10-16T00:00")
+                .queryParam("toDate", "2022-10-19T00:00")
+                .queryParam("limit", 2)
+                .when()
+                .get("/users/{userId}/events", organizer.id)
+                .then()
+                .extract()
+                .response();
+        final var secondPage = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .queryParam("fromDate", "2022-10-16T00:00")
+                .queryParam("toDate", "2022-10-19T00:00")
+                .queryParam("limit", 2)
+                .queryParam("cursor", firstPage.header("X-Next-Cursor"))
+                .when()
+                .get("/users/{userId}/events", organizer.id)
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(firstPage.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThat(firstPage.jsonPath().getList("startDate"))
+                .containsExactly("2022-10-17T10:00", "2022-10-18T05:00");
+        assertThat(firstPage.jsonPath().getList("id"))
+                .containsExactly(recurringEvent.id.toString(), singleEvent.id.toString());
+        assertThat(secondPage.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThat(secondPage.jsonPath().getList("startDate"))
+                .containsExactly("2022-10-18T10:00");
+        assertThat(secondPage.header("X-Next-Cursor"))
+                .isNull();
+    }
+
+    @Test
+    public void should_reject_malformed_page_limit() {
+        // given
+        final var user = userService.createUser(new CreateUserParams("user", "user-password"));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user.username, user.password)
+                .queryParam("limit", "ten")
+                .when()
+                .get("/users/{userId}/events", user.id)
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(BAD_REQUEST.getCode());
+    }
+
+    @Test
+    public void should_get_only_requested_event_fields() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var event = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("single")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PRIVATE)
+                        .build());
+        final var eventForAttendee = eventService.getEventForUser(event.eventDetailsId, attendee.id);
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(attendee.username, attendee.password)
+                .queryParam("fields", "startDate,endDate,details.name")
+                .when()
+                .get("/events/{eventId}", eventForAttendee.id)
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThatJson(response.as(JsonNode.class))
+                .isEqualTo(objectNode()
+                        .put("startDate", "2022-10-18T05:00")
+                        .put("endDate", "2022-10-18T06:00")
+                        .set("details", objectNode()
+                                .put("name", "single")));
+    }
+
+    @Test
+    public void should_get_user_event_with_hidden_details_when_event_is_private() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var user = userService.createUser(new CreateUserParams("user", "user-password"));
+        final var singleEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("single")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PRIVATE)
+                        .build());
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user.username, user.password)
+                .queryParam("fromDate", "2022-10-16T00:00")
+                .queryParam("toDate", "2022-10-19T00:00")
+                .when()
+                .get("/users/{userId}/events", organizer.id)
+                .then()
+                .extract()
+                .response();
+
         // then
         assertThat(response.statusCode())
                 .isEqualTo(OK.getCode());
@@ -372,6 +1061,196 @@ public class ApiTest extends FunctionalTest {
                                 .put("type", "SINGLE")));
     }
 
+    @Test
+    public void should_get_agendas_of_several_users() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var user = userService.createUser(new CreateUserParams("user", "user-password"));
+        final var privateEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("private")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                        .visibility(PRIVATE)
+                        .build());
+        final var requestBody = objectNode()
+                .<ObjectNode>set("userIds", arrayNode().add(organizer.id.toString()).add(attendee.id.toString()).add(user.id.toString()))
+                .put("fromDate", "2022-10-16T00:00")
+                .put("toDate", "2022-10-19T00:00");
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user.username, user.password)
+                .body(requestBody)
+                .when()
+                .post("/agendas")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        final var attendeeEvent = eventService.getEventForUser(privateEvent.eventDetailsId, attendee.id);
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThatJson(response.as(JsonNode.class))
+                .isEqualTo(arrayNode()
+                        .add(objectNode()
+                                .put("userId", organizer.id.toString())
+                                .set("events", arrayNode()
+                                        .add(objectNode()
+                                                .put("id", privateEvent.id.toString())
+                                                .put("startDate", "2022-10-18T05:00")
+                                                .put("endDate", "2022-10-18T06:00")
+                                                .put("duration", 60)
+                                                .put("type", "SINGLE"))))
+                        .add(objectNode()
+                                .put("userId", attendee.id.toString())
+                                .set("events", arrayNode()
+                                        .add(objectNode()
+                                                .put("id", attendeeEvent.id.toString())
+                                                .put("startDate", "2022-10-18T05:00")
+                                                .put("endDate", "2022-10-18T06:00")
+                                                .put("duration", 60)
+                                                .put("type", "SINGLE"))))
+                        .add(objectNode()
+                                .put("userId", user.id.toString())
+                                .set("events", arrayNode())));
+    }
+
+    @Test
+    public void should_get_merged_busy_time_slots() {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var user = userService.createUser(new CreateUserParams("user", "user-password"));
+        eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("single")
+                        .startDate(date("2022-10-17T10:30"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>())
+                        .visibility(PRIVATE)
+                        .build());
+        eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("recurring")
+                        .startDate(date("2022-10-17T10:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>())
+                        .visibility(PUBLIC)
+                        .recurrence(new Recurrence(DAILY, date("2022-11-17T10:00")))
+                        .build());
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user.username, user.password)
+                .queryParam("fromDate", "2022-10-17T00:00")
+                .queryParam("toDate", "2022-10-19T00:00")
+                .when()
+                .get("/users/{userId}/freebusy", organizer.id)
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThatJson(response.as(JsonNode.class))
+                .isEqualTo(objectNode()
+                        .put("userId", organizer.id.toString())
+                        .set("busy", arrayNode()
+                                .add(objectNode()
+                                        .put("startDate", "2022-10-17T10:00")
+                                        .put("endDate", "2022-10-17T11:30"))
+                                .add(objectNode()
+                                        .put("startDate", "2022-10-18T10:00")
+                                        .put("endDate", "2022-10-18T11:00"))));
+    }
+
+    @Test
+    public void should_reject_busy_time_slots_of_unknown_user() {
+        // given
+        final var user = userService.createUser(new CreateUserParams("user", "user-password"));
+        final var requestBody = objectNode()
+                .put("fromDate", "2022-10-17T00:00")
+                .put("toDate", "2022-10-19T00:00")
+                .set("userIds", arrayNode()
+                        .add(user.id.toString())
+                        .add(randomUUID().toString()));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user.username, user.password)
+                .body(requestBody)
+                .when()
+                .post("/freebusy")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(CONFLICT.getCode());
+    }
+
+    @Test
+    public void should_get_event_as_cbor_when_requested() throws IOException {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var event = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("single")
+                        .startDate(date("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>())
+                        .visibility(PUBLIC)
+                        .build());
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(organizer.username, organizer.password)
+                .header("Accept", "application/cbor")
+                .when()
+                .get("/events/{eventId}", event.id)
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThat(response.contentType())
+                .startsWith("application/cbor");
+        assertThatJson(CBOR_MAPPER.readTree(response.asByteArray()))
+                .isEqualTo(objectNode()
+                        .put("id", event.id.toString())
+                        .put("startDate", "2022-10-18T05:00")
+                        .put("endDate", "2022-10-18T06:00")
+                        .put("duration", 60)
+                        .put("type", "SINGLE")
+                        .set("details", objectNode()
+                                .put("name", "single")
+                                .put("organizerId", organizer.id.toString())
+                                .put("visibility", "PUBLIC")
+                                .set("attendees", arrayNode()
+                                        .add(objectNode()
+                                                .put("userId", organizer.id.toString())
+                                                .put("status", "ACCEPTED")))));
+    }
+
     @Test
     public void should_find_free_time_slot() {
         // given
@@ -470,6 +1349,280 @@ public class ApiTest extends FunctionalTest {
                 .isEqualTo(NO_CONTENT.getCode());
     }
 
+    @Test
+    public void should_find_best_time_slots() {
+        // given
+        final var user1 = userService.createUser(new CreateUserParams("user1", "password"));
+        final var user2 = userService.createUser(new CreateUserParams("user2", "password"));
+        eventService.createEvent(
+                createEventParams()
+                        .organizerId(user1.id)
+                        .name("single")
+                        .startDate(date("2022-10-17T12:30"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>())
+                        .visibility(PUBLIC)
+                        .build());
+        eventService.createEvent(
+                createEventParams()
+                        .organizerId(user2.id)
+                        .name("recurring")
+                        .startDate(date("2022-10-17T10:00"))
+                        .duration(ofMinutes(120))
+                        .attendeeIds(new TreeSet<>())
+                        .visibility(PUBLIC)
+                        .recurrence(new Recurrence(DAILY, date("2022-11-17T10:00")))
+                        .build());
+        final var requestBody = objectNode()
+                .<ObjectNode>set("requiredUserIds", arrayNode().add(user1.id.toString()))
+                .<ObjectNode>set("optionalUserIds", arrayNode().add(user2.id.toString()))
+                .put("duration", 60)
+                .put("fromDate", "2022-10-17T09:30")
+                .put("toDate", "2022-10-17T14:00");
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user1.username, user1.password)
+                .body(requestBody)
+                .when()
+                .post("/events/best-time-slots")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThatJson(response.as(JsonNode.class))
+                .isEqualTo(objectNode()
+                        .put("freeOptionalUsers", 0)
+                        .put("optionalUsers", 1)
+                        .set("timeSlots", arrayNode()
+                                .add(objectNode()
+                                        .put("startDate", "2022-10-17T09:30")
+                                        .put("endDate", "2022-10-17T12:30"))));
+    }
+
+    @Test
+    public void should_count_free_users_per_bucket() {
+        // given
+        final var user1 = userService.createUser(new CreateUserParams("user1", "password"));
+        final var user2 = userService.createUser(new CreateUserParams("user2", "password"));
+        eventService.createEvent(
+                createEventParams()
+                        .organizerId(user1.id)
+                        .name("single")
+                        .startDate(date("2022-10-17T12:30"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>())
+                        .visibility(PUBLIC)
+                        .build());
+        final var requestBody = objectNode()
+                .<ObjectNode>set("userIds", arrayNode().add(user1.id.toString()).add(user2.id.toString()))
+                .put("fromDate", "2022-10-17T12:00")
+                .put("toDate", "2022-10-17T14:00")
+                .put("bucketMinutes", 30);
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user1.username, user1.password)
+                .body(requestBody)
+                .when()
+                .post("/availability")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThatJson(response.as(JsonNode.class))
+                .isEqualTo(objectNode()
+                        .put("fromDate", "2022-10-17T12:00")
+                        .put("bucketMinutes", 30)
+                        .put("users", 2)
+                        .set("freeCounts", arrayNode().add(2).add(1).add(1).add(2)));
+    }
+
+    @Test
+    public void should_reject_free_time_slot_search_exceeding_work_budget() {
+        // given
+        final var user = userService.createUser(new CreateUserParams("user", "password"));
+        final var userIds = arrayNode();
+        for (int index = 0; index < 101; index++) {
+            userIds.add(randomUUID().toString());
+        }
+        final var requestBody = objectNode()
+                .<ObjectNode>set("userIds", userIds)
+                .put("duration", 60)
+                .put("fromDate", "2022-01-01T00:00")
+                .put("toDate", "2022-12-31T00:00");
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user.username, user.password)
+                .body(requestBody)
+                .when()
+                .post("/events/free-time-slot")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(TOO_MANY_REQUESTS.getCode());
+    }
+
+    @Test
+    public void should_push_invitation_to_attendee_stream() throws Exception {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var request = HttpRequest.newBuilder(URI.create(RestAssured.baseURI + ":" + RestAssured.port + "/users/" + attendee.id + "/stream"))
+                .header("Authorization", "Basic " + Base64.getEncoder().encodeToString((attendee.username + ":" + attendee.password).getBytes(UTF_8)))
+                .build();
+        try (final var lines = HttpClient.newHttpClient().send(request, BodyHandlers.ofLines()).body()) {
+            while (notificationHub.subscriberCount(attendee.id) == 0) {
+                Thread.sleep(10);
+            }
+
+            // when
+            final var event = eventService.createEvent(
+                    createEventParams()
+                            .organizerId(organizer.id)
+                            .name("single")
+                            .startDate(date("2022-10-18T05:00"))
+                            .duration(ofMinutes(60))
+                            .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                            .visibility(PRIVATE)
+                            .build());
+
+            // then
+            final var received = assertTimeoutPreemptively(ofSeconds(5), () -> lines
+                    .dropWhile(line -> !line.equals("event: invitation"))
+                    .filter(line -> line.startsWith("data: "))
+                    .findFirst()
+                    .orElseThrow());
+            assertThatJson(received.substring("data: ".length()))
+                    .isEqualTo(objectNode()
+                            .put("eventId", "${json-unit.ignore}")
+                            .put("eventDetailsId", event.eventDetailsId.toString())
+                            .put("organizerId", organizer.id.toString())
+                            .put("startDate", "2022-10-18T05:00")
+                            .put("endDate", "2022-10-18T06:00"));
+        }
+    }
+
+    @Test
+    public void should_not_subscribe_to_stream_of_another_user() {
+        // given
+        final var user1 = userService.createUser(new CreateUserParams("user1", "password"));
+        final var user2 = userService.createUser(new CreateUserParams("user2", "password"));
+
+        // when
+        final var response = given()
+                .auth()
+                .preemptive()
+                .basic(user1.username, user1.password)
+                .when()
+                .get("/users/{userId}/stream", user2.id)
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(FORBIDDEN.getCode());
+        assertThat(notificationHub.subscriberCount(user2.id))
+                .isZero();
+    }
+
+    @Test
+    public void should_report_ready_without_warm_up() {
+        // when
+        final var response = given()
+                .when()
+                .get("/ready")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+    }
+
+    @Test
+    public void should_report_not_ready_until_warmed_up() {
+        // given
+        final var warmUpReleased = new CountDownLatch(1);
+        final var warmingUpApp = new Application(settings().jdbcUrl("jdbc:h2:mem:calendar_warming_up").build(), Optional.of(new WarmUp(ofSeconds(1)) {
+            @Override
+            public int run() {
+                try {
+                    warmUpReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 1;
+            }
+        }));
+        final var port = findFreePort();
+        warmingUpApp.start(port);
+        try {
+            // when
+            final var warmingUpStatus = given().port(port).when().get("/ready").then().extract().statusCode();
+            warmUpReleased.countDown();
+
+            // then
+            assertThat(warmingUpStatus)
+                    .isEqualTo(SERVICE_UNAVAILABLE.getCode());
+            assertTimeoutPreemptively(ofSeconds(5), () -> {
+                while (given().port(port).when().get("/ready").then().extract().statusCode() != OK.getCode()) {
+                    Thread.sleep(10);
+                }
+            });
+        } finally {
+            warmingUpApp.stop();
+        }
+    }
+
+    @Test
+    public void should_get_metrics_without_authentication() {
+        // when
+        final var response = given()
+                .when()
+                .get("/metrics")
+                .then()
+                .extract()
+                .response();
+
+        // then
+        assertThat(response.statusCode())
+                .isEqualTo(OK.getCode());
+        assertThatJson(response.as(JsonNode.class))
+                .isEqualTo(objectNode()
+                        .put("shards", 1)
+                        .put("dbConnectionWaiting", 0)
+                        .put("dbConnectionAverageWaitMillis", "${json-unit.ignore}")
+                        .put("throttledRequests", "${json-unit.ignore}")
+                        .put("shedRequests", "${json-unit.ignore}")
+                        .put("streamSubscribers", "${json-unit.ignore}")
+                        .put("slowStreamConsumers", "${json-unit.ignore}")
+                        .put("readModelRepairedUsers", 0)
+                        .put("rsvpFlushes", 0)
+                        .put("collapsedRsvps", 0)
+                        .put("outbox", "${json-unit.ignore}")
+                        .put("ioExecutor", "${json-unit.ignore}")
+                        .put("cpuExecutor", "${json-unit.ignore}"));
+    }
+
     private static LocalDateTime date(String string) {
         return parse(string);
     }
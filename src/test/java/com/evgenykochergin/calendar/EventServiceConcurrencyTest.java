@@ -0,0 +1,87 @@
+package com.evgenykochergin.calendar;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.EventDetails;
+import com.evgenykochergin.calendar.model.type.EventStatus;
+import com.evgenykochergin.calendar.service.EventListener;
+import com.evgenykochergin.calendar.service.EventService.RsvpParams;
+import com.evgenykochergin.calendar.service.UserService.CreateUserParams;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
+import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.model.type.EventStatus.DECLINED;
+import static com.evgenykochergin.calendar.service.EventService.CreateEventParams.createEventParams;
+import static java.time.Duration.ofMinutes;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventServiceConcurrencyTest extends FunctionalTest {
+
+    @Test
+    public void should_notify_listeners_in_commit_order_under_concurrent_rsvps() throws Exception {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var attendee = userService.createUser(new CreateUserParams("attendee", "attendee-password"));
+        final var attendeeEventIds = new ArrayList<UUID>();
+        for (int index = 0; index < 10; index++) {
+            final var organizerEvent = eventService.createEvent(
+                    createEventParams()
+                            .organizerId(organizer.id)
+                            .name("event-" + index)
+                            .startDate(LocalDateTime.parse("2022-10-18T05:00").plusHours(index))
+                            .duration(ofMinutes(60))
+                            .attendeeIds(new TreeSet<>(List.of(attendee.id)))
+                            .visibility(PUBLIC)
+                            .build());
+            attendeeEventIds.add(eventService.getEventForUser(organizerEvent.eventDetailsId, attendee.id).id);
+        }
+        final Map<UUID, EventStatus> lastNotifiedStatuses = new ConcurrentHashMap<>();
+        final var listener = new EventListener() {
+            @Override
+            public void onEventStatusChanged(EventDetails eventDetails, Event event) {
+                lastNotifiedStatuses.put(event.id, event.status);
+            }
+        };
+        eventService.addListener(listener);
+        final var executor = Executors.newFixedThreadPool(8);
+
+        // when
+        final var futures = new ArrayList<Future<?>>();
+        for (int thread = 0; thread < 8; thread++) {
+            futures.add(executor.submit(() -> {
+                final var random = ThreadLocalRandom.current();
+                for (int index = 0; index < 50; index++) {
+                    final var eventId = attendeeEventIds.get(random.nextInt(attendeeEventIds.size()));
+                    switch (random.nextInt(3)) {
+                        case 0 -> eventService.acceptEvent(eventId);
+                        case 1 -> eventService.declineEvent(eventId);
+                        default -> eventService.applyRsvps(List.of(new RsvpParams(eventId, random.nextBoolean() ? ACCEPTED : DECLINED)));
+                    }
+                }
+            }));
+        }
+        for (final var future : futures) {
+            future.get(60, SECONDS);
+        }
+        executor.shutdown();
+        eventService.removeListener(listener);
+
+        // then
+        for (final var eventId : attendeeEventIds) {
+            assertThat(lastNotifiedStatuses.get(eventId))
+                    .isEqualTo(eventService.getEventById(eventId).status);
+        }
+    }
+}
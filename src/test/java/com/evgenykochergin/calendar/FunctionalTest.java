@@ -1,6 +1,7 @@
 package com.evgenykochergin.calendar;
 
 import com.evgenykochergin.calendar.db.tables.Event;
+import com.evgenykochergin.calendar.notification.NotificationHub;
 import com.evgenykochergin.calendar.service.EventService;
 import com.evgenykochergin.calendar.service.UserService;
 import io.restassured.RestAssured;
@@ -12,6 +13,8 @@ import java.io.IOException;
 import java.net.ServerSocket;
 
 import static com.evgenykochergin.calendar.db.tables.EventDetails.EVENT_DETAILS;
+import static com.evgenykochergin.calendar.db.tables.EventException.EVENT_EXCEPTION;
+import static com.evgenykochergin.calendar.db.tables.Outbox.OUTBOX;
 import static com.evgenykochergin.calendar.db.tables.User.USER;
 
 public class FunctionalTest {
@@ -19,6 +22,7 @@ public class FunctionalTest {
     private static final Application app = new Application();
     protected final UserService userService = app.userService;
     protected final EventService eventService = app.eventService;
+    protected final NotificationHub notificationHub = app.notificationHub;
 
     @BeforeAll
     static void beforeAll() {
@@ -33,7 +37,7 @@ public class FunctionalTest {
         cleanup(app.db);
     }
 
-    private static int findFreePort() {
+    static int findFreePort() {
         try (ServerSocket socket = new ServerSocket(0);) {
             return socket.getLocalPort();
         } catch (IOException e) {
@@ -42,6 +46,8 @@ public class FunctionalTest {
     }
 
     private static void cleanup(DSLContext db) {
+        db.deleteFrom(OUTBOX).execute();
+        db.deleteFrom(EVENT_EXCEPTION).execute();
         db.deleteFrom(Event.EVENT).execute();
         db.deleteFrom(EVENT_DETAILS).execute();
         db.deleteFrom(USER).execute();
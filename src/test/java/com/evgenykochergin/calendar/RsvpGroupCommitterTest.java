@@ -0,0 +1,76 @@
+package com.evgenykochergin.calendar;
+
+import com.evgenykochergin.calendar.error.EventNotFoundException;
+import com.evgenykochergin.calendar.service.RsvpGroupCommitter;
+import com.evgenykochergin.calendar.service.UserService.CreateUserParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
+import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.model.type.EventStatus.DECLINED;
+import static com.evgenykochergin.calendar.service.EventService.CreateEventParams.createEventParams;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RsvpGroupCommitterTest extends FunctionalTest {
+
+    private final RsvpGroupCommitter committer = new RsvpGroupCommitter(eventService, 100, ofMillis(200));
+
+    @AfterEach
+    void shutdown() {
+        committer.shutdown();
+    }
+
+    @Test
+    public void should_commit_queued_rsvps_in_one_flush_and_collapse_repeated_answers() throws Exception {
+        // given
+        final var organizer = userService.createUser(new CreateUserParams("organizer", "organizer-password"));
+        final var first = userService.createUser(new CreateUserParams("first", "first-password"));
+        final var second = userService.createUser(new CreateUserParams("second", "second-password"));
+        final var organizerEvent = eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("all-hands")
+                        .startDate(LocalDateTime.parse("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(List.of(first.id, second.id)))
+                        .visibility(PUBLIC)
+                        .build());
+        final var firstEvent = eventService.getEventForUser(organizerEvent.eventDetailsId, first.id);
+        final var secondEvent = eventService.getEventForUser(organizerEvent.eventDetailsId, second.id);
+
+        // when
+        final var firstAccepted = committer.submit(firstEvent.id, ACCEPTED);
+        final var firstDeclined = committer.submit(firstEvent.id, DECLINED);
+        final var secondAccepted = committer.submit(secondEvent.id, ACCEPTED);
+
+        // then
+        assertThat(firstAccepted.get(5, SECONDS).status).isEqualTo(DECLINED);
+        assertThat(firstDeclined.get(5, SECONDS).status).isEqualTo(DECLINED);
+        assertThat(secondAccepted.get(5, SECONDS).status).isEqualTo(ACCEPTED);
+        assertThat(eventService.getEventById(firstEvent.id).status).isEqualTo(DECLINED);
+        assertThat(eventService.getEventById(secondEvent.id).status).isEqualTo(ACCEPTED);
+        assertThat(committer.flushCount()).isEqualTo(1);
+        assertThat(committer.collapsedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_fail_rsvp_for_missing_event() {
+        // when
+        final var rsvp = committer.submit(randomUUID(), ACCEPTED);
+
+        // then
+        final var exception = assertThrows(ExecutionException.class, () -> rsvp.get(5, SECONDS));
+        assertThat(exception.getCause()).isInstanceOf(EventNotFoundException.class);
+    }
+}
@@ -0,0 +1,138 @@
+package com.evgenykochergin.calendar;
+
+import com.evgenykochergin.calendar.model.User;
+import com.evgenykochergin.calendar.service.UserService.CreateUserParams;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+import static com.evgenykochergin.calendar.ApplicationSettings.settings;
+import static com.evgenykochergin.calendar.db.tables.Event.EVENT;
+import static com.evgenykochergin.calendar.db.tables.EventDetails.EVENT_DETAILS;
+import static com.evgenykochergin.calendar.db.tables.EventException.EVENT_EXCEPTION;
+import static com.evgenykochergin.calendar.db.tables.Outbox.OUTBOX;
+import static com.evgenykochergin.calendar.db.tables.User.USER;
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
+import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.service.EventService.CreateEventParams.createEventParams;
+import static java.time.Duration.ofMinutes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardedEventServiceTest {
+
+    private static final int SHARDS = 3;
+    private static final Application app = new Application(settings()
+            .jdbcUrl("jdbc:h2:mem:calendar_sharded")
+            .shards(SHARDS)
+            .build());
+
+    @BeforeAll
+    static void beforeAll() {
+        app.start(findFreePort());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        app.shards.all().forEach(db -> {
+            db.deleteFrom(OUTBOX).execute();
+            db.deleteFrom(EVENT_EXCEPTION).execute();
+            db.deleteFrom(EVENT).execute();
+            db.deleteFrom(EVENT_DETAILS).execute();
+        });
+        app.db.deleteFrom(USER).execute();
+    }
+
+    @Test
+    public void should_keep_events_in_shards_of_their_users() {
+        // given
+        final var users = createUsers(8);
+        final var organizer = users.get(0);
+        final var attendees = users.subList(1, users.size());
+
+        // when
+        final var organizerEvent = app.eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("sharded")
+                        .startDate(LocalDateTime.parse("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(attendees.stream().map(user -> user.id).toList()))
+                        .visibility(PUBLIC)
+                        .build());
+
+        // then
+        for (final var user : users) {
+            final var homeShard = app.shards.shardOf(user.id);
+            IntStream.range(0, SHARDS).forEach(shard -> assertThat(app.shards.shard(shard).fetchCount(EVENT, EVENT.USER_ID.eq(user.id)))
+                    .isEqualTo(shard == homeShard ? 1 : 0));
+        }
+        assertThat(app.shards.forUser(organizer.id).fetchCount(EVENT_DETAILS, EVENT_DETAILS.ID.eq(organizerEvent.eventDetailsId)))
+                .isEqualTo(1);
+        assertThat(app.eventService.getEventDetailsById(organizerEvent.eventDetailsId).name).isEqualTo("sharded");
+        assertThat(app.eventService.getUserEventStatusesByEventDetailsId(organizerEvent.eventDetailsId)).hasSize(users.size());
+    }
+
+    @Test
+    public void should_read_and_update_events_across_shards() {
+        // given
+        final var users = createUsers(6);
+        final var organizer = users.get(0);
+        final var attendee = users.get(users.size() - 1);
+        final var organizerEvent = app.eventService.createEvent(
+                createEventParams()
+                        .organizerId(organizer.id)
+                        .name("sharded")
+                        .startDate(LocalDateTime.parse("2022-10-18T05:00"))
+                        .duration(ofMinutes(60))
+                        .attendeeIds(new TreeSet<>(users.subList(1, users.size()).stream().map(user -> user.id).toList()))
+                        .visibility(PUBLIC)
+                        .build());
+        final var attendeeEvent = app.eventService.getEventForUser(organizerEvent.eventDetailsId, attendee.id);
+
+        // when
+        app.eventService.acceptEvent(attendeeEvent.id);
+        final var attendeeEvents = app.eventService.getUserEvents(
+                attendee.id,
+                LocalDateTime.parse("2022-10-18T00:00"),
+                LocalDateTime.parse("2022-10-19T00:00"));
+        final var busyTimeSlots = app.eventService.getBusyTimeSlots(
+                users.stream().map(user -> user.id).toList(),
+                LocalDateTime.parse("2022-10-18T00:00"),
+                LocalDateTime.parse("2022-10-19T00:00"));
+        final var freeTimeSlot = app.eventService.findFreeTimeSlot(
+                users.stream().map(user -> user.id).toList(),
+                ofMinutes(30),
+                LocalDateTime.parse("2022-10-18T05:00"),
+                LocalDateTime.parse("2022-10-19T00:00"));
+
+        // then
+        assertThat(attendeeEvents).singleElement().satisfies(event -> {
+            assertThat(event.id).isEqualTo(attendeeEvent.id);
+            assertThat(event.status).isEqualTo(ACCEPTED);
+        });
+        assertThat(busyTimeSlots).hasSize(users.size());
+        assertThat(busyTimeSlots.values()).allSatisfy(timeSlots -> assertThat(timeSlots).hasSize(1));
+        assertThat(freeTimeSlot).hasValueSatisfying(timeSlot -> assertThat(timeSlot.startDate()).isEqualTo(LocalDateTime.parse("2022-10-18T06:00")));
+    }
+
+    private static List<User> createUsers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> app.userService.createUser(new CreateUserParams("sharded-" + System.nanoTime() + "-" + index, "password")))
+                .toList();
+    }
+
+    private static int findFreePort() {
+        try (ServerSocket socket = new ServerSocket(0);) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not find free TCP/IP port");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.evgenykochergin.calendar;
+
+import org.junit.jupiter.api.Test;
+
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmUpTest {
+
+    @Test
+    void should_run_workload_until_compiler_settles_or_time_is_up() {
+        // when
+        final var rounds = new WarmUp(ofSeconds(2)).run();
+
+        // then
+        assertThat(rounds).isPositive();
+    }
+}
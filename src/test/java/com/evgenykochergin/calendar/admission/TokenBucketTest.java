@@ -0,0 +1,64 @@
+package com.evgenykochergin.calendar.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    @Test
+    void should_allow_burst_up_to_capacity() {
+        // given
+        final var clock = new AtomicLong();
+        final var bucket = new TokenBucket(3, 10, clock::get);
+
+        // then
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(2)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isFalse();
+    }
+
+    @Test
+    void should_refill_tokens_over_time() {
+        // given
+        final var clock = new AtomicLong();
+        final var bucket = new TokenBucket(2, 10, clock::get);
+        bucket.tryAcquire(2);
+
+        // when
+        clock.addAndGet(MILLISECONDS.toNanos(100));
+
+        // then
+        assertThat(bucket.tryAcquire(1)).isTrue();
+        assertThat(bucket.tryAcquire(1)).isFalse();
+    }
+
+    @Test
+    void should_reject_cost_above_capacity() {
+        // given
+        final var bucket = new TokenBucket(5, 1, new AtomicLong()::get);
+
+        // then
+        assertThat(bucket.tryAcquire(6)).isFalse();
+        assertThat(bucket.tryAcquire(5)).isTrue();
+    }
+
+    @Test
+    void should_be_full_once_refilled() {
+        // given
+        final var clock = new AtomicLong();
+        final var bucket = new TokenBucket(2, 10, clock::get);
+        bucket.tryAcquire(2);
+
+        // when
+        clock.addAndGet(MILLISECONDS.toNanos(150));
+
+        // then
+        assertThat(bucket.isFull()).isFalse();
+        clock.addAndGet(MILLISECONDS.toNanos(50));
+        assertThat(bucket.isFull()).isTrue();
+    }
+}
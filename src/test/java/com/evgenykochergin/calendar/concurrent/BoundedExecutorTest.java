@@ -0,0 +1,61 @@
+package com.evgenykochergin.calendar.concurrent;
+
+import com.evgenykochergin.calendar.error.OverloadedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedExecutorTest {
+
+    @Test
+    void should_supply_value() {
+        // given
+        final var executor = new BoundedExecutor("test", 1, 1);
+
+        // when
+        final var value = executor.supply(() -> 42).join();
+
+        // then
+        assertThat(value).isEqualTo(42);
+        executor.shutdown();
+    }
+
+    @Test
+    void should_reject_task_when_queue_is_full() throws InterruptedException {
+        // given
+        final var executor = new BoundedExecutor("test", 1, 1);
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        executor.supply(() -> {
+            started.countDown();
+            await(release);
+            return 1;
+        });
+        started.await();
+        final var queued = executor.supply(() -> 2);
+
+        // when
+        final var rejected = executor.supply(() -> 3);
+
+        // then
+        final var exception = assertThrows(CompletionException.class, rejected::join);
+        assertThat(exception.getCause()).isInstanceOf(OverloadedException.class);
+        assertThat(executor.queueDepth()).isEqualTo(1);
+        assertThat(executor.rejectedCount()).isEqualTo(1);
+        release.countDown();
+        assertThat(queued.join()).isEqualTo(2);
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.evgenykochergin.calendar.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedLocksTest {
+
+    @Test
+    void should_round_stripes_up_to_power_of_two() {
+        // then
+        assertThat(new StripedLocks(1).stripes()).isEqualTo(1);
+        assertThat(new StripedLocks(3).stripes()).isEqualTo(4);
+        assertThat(new StripedLocks(1024).stripes()).isEqualTo(1024);
+    }
+
+    @Test
+    void should_not_deadlock_when_locking_overlapping_keys_in_different_order() throws Exception {
+        // given
+        final var locks = new StripedLocks(64);
+        final var first = randomUUID();
+        final var second = randomUUID();
+        final var executor = Executors.newFixedThreadPool(2);
+        final var start = new CountDownLatch(1);
+
+        // when
+        final List<Future<?>> futures = List.of(
+                executor.submit(() -> lockRepeatedly(locks, start, List.of(first, second))),
+                executor.submit(() -> lockRepeatedly(locks, start, List.of(second, first)))
+        );
+        start.countDown();
+
+        // then
+        for (final var future : futures) {
+            future.get(10, SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void should_serialize_updates_of_same_key() throws Exception {
+        // given
+        final var locks = new StripedLocks(16);
+        final var key = randomUUID();
+        final var counter = new int[1];
+        final var executor = Executors.newFixedThreadPool(8);
+
+        // when
+        final var futures = IntStream.range(0, 8)
+                .mapToObj(thread -> executor.submit(() -> {
+                    for (int index = 0; index < 10_000; index++) {
+                        try (final var ignored = locks.lock(List.of(key))) {
+                            counter[0]++;
+                        }
+                    }
+                }))
+                .toList();
+        for (final var future : futures) {
+            future.get(10, SECONDS);
+        }
+
+        // then
+        assertThat(counter[0]).isEqualTo(80_000);
+        executor.shutdown();
+    }
+
+    private static void lockRepeatedly(StripedLocks locks, CountDownLatch start, List<Object> keys) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (int index = 0; index < 10_000; index++) {
+            try (final var ignored = locks.lock(keys)) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.evgenykochergin.calendar.database;
+
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jooq.SQLDialect.H2;
+
+class DatabaseMigratorTest {
+
+    @Test
+    void should_migrate_fresh_database_with_lean_check() {
+        // given
+        final var dataSource = new DataSourceProvider("jdbc:h2:mem:lean_migration_fresh").getDataSource();
+        final var db = DSL.using(dataSource, H2);
+
+        // when
+        new DatabaseMigrator(dataSource, false, true).migrate();
+
+        // then
+        assertThat(db.fetchCount(DSL.table("INFORMATION_SCHEMA.TABLES"), DSL.field("TABLE_NAME").eq("flyway_schema_history"))).isOne();
+        assertThat(db.fetchValue("SELECT fingerprint FROM schema_fingerprint WHERE id = 1")).isNotNull();
+    }
+
+    @Test
+    void should_skip_flyway_when_schema_fingerprint_matches() {
+        // given
+        final var dataSource = new DataSourceProvider("jdbc:h2:mem:lean_migration_check").getDataSource();
+        final var db = DSL.using(dataSource, H2);
+        new DatabaseMigrator(dataSource, false, true).migrate();
+        db.execute("DROP TABLE \"flyway_schema_history\"");
+
+        // when
+        new DatabaseMigrator(dataSource, false, true).migrate();
+
+        // then
+        assertThat(db.fetchValue("SELECT fingerprint FROM schema_fingerprint WHERE id = 1")).isNotNull();
+        assertThat(db.fetchCount(DSL.table("INFORMATION_SCHEMA.TABLES"), DSL.field("TABLE_NAME").eq("flyway_schema_history"))).isZero();
+    }
+}
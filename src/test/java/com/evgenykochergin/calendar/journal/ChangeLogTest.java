@@ -0,0 +1,152 @@
+package com.evgenykochergin.calendar.journal;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static com.evgenykochergin.calendar.model.Event.event;
+import static com.evgenykochergin.calendar.model.type.EventType.RECURRING;
+import static com.evgenykochergin.calendar.model.type.EventType.SINGLE;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.time.Duration.ofMinutes;
+import static java.time.LocalDateTime.parse;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_replay_records_after_sequence() {
+        // given
+        final var first = singleEvent(parse("2022-10-18T05:00"));
+        final var second = recurringEvent(parse("2022-10-19T05:00"), parse("2022-12-19T05:00"));
+        final var third = first.accept();
+        try (final var changeLog = new ChangeLog(directory, 0)) {
+            changeLog.append(first);
+            changeLog.append(second);
+            changeLog.append(third);
+        }
+        final var replayed = new ArrayList<Event>();
+
+        // when
+        final var lastSequence = ChangeLog.replay(directory, 1, replayed::add);
+
+        // then
+        assertThat(lastSequence).isEqualTo(3);
+        assertThat(replayed).satisfiesExactly(
+                event -> {
+                    assertThat(event.id).isEqualTo(second.id);
+                    assertThat(event.recurrence).hasValueSatisfying(recurrence -> assertThat(recurrence.rule.simpleFrequency()).hasValue(WEEKLY));
+                },
+                event -> {
+                    assertThat(event.id).isEqualTo(first.id);
+                    assertThat(event.status).isEqualTo(third.status);
+                }
+        );
+    }
+
+    @Test
+    void should_stop_replay_at_torn_record() throws IOException {
+        // given
+        try (final var changeLog = new ChangeLog(directory, 0)) {
+            changeLog.append(singleEvent(parse("2022-10-18T05:00")));
+        }
+        try (final var segments = Files.list(directory)) {
+            Files.write(segments.findFirst().orElseThrow(), new byte[ChangeLog.RECORD_BYTES / 2], APPEND);
+        }
+
+        // when
+        final var lastSequence = ChangeLog.replay(directory, 0, event -> {
+        });
+
+        // then
+        assertThat(lastSequence).isEqualTo(1);
+    }
+
+    @Test
+    void should_skip_segment_torn_before_header() throws IOException {
+        // given
+        Files.write(directory.resolve("changes-00000000000000000001.log"), new byte[ChangeLog.HEADER_BYTES / 2]);
+
+        // when
+        final var lastSequence = ChangeLog.replay(directory, 0, event -> {
+        });
+
+        // then
+        assertThat(lastSequence).isEqualTo(0);
+    }
+
+    @Test
+    void should_fail_replay_of_segment_with_another_version() throws IOException {
+        // given
+        try (final var changeLog = new ChangeLog(directory, 0)) {
+            changeLog.append(singleEvent(parse("2022-10-18T05:00")));
+        }
+        try (final var segments = Files.list(directory);
+             final var channel = FileChannel.open(segments.findFirst().orElseThrow(), WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(ChangeLog.VERSION + 1).flip(), Integer.BYTES);
+        }
+
+        // then
+        assertThatThrownBy(() -> ChangeLog.replay(directory, 0, event -> {
+        }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void should_drop_segments_covered_by_snapshot() {
+        // given
+        final var changeLog = new ChangeLog(directory, 0);
+        changeLog.append(singleEvent(parse("2022-10-18T05:00")));
+        changeLog.rotate();
+        changeLog.append(singleEvent(parse("2022-10-19T05:00")));
+
+        // when
+        changeLog.truncate(1);
+        changeLog.close();
+
+        // then
+        final var replayed = new ArrayList<Event>();
+        assertThat(ChangeLog.replay(directory, 0, replayed::add)).isEqualTo(2);
+        assertThat(replayed).hasSize(1);
+    }
+
+    static Event singleEvent(LocalDateTime startDate) {
+        return event()
+                .userId(randomUUID())
+                .eventDetailsId(randomUUID())
+                .type(SINGLE)
+                .duration(ofMinutes(60))
+                .startDate(startDate)
+                .endDate(startDate.plusMinutes(60))
+                .build();
+    }
+
+    static Event recurringEvent(LocalDateTime startDate, LocalDateTime endDate) {
+        return event()
+                .userId(randomUUID())
+                .eventDetailsId(randomUUID())
+                .type(RECURRING)
+                .duration(ofMinutes(30))
+                .startDate(startDate)
+                .endDate(endDate)
+                .recurrence(new Recurrence(WEEKLY, endDate))
+                .build();
+    }
+}
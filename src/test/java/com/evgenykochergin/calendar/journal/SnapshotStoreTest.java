@@ -0,0 +1,59 @@
+package com.evgenykochergin.calendar.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.evgenykochergin.calendar.journal.ChangeLogTest.recurringEvent;
+import static com.evgenykochergin.calendar.journal.ChangeLogTest.singleEvent;
+import static java.time.LocalDateTime.parse;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void should_load_newest_snapshot() {
+        // given
+        final var store = new SnapshotStore(directory);
+        final var single = singleEvent(parse("2022-10-18T05:00"));
+        final var recurring = recurringEvent(parse("2022-10-19T05:00"), parse("2022-12-19T05:00"));
+        store.write(5, List.of(single));
+        store.write(7, List.of(single, recurring));
+
+        // when
+        final var snapshot = store.loadNewest();
+
+        // then
+        assertThat(snapshot).hasValueSatisfying(value -> {
+            assertThat(value.sequence()).isEqualTo(7);
+            assertThat(value.events()).extracting(event -> event.id).containsExactly(single.id, recurring.id);
+            assertThat(value.events().get(1).endDate).isEqualTo(recurring.endDate);
+        });
+    }
+
+    @Test
+    void should_ignore_damaged_snapshot() throws IOException {
+        // given
+        final var store = new SnapshotStore(directory);
+        store.write(3, List.of(singleEvent(parse("2022-10-18T05:00"))));
+        try (final var snapshots = Files.list(directory)) {
+            final var path = snapshots.findFirst().orElseThrow();
+            final var bytes = Files.readAllBytes(path);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(path, bytes);
+        }
+
+        // when
+        final var snapshot = store.loadNewest();
+
+        // then
+        assertThat(snapshot).isEmpty();
+    }
+}
@@ -0,0 +1,102 @@
+package com.evgenykochergin.calendar.json;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.model.type.UserEventStatus;
+import com.evgenykochergin.calendar.service.EventFields;
+import com.evgenykochergin.calendar.service.EventView;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.evgenykochergin.calendar.json.EventSerializer.eventJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.eventViewJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.eventWithDetailsJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.writeEventJson;
+import static com.evgenykochergin.calendar.json.EventSerializer.writeEventWithDetailsJson;
+import static com.evgenykochergin.calendar.json.Json.OBJECT_MAPPER;
+import static com.evgenykochergin.calendar.json.Json.writeJson;
+import static com.evgenykochergin.calendar.model.Event.event;
+import static com.evgenykochergin.calendar.model.EventDetails.eventDetails;
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
+import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.model.type.EventType.RECURRING;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static java.lang.String.format;
+import static java.time.Duration.ofMinutes;
+import static java.util.UUID.randomUUID;
+import static net.javacrumbs.jsonunit.fluent.JsonFluentAssert.assertThatJson;
+
+class EventSerializerTest {
+
+    @Test
+    void should_write_same_json_as_tree_for_event() throws IOException {
+        // given
+        final var event = recurringEvent();
+
+        // when
+        final var json = write(generator -> writeEventJson(generator, event));
+
+        // then
+        assertThatJson(json).isEqualTo(eventJson(event));
+    }
+
+    @Test
+    void should_write_same_json_as_tree_for_event_with_details() throws IOException {
+        // given
+        final var event = recurringEvent();
+        final var eventDetails = eventDetails()
+                .id(event.eventDetailsId)
+                .organizerId(event.userId)
+                .name("test-name")
+                .description("test-description")
+                .visibility(PUBLIC)
+                .build();
+        final var userEventStatuses = List.of(new UserEventStatus(event.userId, ACCEPTED));
+
+        // when
+        final var json = write(generator -> writeEventWithDetailsJson(generator, event, eventDetails, userEventStatuses));
+
+        // then
+        assertThatJson(json).isEqualTo(eventWithDetailsJson(event, eventDetails, userEventStatuses));
+    }
+
+    @Test
+    void should_build_tree_with_requested_fields_only() {
+        // given
+        final var event = recurringEvent();
+        final var eventView = new EventView(event, Optional.empty(), List.of());
+
+        // when
+        final var json = eventViewJson(eventView, EventFields.parse("id,duration,recurrence"));
+
+        // then
+        assertThatJson(json).isEqualTo(format(
+                "{\"id\":\"%s\",\"duration\":30,\"recurrence\":{\"frequency\":\"DAILY\",\"endDate\":\"2022-11-18T05:00\"}}",
+                event.id));
+    }
+
+    private static Event recurringEvent() {
+        return event()
+                .userId(randomUUID())
+                .eventDetailsId(randomUUID())
+                .status(ACCEPTED)
+                .type(RECURRING)
+                .duration(ofMinutes(30))
+                .startDate(LocalDateTime.parse("2022-10-18T05:00"))
+                .endDate(LocalDateTime.parse("2022-11-18T05:00"))
+                .recurrence(new Recurrence(DAILY, LocalDateTime.parse("2022-11-18T05:00")))
+                .build();
+    }
+
+    private static JsonNode write(Json.JsonWriter writer) throws IOException {
+        final var outputStream = new ByteArrayOutputStream();
+        writeJson(outputStream, writer);
+        return OBJECT_MAPPER.readTree(outputStream.toByteArray());
+    }
+}
@@ -1,15 +1,18 @@
 package com.evgenykochergin.calendar.model;
 
+import com.evgenykochergin.calendar.model.type.OccurrenceOverride;
 import com.evgenykochergin.calendar.model.type.Recurrence;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static com.evgenykochergin.calendar.model.Event.event;
 import static com.evgenykochergin.calendar.model.type.EventStatus.*;
 import static com.evgenykochergin.calendar.model.type.EventType.RECURRING;
 import static com.evgenykochergin.calendar.model.type.EventType.SINGLE;
 import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
 import static java.time.Duration.ofMinutes;
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -250,4 +253,75 @@ class EventTest {
                 }
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_apply_occurrence_overrides_when_creating_recurring_instances() {
+        // given
+        final var recurringEvent = event()
+                .userId(randomUUID())
+                .eventDetailsId(randomUUID())
+                .type(RECURRING)
+                .duration(ofMinutes(60))
+                .startDate(LocalDateTime.parse("2022-10-18T05:00"))
+                .endDate(LocalDateTime.parse("2022-10-25T05:00"))
+                .recurrence(new Recurrence(DAILY, LocalDateTime.parse("2022-10-25T05:00")))
+                .overrides(List.of(
+                        OccurrenceOverride.of(LocalDateTime.parse("2022-10-19T05:00")).withStatus(DECLINED),
+                        OccurrenceOverride.of(LocalDateTime.parse("2022-10-18T05:00")).cancel(),
+                        OccurrenceOverride.of(LocalDateTime.parse("2022-10-20T05:00")).moveTo(LocalDateTime.parse("2022-10-21T07:00"), ofMinutes(30))
+                ))
+                .build();
+
+        // when
+        final var recurringEventInstances = recurringEvent.newRecurringInstances(
+                LocalDateTime.parse("2022-10-18T00:00"),
+                LocalDateTime.parse("2022-10-22T00:00")
+        );
+
+        // then
+        assertThat(recurringEventInstances).satisfiesExactly(
+                event -> {
+                    assertThat(event.startDate).isEqualTo(LocalDateTime.parse("2022-10-19T05:00"));
+                    assertThat(event.status).isEqualTo(DECLINED);
+                    assertThat(event.originalStartDate).contains(LocalDateTime.parse("2022-10-19T05:00"));
+                },
+                event -> {
+                    assertThat(event.startDate).isEqualTo(LocalDateTime.parse("2022-10-21T05:00"));
+                    assertThat(event.status).isEqualTo(PENDING);
+                    assertThat(event.originalStartDate).isEmpty();
+                },
+                event -> {
+                    assertThat(event.startDate).isEqualTo(LocalDateTime.parse("2022-10-21T07:00"));
+                    assertThat(event.endDate).isEqualTo(LocalDateTime.parse("2022-10-21T07:30"));
+                    assertThat(event.originalStartDate).contains(LocalDateTime.parse("2022-10-20T05:00"));
+                }
+        );
+    }
+
+    @Test
+    void should_bring_occurrence_moved_into_range() {
+        // given
+        final var recurringEvent = event()
+                .userId(randomUUID())
+                .eventDetailsId(randomUUID())
+                .type(RECURRING)
+                .duration(ofMinutes(60))
+                .startDate(LocalDateTime.parse("2022-10-17T05:00"))
+                .endDate(LocalDateTime.parse("2022-12-19T05:00"))
+                .recurrence(new Recurrence(WEEKLY, LocalDateTime.parse("2022-12-19T05:00")))
+                .overrides(List.of(OccurrenceOverride.of(LocalDateTime.parse("2022-10-24T05:00"))
+                        .moveTo(LocalDateTime.parse("2022-10-29T09:00"), ofMinutes(60))))
+                .build();
+
+        // when
+        final var recurringEventInstances = recurringEvent.newRecurringInstances(
+                LocalDateTime.parse("2022-10-28T00:00"),
+                LocalDateTime.parse("2022-11-01T00:00")
+        );
+
+        // then
+        assertThat(recurringEventInstances)
+                .extracting(event -> event.startDate)
+                .containsExactly(LocalDateTime.parse("2022-10-29T09:00"), LocalDateTime.parse("2022-10-31T05:00"));
+    }
+}
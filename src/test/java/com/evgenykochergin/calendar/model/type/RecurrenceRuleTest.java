@@ -0,0 +1,66 @@
+package com.evgenykochergin.calendar.model.type;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.EVERY_WEEKDAY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceRule.Frequency.WEEKLY;
+import static java.time.DayOfWeek.MONDAY;
+import static java.time.DayOfWeek.WEDNESDAY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void should_parse_rule() {
+        // when
+        final var rule = RecurrenceRule.parse("RRULE:BYDAY=WE,MO;FREQ=WEEKLY;INTERVAL=2;COUNT=10");
+
+        // then
+        assertThat(rule).isEqualTo(new RecurrenceRule(WEEKLY, 2, Set.of(MONDAY, WEDNESDAY), List.of(), Optional.of(10)));
+        assertThat(rule.toString()).isEqualTo("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=10");
+        assertThat(rule.simpleFrequency()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(RecurrenceFrequency.class)
+    void should_map_predefined_frequency_to_rule(RecurrenceFrequency frequency) {
+        // when
+        final var rule = RecurrenceRule.parse(RecurrenceRule.of(frequency).toString());
+
+        // then
+        assertThat(rule.simpleFrequency()).hasValue(frequency);
+    }
+
+    @Test
+    void should_map_weekdays_to_every_weekday() {
+        // then
+        assertThat(RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,TU,WE,TH,FR").simpleFrequency()).hasValue(EVERY_WEEKDAY);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "INTERVAL=2",
+            "FREQ=HOURLY",
+            "FREQ=DAILY;INTERVAL=0",
+            "FREQ=WEEKLY;INTERVAL=1001",
+            "FREQ=WEEKLY;INTERVAL=2000000000",
+            "FREQ=WEEKLY;BYDAY=1MO",
+            "FREQ=WEEKLY;BYMONTHDAY=1",
+            "FREQ=MONTHLY;BYMONTHDAY=32",
+            "FREQ=YEARLY;BYDAY=MO",
+            "FREQ=DAILY;UNTIL=20221231T000000Z",
+            "FREQ=DAILY;COUNT=0"
+    })
+    void should_reject_unsupported_rule(String rule) {
+        // then
+        assertThatThrownBy(() -> RecurrenceRule.parse(rule)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
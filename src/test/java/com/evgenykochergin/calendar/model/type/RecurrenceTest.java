@@ -0,0 +1,133 @@
+package com.evgenykochergin.calendar.model.type;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceTest {
+
+    @Test
+    void should_keep_wall_clock_time_of_zone_across_daylight_saving_change() {
+        // given
+        final var recurrence = new Recurrence(RecurrenceRule.of(WEEKLY), LocalDateTime.parse("2022-12-31T00:00"), Optional.of(ZoneId.of("Europe/Berlin")));
+
+        // when
+        final var startDates = recurrence.startDates(
+                LocalDateTime.parse("2022-10-17T07:00"),
+                Duration.ofHours(1),
+                LocalDateTime.parse("2022-10-16T00:00"),
+                LocalDateTime.parse("2022-11-08T00:00")
+        ).toList();
+
+        // then
+        assertThat(startDates).containsExactly(
+                LocalDateTime.parse("2022-10-17T07:00"),
+                LocalDateTime.parse("2022-10-24T07:00"),
+                LocalDateTime.parse("2022-10-31T08:00"),
+                LocalDateTime.parse("2022-11-07T08:00")
+        );
+    }
+
+    @Test
+    void should_repeat_in_utc_without_zone() {
+        // given
+        final var recurrence = new Recurrence(WEEKLY, LocalDateTime.parse("2022-12-31T00:00"));
+
+        // when
+        final var startDates = recurrence.startDates(
+                LocalDateTime.parse("2022-10-17T07:00"),
+                Duration.ofHours(1),
+                LocalDateTime.parse("2022-10-16T00:00"),
+                LocalDateTime.parse("2022-11-08T00:00")
+        ).toList();
+
+        // then
+        assertThat(startDates).containsExactly(
+                LocalDateTime.parse("2022-10-17T07:00"),
+                LocalDateTime.parse("2022-10-24T07:00"),
+                LocalDateTime.parse("2022-10-31T07:00"),
+                LocalDateTime.parse("2022-11-07T07:00")
+        );
+    }
+
+    @Test
+    void should_expand_rule_with_interval_and_week_days() {
+        // given
+        final var recurrence = new Recurrence(RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE"), LocalDateTime.parse("2023-12-31T00:00"), Optional.empty());
+
+        // when
+        final var startDates = recurrence.startDates(
+                LocalDateTime.parse("2022-10-17T09:00"),
+                Duration.ofHours(1),
+                LocalDateTime.parse("2022-10-20T00:00"),
+                LocalDateTime.parse("2022-11-20T00:00")
+        ).toList();
+
+        // then
+        assertThat(startDates).containsExactly(
+                LocalDateTime.parse("2022-10-31T09:00"),
+                LocalDateTime.parse("2022-11-02T09:00"),
+                LocalDateTime.parse("2022-11-14T09:00"),
+                LocalDateTime.parse("2022-11-16T09:00")
+        );
+    }
+
+    @Test
+    void should_expand_rule_on_last_day_of_month() {
+        // given
+        final var recurrence = new Recurrence(RecurrenceRule.parse("FREQ=MONTHLY;BYMONTHDAY=-1"), LocalDateTime.parse("2023-12-31T00:00"), Optional.empty());
+
+        // when
+        final var startDates = recurrence.startDates(
+                LocalDateTime.parse("2022-01-31T09:00"),
+                Duration.ofHours(1),
+                LocalDateTime.parse("2022-02-01T00:00"),
+                LocalDateTime.parse("2022-05-01T00:00")
+        ).toList();
+
+        // then
+        assertThat(startDates).containsExactly(
+                LocalDateTime.parse("2022-02-28T09:00"),
+                LocalDateTime.parse("2022-03-31T09:00"),
+                LocalDateTime.parse("2022-04-30T09:00")
+        );
+    }
+
+    @Test
+    void should_jump_to_window_far_from_series_start() {
+        // given
+        final var recurrence = new Recurrence(RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE"), LocalDateTime.parse("2099-12-31T00:00"), Optional.empty());
+
+        // when
+        final var startDates = recurrence.startDates(
+                LocalDateTime.parse("2022-10-17T09:00"),
+                Duration.ofHours(1),
+                LocalDateTime.parse("2090-03-01T00:00"),
+                LocalDateTime.parse("2090-03-20T00:00")
+        ).toList();
+
+        // then
+        assertThat(startDates).containsExactly(
+                LocalDateTime.parse("2090-03-06T09:00"),
+                LocalDateTime.parse("2090-03-08T09:00")
+        );
+    }
+
+    @Test
+    void should_end_series_after_count() {
+        // given
+        final var recurrence = Recurrence.of(null, "FREQ=WEEKLY;BYDAY=TU,TH;COUNT=5", null);
+
+        // when
+        final var counted = recurrence.withCountApplied(LocalDateTime.parse("2022-10-18T09:00"));
+
+        // then
+        assertThat(counted.endDate).isEqualTo(LocalDateTime.parse("2022-11-01T09:00"));
+    }
+}
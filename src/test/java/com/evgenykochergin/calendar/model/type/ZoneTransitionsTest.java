@@ -0,0 +1,78 @@
+package com.evgenykochergin.calendar.model.type;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.params.provider.Arguments.of;
+
+class ZoneTransitionsTest {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @ParameterizedTest
+    @MethodSource
+    void should_convert_wall_clock_time_to_utc(LocalDateTime localDateTime, LocalDateTime utcDateTime) {
+        // when
+        final var converted = ZoneTransitions.of(BERLIN).toUtc(localDateTime);
+
+        // then
+        assertThat(converted).isEqualTo(utcDateTime);
+        assertThat(converted).isEqualTo(localDateTime.atZone(BERLIN).withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime());
+    }
+
+    private static Stream<Arguments> should_convert_wall_clock_time_to_utc() {
+        return Stream.of(
+                of(LocalDateTime.parse("2022-01-10T09:00"), LocalDateTime.parse("2022-01-10T08:00")),
+                of(LocalDateTime.parse("2022-07-10T09:00"), LocalDateTime.parse("2022-07-10T07:00")),
+                of(LocalDateTime.parse("2022-03-27T01:59"), LocalDateTime.parse("2022-03-27T00:59")),
+                of(LocalDateTime.parse("2022-03-27T02:30"), LocalDateTime.parse("2022-03-27T01:30")),
+                of(LocalDateTime.parse("2022-03-27T03:00"), LocalDateTime.parse("2022-03-27T01:00")),
+                of(LocalDateTime.parse("2022-10-30T02:30"), LocalDateTime.parse("2022-10-30T00:30")),
+                of(LocalDateTime.parse("2022-10-30T03:00"), LocalDateTime.parse("2022-10-30T02:00")),
+                of(LocalDateTime.parse("2022-12-31T23:30"), LocalDateTime.parse("2022-12-31T22:30"))
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Europe/Berlin", "America/New_York", "Australia/Sydney", "Australia/Lord_Howe", "Asia/Tokyo"})
+    void should_convert_ascending_start_dates_with_cursor(String zoneId) {
+        // given
+        final var zone = ZoneId.of(zoneId);
+        final var cursor = ZoneTransitions.of(zone).cursor();
+        final var time = LocalTime.parse("02:30");
+
+        // when
+        final var startDates = LongStream.rangeClosed(LocalDate.parse("2021-12-01").toEpochDay(), LocalDate.parse("2023-01-31").toEpochDay())
+                .mapToObj(epochDay -> cursor.toUtc(epochDay, time))
+                .toList();
+
+        // then
+        assertThat(startDates).containsExactlyElementsOf(LongStream.rangeClosed(LocalDate.parse("2021-12-01").toEpochDay(), LocalDate.parse("2023-01-31").toEpochDay())
+                .mapToObj(epochDay -> LocalDate.ofEpochDay(epochDay).atTime(time).atZone(zone).withZoneSameInstant(ZoneId.of("UTC")).toLocalDateTime())
+                .toList());
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void should_convert_utc_to_wall_clock_time(LocalDateTime utcDateTime, LocalDateTime localDateTime) {
+        // then
+        assertThat(ZoneTransitions.of(BERLIN).toLocal(utcDateTime)).isEqualTo(localDateTime);
+    }
+
+    private static Stream<Arguments> should_convert_utc_to_wall_clock_time() {
+        return Stream.of(
+                of(LocalDateTime.parse("2022-01-10T08:00"), LocalDateTime.parse("2022-01-10T09:00")),
+                of(LocalDateTime.parse("2022-07-10T07:00"), LocalDateTime.parse("2022-07-10T09:00"))
+        );
+    }
+}
@@ -0,0 +1,106 @@
+package com.evgenykochergin.calendar.notification;
+
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationHubTest {
+
+    @Test
+    void should_deliver_notifications_to_subscribers_of_user() throws InterruptedException {
+        // given
+        final var hub = new NotificationHub(new BoundedExecutor("test", 1, 16), 16);
+        final var userId = randomUUID();
+        final var sink = new RecordingSink(2);
+        final var otherSink = new RecordingSink(1);
+        hub.subscribe(userId, sink);
+        hub.subscribe(randomUUID(), otherSink);
+
+        // when
+        hub.publish(userId, new Notification("first", "1"));
+        hub.publish(userId, new Notification("second", "2"));
+
+        // then
+        assertThat(sink.received.await(5, SECONDS)).isTrue();
+        assertThat(sink.notifications).extracting(Notification::type).containsExactly("first", "second");
+        assertThat(otherSink.notifications).isEmpty();
+    }
+
+    @Test
+    void should_disconnect_slow_consumer_when_buffer_overflows() {
+        // given
+        final var blocked = new CountDownLatch(1);
+        final var hub = new NotificationHub(new BoundedExecutor("test", 1, 16), 2);
+        final var userId = randomUUID();
+        final var sink = new RecordingSink(1) {
+            @Override
+            public void send(Notification notification) {
+                await(blocked);
+                super.send(notification);
+            }
+        };
+        hub.subscribe(userId, sink);
+
+        // when
+        for (int index = 0; index < 10; index++) {
+            hub.publish(userId, new Notification("message", String.valueOf(index)));
+        }
+
+        // then
+        assertThat(sink.closed.get()).isTrue();
+        assertThat(hub.subscriberCount(userId)).isZero();
+        assertThat(hub.slowConsumerCount()).isEqualTo(1);
+        blocked.countDown();
+    }
+
+    @Test
+    void should_remove_cancelled_subscription() {
+        // given
+        final var hub = new NotificationHub(new BoundedExecutor("test", 1, 16), 16);
+        final var userId = randomUUID();
+        final var subscription = hub.subscribe(userId, new RecordingSink(1));
+
+        // when
+        subscription.cancel();
+
+        // then
+        assertThat(hub.subscriberCount()).isZero();
+    }
+
+    private static class RecordingSink implements NotificationSink {
+        final List<Notification> notifications = new CopyOnWriteArrayList<>();
+        final CountDownLatch received;
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        RecordingSink(int expectedCount) {
+            this.received = new CountDownLatch(expectedCount);
+        }
+
+        @Override
+        public void send(Notification notification) {
+            notifications.add(notification);
+            received.countDown();
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.evgenykochergin.calendar.outbox;
+
+import com.evgenykochergin.calendar.database.DataSourceProvider;
+import com.evgenykochergin.calendar.database.DatabaseMigrator;
+import com.evgenykochergin.calendar.database.Shards;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.db.tables.Outbox.OUTBOX;
+import static java.time.Duration.ofSeconds;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jooq.SQLDialect.H2;
+
+class OutboxDispatcherTest {
+
+    private static DSLContext db;
+
+    @BeforeAll
+    static void beforeAll() {
+        final var dataSource = new DataSourceProvider("jdbc:h2:mem:outbox").getDataSource();
+        new DatabaseMigrator(dataSource).migrate();
+        db = DSL.using(dataSource, H2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.deleteFrom(OUTBOX).execute();
+    }
+
+    @Test
+    void should_return_ids_of_enqueued_rows() {
+        // given
+        final var recipientId = randomUUID();
+
+        // when
+        final var ids = Outbox.enqueue(db, List.of(
+                new OutboxEntry(recipientId, "invitation", "1"),
+                new OutboxEntry(recipientId, "invitation", "1")
+        ));
+
+        // then
+        assertThat(ids).hasSize(2).doesNotHaveDuplicates();
+        assertThat(db.selectFrom(OUTBOX).fetch(OUTBOX.ID)).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void should_deliver_messages_of_one_recipient_together_and_in_order() {
+        // given
+        final var first = randomUUID();
+        final var second = randomUUID();
+        Outbox.enqueue(db, List.of(
+                new OutboxEntry(first, "invitation", "1"),
+                new OutboxEntry(second, "invitation", "2"),
+                new OutboxEntry(first, "invitation", "3")
+        ));
+        final var sink = new InMemoryOutboxSink();
+        final var dispatcher = new OutboxDispatcher(Shards.single(db), sink, 10, ofSeconds(30));
+
+        // when
+        final var delivered = dispatcher.dispatch();
+
+        // then
+        assertThat(delivered).isEqualTo(3);
+        assertThat(sink.deliveries(first)).singleElement()
+                .satisfies(messages -> assertThat(messages).extracting(OutboxMessage::payload).containsExactly("1", "3"));
+        assertThat(sink.deliveries(second)).singleElement()
+                .satisfies(messages -> assertThat(messages).extracting(OutboxMessage::payload).containsExactly("2"));
+        assertThat(dispatcher.pendingCount()).isZero();
+        assertThat(dispatcher.dispatchedCount()).isEqualTo(3);
+        assertThat(dispatcher.deliveryCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_drain_outbox_in_several_batches() {
+        // given
+        final var recipientId = randomUUID();
+        Outbox.enqueue(db, List.of(
+                new OutboxEntry(recipientId, "invitation", "1"),
+                new OutboxEntry(recipientId, "invitation", "2"),
+                new OutboxEntry(recipientId, "invitation", "3")
+        ));
+        final var sink = new InMemoryOutboxSink();
+        final var dispatcher = new OutboxDispatcher(Shards.single(db), sink, 2, ofSeconds(30));
+
+        // when
+        final var delivered = dispatcher.dispatch();
+
+        // then
+        assertThat(delivered).isEqualTo(3);
+        assertThat(sink.deliveries(recipientId)).hasSize(2);
+        assertThat(dispatcher.pendingCount()).isZero();
+    }
+
+    @Test
+    void should_keep_messages_of_failed_delivery_for_retry() {
+        // given
+        final var recipientId = randomUUID();
+        Outbox.enqueue(db, List.of(new OutboxEntry(recipientId, "invitation", "1")));
+        final var dispatcher = new OutboxDispatcher(Shards.single(db), (UUID id, List<OutboxMessage> messages) -> {
+            throw new IllegalStateException("sink is down");
+        }, 10, ofSeconds(30));
+        final var sink = new InMemoryOutboxSink();
+
+        // when
+        final var delivered = dispatcher.dispatch();
+        final var redelivered = new OutboxDispatcher(Shards.single(db), sink, 10, ofSeconds(30)).dispatch();
+
+        // then
+        assertThat(delivered).isZero();
+        assertThat(dispatcher.failedDeliveryCount()).isEqualTo(1);
+        assertThat(redelivered).isEqualTo(1);
+        assertThat(sink.deliveries(recipientId)).hasSize(1);
+    }
+
+    @Test
+    void should_skip_rows_claimed_by_another_dispatcher_until_lease_expires() {
+        // given
+        final var recipientId = randomUUID();
+        Outbox.enqueue(db, List.of(new OutboxEntry(recipientId, "invitation", "1")));
+        db.update(OUTBOX)
+                .set(OUTBOX.CLAIMED_BY, "another-dispatcher")
+                .set(OUTBOX.CLAIMED_AT, LocalDateTime.now().minusSeconds(10))
+                .execute();
+        final var sink = new InMemoryOutboxSink();
+
+        // when
+        final var deliveredWithinLease = new OutboxDispatcher(Shards.single(db), sink, 10, ofSeconds(30)).dispatch();
+        final var deliveredAfterLease = new OutboxDispatcher(Shards.single(db), sink, 10, ofSeconds(5)).dispatch();
+
+        // then
+        assertThat(deliveredWithinLease).isZero();
+        assertThat(deliveredAfterLease).isEqualTo(1);
+    }
+}
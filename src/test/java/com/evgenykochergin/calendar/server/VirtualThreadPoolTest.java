@@ -0,0 +1,47 @@
+package com.evgenykochergin.calendar.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.time.Duration.ofSeconds;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class VirtualThreadPoolTest {
+
+    @Test
+    void should_return_from_join_once_stopped() throws Exception {
+        // given
+        final var pool = new VirtualThreadPool();
+        pool.start();
+        final var executed = new CountDownLatch(1);
+        pool.execute(executed::countDown);
+
+        // when
+        pool.stop();
+
+        // then
+        assertThat(executed.await(1, SECONDS)).isTrue();
+        assertTimeoutPreemptively(ofSeconds(1), pool::join);
+        assertThat(pool.isStopped()).isTrue();
+    }
+
+    @Test
+    void should_run_tasks_again_after_restart() throws Exception {
+        // given
+        final var pool = new VirtualThreadPool();
+        pool.start();
+        pool.stop();
+
+        // when
+        pool.start();
+        final var executed = new CountDownLatch(1);
+        pool.execute(executed::countDown);
+
+        // then
+        assertThat(executed.await(1, SECONDS)).isTrue();
+        pool.stop();
+    }
+}
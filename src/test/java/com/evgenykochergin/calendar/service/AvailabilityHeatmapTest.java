@@ -0,0 +1,103 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.concurrent.BoundedExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.service.AvailabilityHeatmap.heatmapOf;
+import static java.time.Duration.ofMinutes;
+import static java.time.LocalDateTime.parse;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityHeatmapTest {
+
+    private final BoundedExecutor executor = new BoundedExecutor("heatmap", 4, 100);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void should_count_free_users_per_bucket() {
+        // given
+        final var user1 = randomUUID();
+        final var user2 = randomUUID();
+        final var user3 = randomUUID();
+
+        // when
+        final var heatmap = heatmapOf(
+                List.of(user1, user2, user3),
+                List.of(
+                        busy(user1, "2022-10-19T09:10", 30),
+                        busy(user2, "2022-10-19T10:00", 30)
+                ),
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T11:00"),
+                ofMinutes(30),
+                executor
+        ).join();
+
+        // then
+        assertThat(heatmap.users()).isEqualTo(3);
+        assertThat(heatmap.freeCounts()).containsExactly(2, 2, 2, 3);
+    }
+
+    @Test
+    void should_count_user_once_when_busy_time_slots_share_bucket() {
+        // given
+        final var user = randomUUID();
+
+        // when
+        final var heatmap = heatmapOf(
+                List.of(user),
+                List.of(
+                        busy(user, "2022-10-19T09:00", 5),
+                        busy(user, "2022-10-19T09:20", 5)
+                ),
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T10:00"),
+                ofMinutes(30),
+                executor
+        ).join();
+
+        // then
+        assertThat(heatmap.freeCounts()).containsExactly(0, 1);
+    }
+
+    @Test
+    void should_add_up_user_chunks_and_cut_last_bucket_short() {
+        // given
+        final var userIds = new ArrayList<UUID>();
+        final var eventTimings = new ArrayList<EventTiming>();
+        for (int index = 0; index < 100; index++) {
+            final var userId = randomUUID();
+            userIds.add(userId);
+            eventTimings.add(busy(userId, index % 2 == 0 ? "2022-10-19T09:00" : "2022-10-19T10:00", 30));
+        }
+
+        // when
+        final var heatmap = heatmapOf(
+                userIds,
+                eventTimings,
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T10:15"),
+                ofMinutes(30),
+                executor
+        ).join();
+
+        // then
+        assertThat(heatmap.users()).isEqualTo(100);
+        assertThat(heatmap.freeCounts()).containsExactly(50, 100, 50);
+    }
+
+    private static EventTiming busy(UUID userId, String startDate, int duration) {
+        return new EventTiming(userId, parse(startDate), ofMinutes(duration), Optional.empty());
+    }
+}
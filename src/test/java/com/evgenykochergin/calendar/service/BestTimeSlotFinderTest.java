@@ -0,0 +1,107 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.service.BestTimeSlotFinder.BestTimeSlots;
+import com.evgenykochergin.calendar.service.FreeTimeSlotFinder.TimeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.service.BestTimeSlotFinder.bestTimeSlotsOf;
+import static java.time.Duration.ofMinutes;
+import static java.time.LocalDateTime.parse;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BestTimeSlotFinderTest {
+
+    private final UUID required = randomUUID();
+    private final UUID firstOptional = randomUUID();
+    private final UUID secondOptional = randomUUID();
+
+    @Test
+    void should_return_time_slots_free_for_everyone_when_they_exist() {
+        // when
+        final var bestTimeSlots = bestTimeSlotsOf(
+                List.of(required),
+                List.of(firstOptional),
+                List.of(busy(required, "2022-10-19T10:00", 60)),
+                ofMinutes(60),
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T13:00")
+        );
+
+        // then
+        assertThat(bestTimeSlots).contains(new BestTimeSlots(1, 1, List.of(
+                new TimeSlot(parse("2022-10-19T09:00"), parse("2022-10-19T10:00")),
+                new TimeSlot(parse("2022-10-19T11:00"), parse("2022-10-19T13:00"))
+        )));
+    }
+
+    @Test
+    void should_maximize_free_optional_users_when_no_time_slot_fits_everyone() {
+        // when
+        final var bestTimeSlots = bestTimeSlotsOf(
+                List.of(required),
+                List.of(firstOptional, secondOptional),
+                List.of(
+                        busy(required, "2022-10-19T09:00", 60),
+                        busy(firstOptional, "2022-10-19T10:00", 60),
+                        busy(secondOptional, "2022-10-19T09:00", 180)
+                ),
+                ofMinutes(60),
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T12:00")
+        );
+
+        // then
+        assertThat(bestTimeSlots).contains(new BestTimeSlots(1, 2, List.of(
+                new TimeSlot(parse("2022-10-19T11:00"), parse("2022-10-19T12:00"))
+        )));
+    }
+
+    @Test
+    void should_find_time_slot_exactly_fitting_between_busy_time_slots() {
+        // when
+        final var bestTimeSlots = bestTimeSlotsOf(
+                List.of(required),
+                List.of(),
+                List.of(
+                        busy(required, "2022-10-19T09:00", 60),
+                        busy(required, "2022-10-19T11:00", 60)
+                ),
+                ofMinutes(60),
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T12:00")
+        );
+
+        // then
+        assertThat(bestTimeSlots).contains(new BestTimeSlots(0, 0, List.of(
+                new TimeSlot(parse("2022-10-19T10:00"), parse("2022-10-19T11:00"))
+        )));
+    }
+
+    @Test
+    void should_return_nothing_when_required_user_is_never_free() {
+        // when
+        final var bestTimeSlots = bestTimeSlotsOf(
+                List.of(required),
+                List.of(firstOptional),
+                List.of(
+                        busy(required, "2022-10-19T09:00", 90),
+                        busy(required, "2022-10-19T11:00", 60)
+                ),
+                ofMinutes(60),
+                parse("2022-10-19T09:00"),
+                parse("2022-10-19T12:00")
+        );
+
+        // then
+        assertThat(bestTimeSlots).isEmpty();
+    }
+
+    private static EventTiming busy(UUID userId, String startDate, int duration) {
+        return new EventTiming(userId, parse(startDate), ofMinutes(duration), Optional.empty());
+    }
+}
@@ -0,0 +1,113 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.Event;
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static com.evgenykochergin.calendar.model.Event.event;
+import static com.evgenykochergin.calendar.model.EventDetails.eventDetails;
+import static com.evgenykochergin.calendar.model.type.EventDetailsVisibility.PUBLIC;
+import static com.evgenykochergin.calendar.model.type.EventStatus.ACCEPTED;
+import static com.evgenykochergin.calendar.model.type.EventType.RECURRING;
+import static com.evgenykochergin.calendar.model.type.EventType.SINGLE;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static java.time.Duration.ofMinutes;
+import static java.time.LocalDateTime.parse;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventReadModelTest {
+
+    @Test
+    void should_return_user_events_within_range_with_recurring_instances() {
+        // given
+        final var readModel = new EventReadModel();
+        final var userId = randomUUID();
+        final var details = eventDetails().organizerId(userId).name("test").visibility(PUBLIC).build();
+        readModel.onEventCreated(details, List.of(
+                singleEvent(userId, date("2022-10-17T12:00")),
+                singleEvent(userId, date("2022-10-19T12:00")),
+                singleEvent(userId, date("2022-10-25T12:00")),
+                recurringEvent(userId, date("2022-10-17T09:00"), date("2022-10-19T09:00"))
+        ));
+
+        // when
+        final var events = readModel.userEvents(userId, date("2022-10-18T00:00"), date("2022-10-20T00:00"));
+
+        // then
+        assertThat(events).extracting(event -> event.startDate).containsExactly(
+                date("2022-10-18T09:00"),
+                date("2022-10-19T09:00"),
+                date("2022-10-19T12:00")
+        );
+    }
+
+    @Test
+    void should_replace_event_when_status_changes() {
+        // given
+        final var readModel = new EventReadModel();
+        final var userId = randomUUID();
+        final var details = eventDetails().organizerId(randomUUID()).name("test").visibility(PUBLIC).build();
+        final var event = singleEvent(userId, date("2022-10-18T12:00"));
+        readModel.onEventCreated(details, List.of(event));
+
+        // when
+        readModel.onEventStatusChanged(details, event.accept());
+
+        // then
+        assertThat(readModel.userEvents(userId, date("2022-10-18T00:00"), date("2022-10-19T00:00")))
+                .singleElement()
+                .satisfies(actual -> assertThat(actual.status).isEqualTo(ACCEPTED));
+    }
+
+    @Test
+    void should_return_event_timings_of_requested_users_only() {
+        // given
+        final var readModel = new EventReadModel();
+        final var userId = randomUUID();
+        final var otherUserId = randomUUID();
+        final var details = eventDetails().organizerId(userId).name("test").visibility(PUBLIC).build();
+        readModel.onEventCreated(details, List.of(
+                singleEvent(userId, date("2022-10-18T12:00")),
+                singleEvent(otherUserId, date("2022-10-18T12:00"))
+        ));
+
+        // when
+        final var eventTimings = readModel.eventTimings(List.of(userId), date("2022-10-18T00:00"), date("2022-10-19T00:00"));
+
+        // then
+        assertThat(eventTimings).singleElement()
+                .satisfies(eventTiming -> assertThat(eventTiming.userId()).isEqualTo(userId));
+    }
+
+    private static Event singleEvent(UUID userId, LocalDateTime startDate) {
+        return event()
+                .userId(userId)
+                .eventDetailsId(randomUUID())
+                .type(SINGLE)
+                .duration(ofMinutes(60))
+                .startDate(startDate)
+                .endDate(startDate.plusMinutes(60))
+                .build();
+    }
+
+    private static Event recurringEvent(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return event()
+                .userId(userId)
+                .eventDetailsId(randomUUID())
+                .type(RECURRING)
+                .duration(ofMinutes(60))
+                .startDate(startDate)
+                .endDate(endDate)
+                .recurrence(new Recurrence(DAILY, endDate))
+                .build();
+    }
+
+    private static LocalDateTime date(String string) {
+        return parse(string);
+    }
+}
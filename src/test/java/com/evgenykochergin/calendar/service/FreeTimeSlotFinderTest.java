@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.freeTimeSlot;
+import static com.evgenykochergin.calendar.service.FreeTimeSlotFinder.mergedTimeSlots;
 import static java.time.Duration.ofMinutes;
 import static java.time.LocalDateTime.parse;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -131,6 +132,23 @@ class FreeTimeSlotFinderTest {
         assertThat(freeTimeSlot).isEmpty();
     }
 
+    @Test
+    void should_merge_overlapping_and_touching_time_slots() {
+        // when
+        final var mergedTimeSlots = mergedTimeSlots(List.of(
+                new TimeSlot(date("2022-10-19T03:00:00"), date("2022-10-19T04:00:00")),
+                new TimeSlot(date("2022-10-19T00:00:00"), date("2022-10-19T01:00:00")),
+                new TimeSlot(date("2022-10-19T00:30:00"), date("2022-10-19T00:45:00")),
+                new TimeSlot(date("2022-10-19T01:00:00"), date("2022-10-19T02:00:00"))
+        ));
+
+        // then
+        assertThat(mergedTimeSlots).containsExactly(
+                new TimeSlot(date("2022-10-19T00:00:00"), date("2022-10-19T02:00:00")),
+                new TimeSlot(date("2022-10-19T03:00:00"), date("2022-10-19T04:00:00"))
+        );
+    }
+
     private static LocalDateTime date(String string) {
         return parse(string);
     }
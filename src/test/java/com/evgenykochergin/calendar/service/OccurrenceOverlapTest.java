@@ -0,0 +1,115 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.type.Recurrence;
+import com.evgenykochergin.calendar.model.type.RecurrenceFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.EVERY_WEEKDAY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.MONTHLY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
+import static com.evgenykochergin.calendar.service.OccurrenceOverlap.firstStartAtOrAfter;
+import static com.evgenykochergin.calendar.service.OccurrenceOverlap.overlaps;
+import static java.time.Duration.ofMinutes;
+import static java.time.LocalDateTime.parse;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccurrenceOverlapTest {
+
+    @Test
+    void should_find_first_daily_occurrence_without_expanding_series() {
+        // given
+        final var recurrence = new Recurrence(DAILY, parse("2030-01-01T00:00"));
+
+        // when
+        final var startDate = firstStartAtOrAfter(parse("2022-10-18T05:00"), recurrence, parse("2025-03-07T05:01"));
+
+        // then
+        assertThat(startDate).isEqualTo(parse("2025-03-08T05:00"));
+    }
+
+    @Test
+    void should_skip_weekend_when_finding_first_weekday_occurrence() {
+        // given
+        final var recurrence = new Recurrence(EVERY_WEEKDAY, parse("2023-01-01T00:00"));
+
+        // when
+        final var startDate = firstStartAtOrAfter(parse("2022-10-17T05:00"), recurrence, parse("2022-10-21T06:00"));
+
+        // then
+        assertThat(startDate).isEqualTo(parse("2022-10-24T05:00"));
+    }
+
+    @Test
+    void should_detect_single_event_overlapping_daily_series() {
+        // given
+        final var daily = recurring("2022-10-18T05:00", 60, DAILY, "2022-12-31T05:00");
+        final var single = single("2022-11-20T05:30", 60);
+
+        // then
+        assertThat(overlaps(single, daily)).isTrue();
+        assertThat(overlaps(daily, single)).isTrue();
+    }
+
+    @Test
+    void should_not_detect_single_event_between_daily_occurrences() {
+        // given
+        final var daily = recurring("2022-10-18T05:00", 60, DAILY, "2022-12-31T05:00");
+        final var single = single("2022-11-20T06:00", 60);
+
+        // then
+        assertThat(overlaps(single, daily)).isFalse();
+    }
+
+    @Test
+    void should_not_detect_single_event_after_series_end() {
+        // given
+        final var daily = recurring("2022-10-18T05:00", 60, DAILY, "2022-10-31T05:00");
+        final var single = single("2022-11-20T05:00", 60);
+
+        // then
+        assertThat(overlaps(single, daily)).isFalse();
+    }
+
+    @Test
+    void should_not_detect_weekly_series_at_different_time_of_daily_series() {
+        // given
+        final var daily = recurring("2022-10-18T05:00", 60, DAILY, "2032-10-18T05:00");
+        final var weekly = recurring("2022-10-20T07:00", 30, WEEKLY, "2032-10-20T07:00");
+
+        // then
+        assertThat(overlaps(daily, weekly)).isFalse();
+    }
+
+    @Test
+    void should_not_detect_weekly_series_on_weekend_with_weekday_series() {
+        // given
+        final var weekdays = recurring("2022-10-17T05:00", 60, EVERY_WEEKDAY, "2032-10-17T05:00");
+        final var saturdays = recurring("2022-10-22T05:00", 60, WEEKLY, "2032-10-22T05:00");
+
+        // then
+        assertThat(overlaps(weekdays, saturdays)).isFalse();
+    }
+
+    @Test
+    void should_detect_monthly_series_overlapping_weekly_series() {
+        // given
+        final var monthly = recurring("2022-10-18T05:00", 60, MONTHLY, "2023-10-18T05:00");
+        final var weekly = recurring("2022-10-21T05:30", 60, WEEKLY, "2023-10-21T05:30");
+
+        // then
+        assertThat(overlaps(monthly, weekly)).isTrue();
+    }
+
+    private static EventTiming single(String startDate, int duration) {
+        return new EventTiming(randomUUID(), parse(startDate), ofMinutes(duration), Optional.empty());
+    }
+
+    private static EventTiming recurring(String startDate, int duration, RecurrenceFrequency frequency, String endDate) {
+        return new EventTiming(randomUUID(), parse(startDate), ofMinutes(duration), Optional.of(new Recurrence(frequency, LocalDateTime.parse(endDate))));
+    }
+}
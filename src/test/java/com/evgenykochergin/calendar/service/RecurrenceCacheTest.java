@@ -0,0 +1,69 @@
+package com.evgenykochergin.calendar.service;
+
+import com.evgenykochergin.calendar.model.type.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.DAILY;
+import static com.evgenykochergin.calendar.model.type.RecurrenceFrequency.WEEKLY;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceCacheTest {
+
+    private static final LocalDateTime END_DATE = LocalDateTime.parse("2022-12-31T00:00");
+
+    @Test
+    void should_reuse_recurrence_until_row_changes() {
+        // given
+        final var cache = new RecurrenceCache(10);
+        final var eventId = randomUUID();
+        final var recurrence = cache.recurrenceOf(eventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+
+        // when
+        final var unchanged = cache.recurrenceOf(eventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+        final var changed = cache.recurrenceOf(eventId, RecurrenceRule.of(DAILY), END_DATE, Optional.empty());
+
+        // then
+        assertThat(unchanged).isSameAs(recurrence);
+        assertThat(changed).isNotSameAs(recurrence);
+        assertThat(changed.rule).isEqualTo(RecurrenceRule.of(DAILY));
+    }
+
+    @Test
+    void should_evict_least_recently_used_recurrence_beyond_capacity() {
+        // given
+        final var cache = new RecurrenceCache(2);
+        final var firstEventId = randomUUID();
+        final var secondEventId = randomUUID();
+        final var first = cache.recurrenceOf(firstEventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+        final var second = cache.recurrenceOf(secondEventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+        cache.recurrenceOf(firstEventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+
+        // when
+        cache.recurrenceOf(randomUUID(), RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.recurrenceOf(firstEventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty())).isSameAs(first);
+        assertThat(cache.recurrenceOf(secondEventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty())).isNotSameAs(second);
+    }
+
+    @Test
+    void should_drop_evicted_events() {
+        // given
+        final var cache = new RecurrenceCache(10);
+        final var eventId = randomUUID();
+        cache.recurrenceOf(eventId, RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+        cache.recurrenceOf(randomUUID(), RecurrenceRule.of(WEEKLY), END_DATE, Optional.empty());
+
+        // when
+        cache.evict(List.of(eventId));
+
+        // then
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}